@@ -22,6 +22,7 @@ import com.backbase.stream.product.service.ArrangementService;
 import com.backbase.stream.service.AccessGroupService;
 import com.backbase.stream.service.EntitlementsService;
 import com.backbase.stream.service.LegalEntityService;
+import com.backbase.stream.service.RealmCache;
 import com.backbase.stream.service.UserProfileService;
 import com.backbase.stream.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -74,8 +75,10 @@ public class AccessControlConfiguration {
                                        identityApiClient) {
         UserManagementApi usersApi = new UserManagementApi(usersApiClient);
         IdentityManagementApi identityManagementApi = new IdentityManagementApi(usersApiClient);
+        BackbaseStreamConfigurationProperties.CacheProperties cache = backbaseStreamConfigurationProperties.getCache();
         return new UserService(usersApi, identityManagementApi,
-            identityApiClient.map(IdentityIntegrationServiceApi::new));
+            identityApiClient.map(IdentityIntegrationServiceApi::new),
+            new RealmCache(cache.getRealmTtl(), cache.getRealmNegativeTtl()));
     }
 
     @Bean
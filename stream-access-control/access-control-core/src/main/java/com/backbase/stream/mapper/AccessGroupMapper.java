@@ -1,8 +1,11 @@
 package com.backbase.stream.mapper;
 
 import com.backbase.dbs.accesscontrol.api.service.v2.model.ApprovalStatus;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.DataGroupItem;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.DataGroupItemSystemBase;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.FunctionGroupItem;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.ParticipantIngest;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.Permission;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationIngestFunctionGroup;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationPermission;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationPermissionFunctionGroupUpdate;
@@ -49,6 +52,28 @@ public interface AccessGroupMapper {
     com.backbase.stream.legalentity.model.ApprovalStatus map(
         ApprovalStatus approvalStatus);
 
+    DataGroupItem copy(DataGroupItem dataGroupItem);
+
+    FunctionGroupItem copy(FunctionGroupItem functionGroupItem);
+
+    Permission copy(Permission permission);
+
+    com.backbase.dbs.accesscontrol.api.service.v2.model.Privilege copy(
+        com.backbase.dbs.accesscontrol.api.service.v2.model.Privilege privilege);
+
+    @Mapping(target = "id", ignore = true)
+    DataGroupItem toItem(DataGroupItemSystemBase dataGroup);
+
+    @Mapping(target = "id", ignore = true)
+    FunctionGroupItem toItem(PresentationIngestFunctionGroup functionGroup);
+
+    @Mapping(source = "privileges", target = "assignedPrivileges")
+    Permission toPermission(PresentationPermission presentationPermission);
+
+    default com.backbase.dbs.accesscontrol.api.service.v2.model.Privilege toPrivilege(String privilege) {
+        return new com.backbase.dbs.accesscontrol.api.service.v2.model.Privilege().privilege(privilege);
+    }
+
     /**
      * Map {@link BusinessFunctionGroup} with privileges to {@link PresentationPermission}.
      *
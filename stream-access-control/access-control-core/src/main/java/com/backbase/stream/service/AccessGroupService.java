@@ -41,16 +41,20 @@ import com.backbase.stream.product.task.BatchProductGroupTask;
 import com.backbase.stream.product.task.ProductGroupTask;
 import com.backbase.stream.product.utils.BatchResponseUtils;
 import com.backbase.stream.product.utils.StreamUtils;
+import com.backbase.stream.webclient.coalescing.SingleFlight;
 import com.backbase.stream.worker.exception.StreamTaskException;
 import com.backbase.stream.worker.model.StreamTask;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -70,6 +74,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import javax.validation.constraints.NotNull;
 
@@ -119,6 +125,14 @@ public class AccessGroupService {
 
     private final ParticipantMapper participantMapper = Mappers.getMapper(ParticipantMapper.class);
 
+    private final SingleFlight<Tuple2<String, Boolean>> userFlights = new SingleFlight<>();
+
+    private final ServiceAgreementSnapshotCache<FunctionGroupItem> functionGroupSnapshots =
+        new ServiceAgreementSnapshotCache<>("function groups", this::accessGroupCacheTtl, accessGroupMapper::copy);
+
+    private final ServiceAgreementSnapshotCache<DataGroupItem> dataGroupSnapshots =
+        new ServiceAgreementSnapshotCache<>("data groups", this::accessGroupCacheTtl, accessGroupMapper::copy);
+
     /**
      * Create Service Agreement.
      *
@@ -409,8 +423,9 @@ public class AccessGroupService {
      * @return User
      */
     public Mono<GetUser> getUserByExternalId(String externalId, boolean skipHierarchyCheck) {
-        return usersApi.getUserByExternalId(externalId, skipHierarchyCheck)
-            .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+        return userFlights.execute(Tuples.of(externalId, skipHierarchyCheck),
+            () -> usersApi.getUserByExternalId(externalId, skipHierarchyCheck)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()));
     }
 
     private BiFunction<IdItem, ServiceAgreement, ServiceAgreement> storeIdInServiceAgreement() {
@@ -541,7 +556,7 @@ public class AccessGroupService {
      * Retrieves function groups by service agreement id, filter any non-system and convert resulting list into a set of ids.
      */
     private Mono<Set<String>> getAssociatedSystemFunctionsIds(BatchProductGroupTask task) {
-        return functionGroupApi.getFunctionGroups(task.getData().getServiceAgreement().getInternalId())
+        return getFunctionGroupItems(task.getData().getServiceAgreement().getInternalId())
             .onErrorResume(WebClientResponseException.class, e -> {
                 task.error(ACCESS_GROUP, "assign-permissions", "failed", task.getData().getServiceAgreement().getExternalId(), task.getData().getServiceAgreement().getInternalId(), e, e.getResponseBodyAsString(), "Failed to fetch function groups");
                 return Mono.error(new StreamTaskException(task, e, "Failed to fetch function groups: " + e.getResponseBodyAsString()));
@@ -740,40 +755,70 @@ public class AccessGroupService {
     }
 
     public Mono<BatchProductGroupTask> updateExistingDataGroupsBatch(BatchProductGroupTask task, List<DataGroupItem> existingDataGroups, List<BaseProductGroup> productGroups) {
-        List<PresentationDataGroupItemPutRequestBody> batchUpdateRequest = new ArrayList<>();
-        final Set<String> affectedArrangements = productGroups.stream()
-            .map(StreamUtils::getInternalProductIds)
-            .flatMap(List::stream)
-            .collect(Collectors.toSet());
-        if (BatchProductGroupTask.IngestionMode.REPLACE.equals(task.getIngestionMode())) {
-            // if REPLACE mode, existing products (not sent in the request) also need to be added to the set of affected arrangements.
-            affectedArrangements.addAll(existingDataGroups.stream()
-                .map(DataGroupItem::getItems)
-                .flatMap(List::stream)
-                .collect(Collectors.toSet())
-            );
+        List<PresentationDataGroupItemPutRequestBody> batchUpdateRequest =
+            getDataGroupItemUpdates(task.getIngestionMode(), existingDataGroups, productGroups);
+        if (!CollectionUtils.isEmpty(batchUpdateRequest)) {
+            return updateDataGroupItems(task.getData().getServiceAgreement().getInternalId(), batchUpdateRequest)
+                .doOnNext(response ->
+                    task.info(ACCESS_GROUP, "update", response.getStatus().toString(), response.getResourceId(), null, "Product group updated.")
+                )
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    task.error(ACCESS_GROUP, "product-group", "failed", task.getData().getServiceAgreement().getExternalId(),
+                        task.getData().getServiceAgreement().getInternalId(), e, e.getResponseBodyAsString(), "Failed to update product groups");
+                    return Mono.error(new StreamTaskException(task, e, "Failed Update Product groups: " + e.getResponseBodyAsString()));
+                })
+                .collectList()
+                .thenReturn(task);
+        } else {
+            log.debug("All Product Groups are up to date.");
+            task.info(ACCESS_GROUP, "update", "SUCCESS", prettyPrintProductGroupNames(task), null, "All Product Groups are up to date.");
+            return Mono.just(task);
+        }
+    }
+
+    /**
+     * Diff existing data groups against the requested product groups. Product groups are indexed by name and their
+     * arrangement ids are resolved once, so the cost is linear in the number of data group items instead of
+     * proportional to data groups times affected arrangements.
+     *
+     * @param ingestionMode      In REPLACE mode arrangements missing from the request are removed from every group
+     * @param existingDataGroups Data groups currently in DBS
+     * @param productGroups      Requested product groups
+     * @return Add and remove requests for data groups that are out of date
+     */
+    List<PresentationDataGroupItemPutRequestBody> getDataGroupItemUpdates(BatchProductGroupTask.IngestionMode ingestionMode,
+        List<DataGroupItem> existingDataGroups, List<BaseProductGroup> productGroups) {
+        // first product group with a given name wins, same as the linear lookup did.
+        Map<String, Set<String>> arrangementsByGroupName = new HashMap<>();
+        Set<String> affectedArrangements = new HashSet<>();
+        for (BaseProductGroup productGroup : productGroups) {
+            List<String> arrangements = StreamUtils.getInternalProductIds(productGroup);
+            affectedArrangements.addAll(arrangements);
+            if (productGroup.getName() != null && !arrangementsByGroupName.containsKey(productGroup.getName())) {
+                arrangementsByGroupName.put(productGroup.getName(), new LinkedHashSet<>(arrangements));
+            }
         }
+        boolean replace = BatchProductGroupTask.IngestionMode.REPLACE.equals(ingestionMode);
 
+        List<PresentationDataGroupItemPutRequestBody> batchUpdateRequest = new ArrayList<>();
         existingDataGroups.forEach(dbsDataGroup -> {
-            // get group matching  DBS one.
-            Optional<BaseProductGroup> pg = productGroups.stream()
-                .filter(it -> isEquals(it, dbsDataGroup))
-                .findFirst();
-            List<String> arrangementsToAdd = new ArrayList<>();
-            List<String> arrangementsToRemove = new ArrayList<>();
-            affectedArrangements.forEach(arrangement -> pg.ifPresent(p -> {
-                boolean shouldBeInGroup = StreamUtils.getInternalProductIds(pg.get()).contains(arrangement);
-                if (!dbsDataGroup.getItems().contains(arrangement) && shouldBeInGroup) {
-                    // ADD.
-                    log.debug("Arrangement item {} to be added to Data Group {}", arrangement, dbsDataGroup.getName());
-                    arrangementsToAdd.add(arrangement);
-                }
-                if (dbsDataGroup.getItems().contains(arrangement) && !shouldBeInGroup) {
-                    // remove.
-                    log.debug("Arrangement item {} to be removed from Data Group {}", arrangement, dbsDataGroup.getName());
-                    arrangementsToRemove.add(arrangement);
-                }
-            }));
+            // get group matching DBS one.
+            Set<String> shouldBeInGroup = arrangementsByGroupName.get(dbsDataGroup.getName());
+            if (shouldBeInGroup == null) {
+                return;
+            }
+            Set<String> inGroup = dbsDataGroup.getItems() == null ? Collections.emptySet()
+                : new LinkedHashSet<>(dbsDataGroup.getItems());
+            List<String> arrangementsToAdd = shouldBeInGroup.stream()
+                .filter(arrangement -> !inGroup.contains(arrangement))
+                .collect(Collectors.toList());
+            // if REPLACE mode, existing products (not sent in the request) are affected as well.
+            List<String> arrangementsToRemove = inGroup.stream()
+                .filter(arrangement -> replace || affectedArrangements.contains(arrangement))
+                .filter(arrangement -> !shouldBeInGroup.contains(arrangement))
+                .collect(Collectors.toList());
+            log.debug("Arrangement items {} to be added to and {} to be removed from Data Group {}",
+                arrangementsToAdd, arrangementsToRemove, dbsDataGroup.getName());
             if (!CollectionUtils.isEmpty(arrangementsToAdd)) {
                 batchUpdateRequest.add(new PresentationDataGroupItemPutRequestBody()
                     .dataGroupIdentifier(mapDataGroupId(dbsDataGroup.getId()))
@@ -791,23 +836,7 @@ public class AccessGroupService {
                 );
             }
         });
-        if (!CollectionUtils.isEmpty(batchUpdateRequest)) {
-            return updateDataGroupItems(batchUpdateRequest)
-                .doOnNext(response ->
-                    task.info(ACCESS_GROUP, "update", response.getStatus().toString(), response.getResourceId(), null, "Product group updated.")
-                )
-                .onErrorResume(WebClientResponseException.class, e -> {
-                    task.error(ACCESS_GROUP, "product-group", "failed", task.getData().getServiceAgreement().getExternalId(),
-                        task.getData().getServiceAgreement().getInternalId(), e, e.getResponseBodyAsString(), "Failed to update product groups");
-                    return Mono.error(new StreamTaskException(task, e, "Failed Update Product groups: " + e.getResponseBodyAsString()));
-                })
-                .collectList()
-                .thenReturn(task);
-        } else {
-            log.debug("All Product Groups are up to date.");
-            task.info(ACCESS_GROUP, "update", "SUCCESS", prettyPrintProductGroupNames(task), null, "All Product Groups are up to date.");
-            return Mono.just(task);
-        }
+        return batchUpdateRequest;
     }
 
     @NotNull
@@ -816,12 +845,32 @@ public class AccessGroupService {
     }
 
     public Flux<BatchResponseItemExtended> updateDataGroupItems(List<PresentationDataGroupItemPutRequestBody> request) {
+        return updateDataGroupItems(null, request);
+    }
+
+    private Flux<BatchResponseItemExtended> updateDataGroupItems(String serviceAgreementInternalId,
+        List<PresentationDataGroupItemPutRequestBody> request) {
         return dataGroupsApi.putDataGroupItemsUpdate(request)
+            .doFinally(signal -> dataGroupSnapshots.evict(serviceAgreementInternalId))
             .map(r -> BatchResponseUtils.checkBatchResponseItem(r, "Product Groups Update", r.getStatus().toString(), r.getResourceId(), r.getErrors()));
     }
 
+    /**
+     * Retrieve data groups of a service agreement. When snapshots are cached, all data groups of the service agreement
+     * are listed once and filtered by type.
+     *
+     * @param serviceAgreementInternalId Service Agreement internal identifier
+     * @param type                       Data group type, or null for all types
+     * @return Data groups
+     */
     public Flux<DataGroupItem> getExistingDataGroups(String serviceAgreementInternalId, String type) {
-        return dataGroupApi.getDataGroups(serviceAgreementInternalId, type, true);
+        if (!dataGroupSnapshots.isEnabled()) {
+            return dataGroupApi.getDataGroups(serviceAgreementInternalId, type, true);
+        }
+        return dataGroupSnapshots.get(serviceAgreementInternalId,
+                () -> dataGroupApi.getDataGroups(serviceAgreementInternalId, null, true).collectList())
+            .flatMapIterable(Function.identity())
+            .filter(dataGroupItem -> type == null || type.equals(dataGroupItem.getType()));
     }
 
     /**
@@ -919,6 +968,7 @@ public class AccessGroupService {
         presentationDataGroupUpdate.setType(dataGroupsDataGroupItem.getType());
 
         return dataGroupsApi.putDataGroups(presentationDataGroupUpdate)
+            .doFinally(signal -> dataGroupSnapshots.evict(productGroup.getServiceAgreement().getInternalId()))
             .onErrorResume(WebClientResponseException.class, badRequest -> {
                 streamTask.error(ACCESS_GROUP, "update-access-group", "failed", productGroup.getName(), dataGroupsDataGroupItem.getId(), badRequest, badRequest.getResponseBodyAsString(), "Failed to update access group");
                 log.error("Error Updating data access group: {}", badRequest.getResponseBodyAsString());
@@ -956,6 +1006,11 @@ public class AccessGroupService {
         }
 
         return dataGroupsApi.postDataGroups(dataGroupItemSystemBase)
+            .flatMap(idItem -> dataGroupSnapshots.add(serviceAgreement.getInternalId(),
+                    accessGroupMapper.toItem(dataGroupItemSystemBase).id(idItem.getId()))
+                .thenReturn(idItem))
+            .doOnError(e -> dataGroupSnapshots.evict(serviceAgreement.getInternalId()))
+            .doOnCancel(() -> dataGroupSnapshots.evict(serviceAgreement.getInternalId()))
             .onErrorResume(WebClientResponseException.class, badRequest -> {
                 streamTask.error(ACCESS_GROUP, CREATE_ACCESS_GROUP, REJECTED, productGroup.getName(), null, "Data group items cannot have null items");
                 return Mono.error(new StreamTaskException(streamTask, badRequest, "Data Group Items cannot have null items"));
@@ -998,7 +1053,7 @@ public class AccessGroupService {
             return Mono.empty();
         }
 
-        return functionGroupApi.getFunctionGroups(serviceAgreementInternalId)
+        return getFunctionGroupItems(serviceAgreementInternalId)
             .collectList()
             .flatMap(functionGroups ->
                 functionGroupsApi.postFunctionGroupsDelete(
@@ -1006,7 +1061,8 @@ public class AccessGroupService {
                             .filter(f -> FunctionGroupItem.TypeEnum.TEMPLATE.equals(f.getType()))
                             .map(fg -> mapFunctionGroup(fg.getId()))
                             .collect(Collectors.toList())
-                    ).map(r -> BatchResponseUtils.checkBatchResponseItem(r, "Function  Group Removal", r.getStatus().getValue(), r.getResourceId(), r.getErrors()))
+                    ).doFinally(signal -> functionGroupSnapshots.evict(serviceAgreementInternalId))
+                    .map(r -> BatchResponseUtils.checkBatchResponseItem(r, "Function  Group Removal", r.getStatus().getValue(), r.getResourceId(), r.getErrors()))
                     .collectList())
             .then();
     }
@@ -1019,7 +1075,7 @@ public class AccessGroupService {
      */
     public Mono<List<FunctionGroupItem>> getFunctionGroupsForServiceAgreement(String serviceAgreementInternalId) {
         log.debug("Retrieving Function Groups for Service Agreement {}", serviceAgreementInternalId);
-        return functionGroupApi.getFunctionGroups(serviceAgreementInternalId)
+        return getFunctionGroupItems(serviceAgreementInternalId)
             .collectList();
     }
 
@@ -1069,7 +1125,7 @@ public class AccessGroupService {
      * @return flux of arrangements internal ids.
      */
     public Flux<String> getArrangementInternalIdsForServiceAgreement(String serviceAgreementInternalId) {
-        return dataGroupApi.getDataGroups(serviceAgreementInternalId, null, true)
+        return getExistingDataGroups(serviceAgreementInternalId, null)
             .collectList()
             .map(dataGroupItems -> {
                 // get all internal arrangement IDs present in data groups.
@@ -1133,6 +1189,9 @@ public class AccessGroupService {
         presentationIngestFunctionGroup.setType(PresentationIngestFunctionGroup.TypeEnum.REGULAR);
 
         return functionGroupsApi.postPresentationIngestFunctionGroup(presentationIngestFunctionGroup)
+            .flatMap(idItem -> addFunctionGroup(serviceAgreement, presentationIngestFunctionGroup, idItem))
+            .doOnError(e -> functionGroupSnapshots.evict(serviceAgreement.getInternalId()))
+            .doOnCancel(() -> functionGroupSnapshots.evict(serviceAgreement.getInternalId()))
             .doOnError(WebClientResponseException.BadRequest.class, badRequest ->
                 handleError(businessFunctionGroup, badRequest))
             .onErrorResume(WebClientResponseException.class, badRequest -> {
@@ -1171,6 +1230,9 @@ public class AccessGroupService {
         }
 
         return functionGroupsApi.postPresentationIngestFunctionGroup(presentationIngestFunctionGroup)
+            .flatMap(idItem -> addFunctionGroup(serviceAgreement, presentationIngestFunctionGroup, idItem))
+            .doOnError(e -> functionGroupSnapshots.evict(serviceAgreement.getInternalId()))
+            .doOnCancel(() -> functionGroupSnapshots.evict(serviceAgreement.getInternalId()))
             .doOnError(WebClientResponseException.BadRequest.class, badRequest ->
                 handleError(jobRole, badRequest))
             .onErrorResume(WebClientResponseException.class, badRequest -> {
@@ -1325,6 +1387,7 @@ public class AccessGroupService {
         log.debug("Function to Update: {}", Collections.singletonList(putRequestBody));
 
         return functionGroupsApi.putFunctionGroupsUpdate(Collections.singletonList(putRequestBody))
+            .doFinally(signal -> functionGroupSnapshots.evict(serviceAgreement.getInternalId()))
             .doOnError(WebClientResponseException.BadRequest.class, badRequest -> handleError(jobRole, badRequest))
             .onErrorResume(WebClientResponseException.class, badRequest -> {
                 streamTask.error(JOB_ROLE, "ingest-reference-job-role", FAILED, streamTask.getName(), null, badRequest,
@@ -1384,6 +1447,7 @@ public class AccessGroupService {
         log.debug("Functions to Update: {}", presentationFunctionGroupPutRequestBody);
 
         return functionGroupsApi.putFunctionGroupsUpdate(presentationFunctionGroupPutRequestBody)
+            .doFinally(signal -> functionGroupSnapshots.evict(serviceAgreement.getInternalId()))
             .doOnError(WebClientResponseException.BadRequest.class, this::handleError)
             .onErrorResume(WebClientResponseException.class, badRequest -> {
                 streamTask
@@ -1415,7 +1479,7 @@ public class AccessGroupService {
 
     @NotNull
     private Flux<FunctionGroupItem> getFunctionGroups(StreamTask streamTask, ServiceAgreement serviceAgreement) {
-        return functionGroupApi.getFunctionGroups(serviceAgreement.getInternalId())
+        return getFunctionGroupItems(serviceAgreement.getInternalId())
             .onErrorResume(WebClientResponseException.class, e -> {
                 log.error("Failed to get Function Groups for Service Agreement: {} Response: {}",
                     serviceAgreement.getExternalId(), e.getResponseBodyAsString());
@@ -1427,6 +1491,32 @@ public class AccessGroupService {
             });
     }
 
+    /**
+     * Add a created function group to the snapshot of its service agreement, rebuilt from the request and the
+     * returned id, instead of listing all function groups again.
+     */
+    private Mono<IdItem> addFunctionGroup(ServiceAgreement serviceAgreement,
+        PresentationIngestFunctionGroup presentationIngestFunctionGroup, IdItem idItem) {
+        return functionGroupSnapshots.add(serviceAgreement.getInternalId(),
+                accessGroupMapper.toItem(presentationIngestFunctionGroup).id(idItem.getId()))
+            .thenReturn(idItem);
+    }
+
+    /**
+     * Retrieve function groups of a service agreement from its snapshot, if cached. Concurrent requests for the same
+     * service agreement share one call to Access Control.
+     */
+    private Flux<FunctionGroupItem> getFunctionGroupItems(String serviceAgreementInternalId) {
+        return functionGroupSnapshots.get(serviceAgreementInternalId,
+                () -> functionGroupApi.getFunctionGroups(serviceAgreementInternalId).collectList())
+            .flatMapIterable(Function.identity());
+    }
+
+    private Duration accessGroupCacheTtl() {
+        BackbaseStreamConfigurationProperties.CacheProperties cache = configurationProperties.getCache();
+        return cache != null ? cache.getAccessGroupTtl() : null;
+    }
+
     private void handleError(WebClientResponseException badRequest) {
         log.warn("Error executing request: [{}] {}", badRequest.getRawStatusCode(), badRequest.getResponseBodyAsString());
     }
@@ -4,6 +4,7 @@ import com.backbase.dbs.accesscontrol.api.service.v2.LegalEntitiesApi;
 import com.backbase.dbs.accesscontrol.api.service.v2.LegalEntityApi;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntitiesBatchDelete;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntityCreateItem;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntityItemBase;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntityItemId;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntityPut;
 import com.backbase.stream.exceptions.LegalEntityException;
@@ -12,6 +13,7 @@ import com.backbase.stream.legalentity.model.ServiceAgreement;
 import com.backbase.stream.mapper.AccessGroupMapper;
 import com.backbase.stream.mapper.LegalEntityMapper;
 import com.backbase.stream.product.utils.BatchResponseUtils;
+import com.backbase.stream.webclient.coalescing.SingleFlight;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -48,6 +50,9 @@ public class LegalEntityService {
     private final LegalEntityMapper mapper = Mappers.getMapper(LegalEntityMapper.class);
     private final AccessGroupMapper serviceAgreementMapper = Mappers.getMapper(AccessGroupMapper.class);
 
+    private final SingleFlight<String> legalEntityFlights = new SingleFlight<>();
+    private final SingleFlight<String> masterServiceAgreementFlights = new SingleFlight<>();
+
     // Configured at access-control service
     @Value("${backbase.accesscontrol.token.key:Bar12345Bar12345}")
     private final String accessControlApiTokenKey = "Bar12345Bar12345";
@@ -120,23 +125,34 @@ public class LegalEntityService {
      */
     public Mono<ServiceAgreement> getMasterServiceAgreementForInternalLegalEntityId(String legalEntityInternalId) {
         log.info("Getting Service Agreement for: {}", legalEntityInternalId);
-        return legalEntityApi.getMasterServiceAgreement(legalEntityInternalId)
-            .doOnNext(serviceAgreementItem -> log.info("Service Agreement: {} found for legal entity: {}", serviceAgreementItem.getExternalId(), legalEntityInternalId))
-            .onErrorResume(WebClientResponseException.NotFound.class, throwable -> {
-                log.info("Master Service Agreement not found for: {}. Request:[{}] {}  Response: {}", legalEntityInternalId,  throwable.getRequest().getMethod(), throwable.getRequest().getURI() , throwable.getResponseBodyAsString());
-                return Mono.empty();
-            })
+        return masterServiceAgreementFlights.execute(legalEntityInternalId, () ->
+                legalEntityApi.getMasterServiceAgreement(legalEntityInternalId)
+                    .doOnNext(serviceAgreementItem -> log.info("Service Agreement: {} found for legal entity: {}", serviceAgreementItem.getExternalId(), legalEntityInternalId))
+                    .onErrorResume(WebClientResponseException.NotFound.class, throwable -> {
+                        log.info("Master Service Agreement not found for: {}. Request:[{}] {}  Response: {}", legalEntityInternalId,  throwable.getRequest().getMethod(), throwable.getRequest().getURI() , throwable.getResponseBodyAsString());
+                        return Mono.empty();
+                    }))
             .map(serviceAgreementMapper::toStream);
     }
 
+    /**
+     * Get Legal Entity by External ID. Concurrent requests for the same Legal Entity share one call to Access Control.
+     *
+     * @param externalId External Legal Entity ID
+     * @return Legal Entity, or empty if it does not exist
+     */
     public Mono<LegalEntity> getLegalEntityByExternalId(String externalId) {
+        return legalEntityFlights.execute(externalId, () -> fetchLegalEntityByExternalId(externalId))
+            .map(mapper::toStream);
+    }
+
+    private Mono<LegalEntityItemBase> fetchLegalEntityByExternalId(String externalId) {
         try {
             return legalEntitiesApi.getLegalEntityByExternalId(externalId)
                     .onErrorResume(WebClientResponseException.NotFound.class, notFound -> {
                         log.info("Legal Entity with externalId: {} does not exist: {}", externalId, notFound.getResponseBodyAsString());
                         return Mono.empty();
-                    })
-                    .map(mapper::toStream);
+                    });
         } catch (RestClientException e) {
             return Mono.error(e);
         }
@@ -216,11 +232,94 @@ public class LegalEntityService {
     public Mono<LegalEntity> putLegalEntity(LegalEntity legalEntity) {
         LegalEntityPut legalEntityPut = mapper.toLegalEntityPut(legalEntity);
 
+        return updateLegalEntity(legalEntityPut)
+                .then(fetchLegalEntityByExternalId(legalEntityPut.getExternalId()))
+                .map(mapper::toStream);
+    }
+
+    private Mono<Void> updateLegalEntity(LegalEntityPut legalEntityPut) {
         return legalEntitiesApi.putLegalEntities(Collections.singletonList(legalEntityPut))
                 .doOnError(WebClientResponseException.class, this::handleWebClientResponseException)
                 .onErrorResume(WebClientResponseException.class, exception -> Mono.error(new RuntimeException("Failed to update Legal Entity",  exception)))
                 .onErrorStop()
-                .then(getLegalEntityByExternalId(legalEntityPut.getExternalId()));
+                .then();
+    }
+
+    /**
+     * Create or update a Legal Entity after a lookup by external ID. An existing Legal Entity is only updated when its
+     * name, type, additions or parent differ, and is not read back after the update. activateSingleServiceAgreement
+     * cannot be read back, so a Legal Entity setting it is always updated.
+     *
+     * <p>The lookup by external ID does not return the parent. An unchanged Legal Entity with a parent therefore costs
+     * a second lookup by internal ID to compare the parent, and is updated without it when the internal ID of its
+     * parent is not known. Only Legal Entities without a parent, or with other changes, are upserted with one lookup.
+     *
+     * @param legalEntity The Legal Entity to upsert, receiving the Internal ID
+     * @return Whether the Legal Entity was created, updated or unchanged
+     */
+    public Mono<UpsertOutcome> upsertLegalEntity(LegalEntity legalEntity) {
+        return getLegalEntityByExternalId(legalEntity.getExternalId())
+            .flatMap(existingLegalEntity -> {
+                legalEntity.setInternalId(existingLegalEntity.getInternalId());
+                return isUnchangedWithParent(existingLegalEntity, legalEntity)
+                    .flatMap(unchanged -> {
+                        if (Boolean.TRUE.equals(unchanged)) {
+                            log.info("Legal Entity: {} is unchanged", legalEntity.getExternalId());
+                            return Mono.just(UpsertOutcome.UNCHANGED);
+                        }
+                        return updateLegalEntity(mapper.toLegalEntityPut(legalEntity))
+                            .then(Mono.fromCallable(() -> {
+                                log.info("Updated LegalEntity: {}", legalEntity.getName());
+                                return UpsertOutcome.UPDATED;
+                            }));
+                    });
+            })
+            .switchIfEmpty(Mono.defer(() -> createLegalEntity(legalEntity).thenReturn(UpsertOutcome.CREATED)));
+    }
+
+    /**
+     * Compare a Legal Entity including its parent, which is only returned by the lookup by Internal ID. This costs a
+     * second lookup for every otherwise unchanged Legal Entity that has a parent.
+     */
+    private Mono<Boolean> isUnchangedWithParent(LegalEntity existingLegalEntity, LegalEntity legalEntity) {
+        if (!isUnchanged(existingLegalEntity, legalEntity) || legalEntity.getActivateSingleServiceAgreement() != null) {
+            return Mono.just(false);
+        }
+        if (legalEntity.getParentExternalId() == null) {
+            return Mono.just(true);
+        }
+        if (legalEntity.getParentInternalId() == null) {
+            return Mono.just(false);
+        }
+        return getLegalEntityByInternalId(existingLegalEntity.getInternalId())
+            .map(stored -> legalEntity.getParentInternalId().equals(stored.getParentInternalId()))
+            .defaultIfEmpty(false);
+    }
+
+    /**
+     * Compare the fields of a Legal Entity which are returned by the lookup by External ID.
+     *
+     * @param existingLegalEntity Legal Entity stored in Access Control
+     * @param legalEntity         Legal Entity to upsert
+     * @return true if an update would not change the stored Legal Entity
+     */
+    static boolean isUnchanged(LegalEntity existingLegalEntity, LegalEntity legalEntity) {
+        return Objects.equals(existingLegalEntity.getName(), legalEntity.getName())
+            && Objects.equals(existingLegalEntity.getLegalEntityType(), legalEntity.getLegalEntityType())
+            && Objects.equals(emptyToNull(existingLegalEntity.getAdditions()), emptyToNull(legalEntity.getAdditions()));
+    }
+
+    private static Map<String, String> emptyToNull(Map<String, String> additions) {
+        return additions == null || additions.isEmpty() ? null : additions;
+    }
+
+    /**
+     * Result of {@link #upsertLegalEntity(LegalEntity)}.
+     */
+    public enum UpsertOutcome {
+        CREATED,
+        UPDATED,
+        UNCHANGED
     }
 
 }
@@ -0,0 +1,160 @@
+package com.backbase.stream.service;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+
+import com.backbase.dbs.user.api.service.v2.model.Realm;
+import com.backbase.stream.webclient.coalescing.SingleFlight;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Realms by name, as last listed in Identity. Realms that were found are kept for {@code ttl}, names that were not
+ * found for {@code negativeTtl}. A zero duration disables the respective caching. Concurrent misses share one listing
+ * of realms, and every realm in a listing is cached, not only the one that was asked for.
+ *
+ * <p>Realms are cached per set of headers forwarded to DBS, taken from the subscriber context like
+ * {@link SingleFlight} does, so tenants served through different headers never see each other's realms.</p>
+ */
+@Slf4j
+public class RealmCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofSeconds(30);
+
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+
+    private final Map<RealmKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final SingleFlight<Long> listings = new SingleFlight<>();
+
+    public RealmCache() {
+        this(DEFAULT_TTL, DEFAULT_NEGATIVE_TTL);
+    }
+
+    /**
+     * Create Realm Cache.
+     *
+     * @param ttl         Time a realm that was found is kept
+     * @param negativeTtl Time a realm name that was not found is remembered
+     */
+    public RealmCache(Duration ttl, Duration negativeTtl) {
+        this(ttl, negativeTtl, System::nanoTime);
+    }
+
+    RealmCache(Duration ttl, Duration negativeTtl, LongSupplier clock) {
+        this.ttlNanos = ttl == null ? 0 : Math.max(0, ttl.toNanos());
+        this.negativeTtlNanos = negativeTtl == null ? 0 : Math.max(0, negativeTtl.toNanos());
+        this.clock = clock;
+    }
+
+    /**
+     * Get a realm by name from the cache, listing all realms when it is not cached or expired.
+     *
+     * @param realmName Realm name
+     * @param listRealms Lists all realms
+     * @return Realm, or empty if there is no realm with that name
+     */
+    public Mono<Realm> get(String realmName, Supplier<Mono<List<Realm>>> listRealms) {
+        return Mono.deferContextual(context -> {
+            Object scope = context.getOrDefault(CONTEXT_KEY_FORWARDED_HEADERS, null);
+            Entry entry = entries.get(new RealmKey(realmName, scope));
+            if (entry != null && entry.expiresAt - clock.getAsLong() > 0) {
+                log.debug("Realm '{}' {} in cache", realmName, entry.realm != null ? "found" : "absent");
+                return Mono.justOrEmpty(entry.realm);
+            }
+            long listingGeneration = generation.get();
+            return listings.execute(listingGeneration, listRealms)
+                .flatMap(realms -> Mono.justOrEmpty(store(realms, realmName, scope, listingGeneration)));
+        });
+    }
+
+    /**
+     * Forget a realm for all forwarded headers, e.g. because it has just been created. Listings already in progress
+     * are neither cached nor shared with later lookups.
+     *
+     * @param realmName Realm name
+     */
+    public void invalidate(String realmName) {
+        generation.incrementAndGet();
+        entries.keySet().removeIf(key -> realmName.equals(key.realmName));
+    }
+
+    /**
+     * Forget all realms.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private Optional<Realm> store(List<Realm> realms, String realmName, Object scope, long listingGeneration) {
+        Optional<Realm> found = realms.stream()
+            .filter(realm -> realmName.equals(realm.getRealmName()))
+            .findFirst();
+        if (generation.get() != listingGeneration) {
+            return found;
+        }
+        long now = clock.getAsLong();
+        if (ttlNanos > 0) {
+            realms.stream()
+                .filter(realm -> realm.getRealmName() != null)
+                .forEach(realm -> entries.put(new RealmKey(realm.getRealmName(), scope),
+                    new Entry(realm, now + ttlNanos)));
+        }
+        if (found.isEmpty() && negativeTtlNanos > 0) {
+            entries.put(new RealmKey(realmName, scope), new Entry(null, now + negativeTtlNanos));
+        }
+        return found;
+    }
+
+    private static final class RealmKey {
+
+        private final String realmName;
+        private final Object scope;
+
+        private RealmKey(String realmName, Object scope) {
+            this.realmName = realmName;
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RealmKey)) {
+                return false;
+            }
+            RealmKey that = (RealmKey) o;
+            return Objects.equals(realmName, that.realmName) && Objects.equals(scope, that.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(realmName, scope);
+        }
+    }
+
+    private static class Entry {
+
+        private final Realm realm;
+        private final long expiresAt;
+
+        private Entry(Realm realm, long expiresAt) {
+            this.realm = realm;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.backbase.stream.service;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+
+import com.backbase.stream.webclient.coalescing.SingleFlight;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * Snapshots of the groups (function groups or data groups) of service agreements, as last listed from Access Control.
+ * A snapshot is kept until its time to live expires or until the groups of its service agreement are written through
+ * the owning service, which evicts it or adds a created group to it. Concurrent listings of the same service agreement
+ * are shared, also when caching is disabled by a zero or missing time to live. Writes are tracked per service
+ * agreement, so writing the groups of one service agreement never affects listings of another.
+ *
+ * <p>Snapshots are kept per set of headers forwarded to DBS, taken from the subscriber context like
+ * {@link SingleFlight} does, so tenants served through different headers never see each other's groups. Every read
+ * returns copies of the groups, so callers may modify them without affecting the snapshot or each other.</p>
+ *
+ * @param <T> Group type
+ */
+@Slf4j
+class ServiceAgreementSnapshotCache<T> {
+
+    private static final int PURGE_THRESHOLD = 256;
+
+    private final String name;
+    private final Supplier<Duration> ttl;
+    private final UnaryOperator<T> copy;
+    private final LongSupplier clock;
+
+    private final Map<SnapshotKey, Snapshot<T>> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final SingleFlight<Tuple2<String, Long>> listings = new SingleFlight<>();
+
+    ServiceAgreementSnapshotCache(String name, Supplier<Duration> ttl, UnaryOperator<T> copy) {
+        this(name, ttl, copy, System::nanoTime);
+    }
+
+    ServiceAgreementSnapshotCache(String name, Supplier<Duration> ttl, UnaryOperator<T> copy, LongSupplier clock) {
+        this.name = name;
+        this.ttl = ttl;
+        this.copy = copy;
+        this.clock = clock;
+    }
+
+    boolean isEnabled() {
+        return ttlNanos() > 0;
+    }
+
+    /**
+     * Get the groups of a service agreement from the snapshot, listing them when there is no fresh snapshot.
+     *
+     * @param serviceAgreementId Service agreement internal ID
+     * @param list               Lists the groups of the service agreement
+     * @return Unmodifiable list of copies of the groups
+     */
+    Mono<List<T>> get(String serviceAgreementId, Supplier<Mono<List<T>>> list) {
+        return Mono.deferContextual(context -> {
+            SnapshotKey key = new SnapshotKey(serviceAgreementId,
+                context.getOrDefault(CONTEXT_KEY_FORWARDED_HEADERS, null));
+            Snapshot<T> snapshot = snapshots.get(key);
+            if (snapshot != null && snapshot.expiresAt - clock.getAsLong() > 0) {
+                log.debug("Using {} snapshot of Service Agreement: {}", name, serviceAgreementId);
+                return Mono.just(copies(snapshot.groups));
+            }
+            long listingGeneration = generation(serviceAgreementId).get();
+            return listings.execute(Tuples.of(serviceAgreementId, listingGeneration),
+                    () -> list.get().map(groups -> store(key, groups, listingGeneration)))
+                .map(this::copies);
+        });
+    }
+
+    /**
+     * Add a group created in a service agreement to its snapshot for the current forwarded headers, so the next read
+     * does not list the groups again. Snapshots of the service agreement for other forwarded headers are evicted, and
+     * listings of the service agreement in progress are neither cached nor shared with later reads.
+     *
+     * @param serviceAgreementId Service agreement internal ID
+     * @param group              The created group, as it would be listed
+     * @return Completes when the snapshot is updated
+     */
+    Mono<Void> add(String serviceAgreementId, T group) {
+        return Mono.deferContextual(context -> {
+            SnapshotKey key = new SnapshotKey(serviceAgreementId,
+                context.getOrDefault(CONTEXT_KEY_FORWARDED_HEADERS, null));
+            T added = copy.apply(group);
+            snapshots.compute(key, (k, snapshot) -> {
+                generation(serviceAgreementId).incrementAndGet();
+                if (snapshot == null || snapshot.expiresAt - clock.getAsLong() <= 0) {
+                    return null;
+                }
+                List<T> groups = new ArrayList<>(snapshot.groups);
+                groups.add(added);
+                return new Snapshot<>(groups, snapshot.expiresAt);
+            });
+            snapshots.keySet().removeIf(other -> serviceAgreementId.equals(other.serviceAgreementId)
+                && !key.equals(other));
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Evict the snapshots of a service agreement for all forwarded headers, after its groups were written. Listings of
+     * the service agreement in progress are neither cached nor shared with later reads.
+     *
+     * @param serviceAgreementId Service agreement internal ID. All snapshots are evicted when null
+     */
+    void evict(String serviceAgreementId) {
+        if (serviceAgreementId == null) {
+            evictAll();
+            return;
+        }
+        generation(serviceAgreementId).incrementAndGet();
+        snapshots.keySet().removeIf(key -> serviceAgreementId.equals(key.serviceAgreementId));
+    }
+
+    /**
+     * Evict all snapshots.
+     */
+    void evictAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        snapshots.clear();
+    }
+
+    private AtomicLong generation(String serviceAgreementId) {
+        return generations.computeIfAbsent(serviceAgreementId, id -> new AtomicLong());
+    }
+
+    private List<T> store(SnapshotKey key, List<T> groups, long listingGeneration) {
+        long ttlNanos = ttlNanos();
+        if (ttlNanos > 0) {
+            long now = clock.getAsLong();
+            if (snapshots.size() >= PURGE_THRESHOLD) {
+                snapshots.values().removeIf(snapshot -> snapshot.expiresAt - now <= 0);
+            }
+            snapshots.compute(key, (k, snapshot) -> generation(key.serviceAgreementId).get() == listingGeneration
+                ? new Snapshot<>(groups, now + ttlNanos) : snapshot);
+        }
+        return groups;
+    }
+
+    private List<T> copies(List<T> groups) {
+        return Collections.unmodifiableList(groups.stream().map(copy).collect(Collectors.toList()));
+    }
+
+    private long ttlNanos() {
+        Duration duration = ttl.get();
+        return duration == null || duration.isNegative() ? 0 : duration.toNanos();
+    }
+
+    private static final class SnapshotKey {
+
+        private final String serviceAgreementId;
+        private final Object scope;
+
+        private SnapshotKey(String serviceAgreementId, Object scope) {
+            this.serviceAgreementId = serviceAgreementId;
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SnapshotKey)) {
+                return false;
+            }
+            SnapshotKey that = (SnapshotKey) o;
+            return Objects.equals(serviceAgreementId, that.serviceAgreementId) && Objects.equals(scope, that.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(serviceAgreementId, scope);
+        }
+    }
+
+    private static class Snapshot<T> {
+
+        private final List<T> groups;
+        private final long expiresAt;
+
+        private Snapshot(List<T> groups, long expiresAt) {
+            this.groups = groups;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
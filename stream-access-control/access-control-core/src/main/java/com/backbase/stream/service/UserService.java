@@ -25,7 +25,6 @@ import java.util.stream.Collectors;
 
 import com.backbase.stream.worker.exception.StreamTaskException;
 import com.backbase.stream.worker.model.StreamTask;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.mapstruct.factory.Mappers;
 import org.springframework.http.HttpStatus;
@@ -41,7 +40,6 @@ import javax.validation.constraints.NotNull;
  */
 @SuppressWarnings("WeakerAccess")
 @Slf4j
-@AllArgsConstructor
 public class UserService {
 
     public static final String REMOVED_PREFIX = "REMOVED_";
@@ -53,6 +51,20 @@ public class UserService {
     private final UserManagementApi usersApi;
     private final IdentityManagementApi identityManagementApi;
     private final Optional<IdentityIntegrationServiceApi> identityIntegrationApi;
+    private final RealmCache realmCache;
+
+    public UserService(UserManagementApi usersApi, IdentityManagementApi identityManagementApi,
+        Optional<IdentityIntegrationServiceApi> identityIntegrationApi) {
+        this(usersApi, identityManagementApi, identityIntegrationApi, new RealmCache());
+    }
+
+    public UserService(UserManagementApi usersApi, IdentityManagementApi identityManagementApi,
+        Optional<IdentityIntegrationServiceApi> identityIntegrationApi, RealmCache realmCache) {
+        this.usersApi = usersApi;
+        this.identityManagementApi = identityManagementApi;
+        this.identityIntegrationApi = identityIntegrationApi;
+        this.realmCache = realmCache;
+    }
 
     /**
      * Get User by external ID.
@@ -180,7 +192,7 @@ public class UserService {
     }
 
     /**
-     * Create Realm.
+     * Create Realm. The realm is evicted from the realm cache, whether it was created or not.
      *
      * @param realmName
      * @return
@@ -193,25 +205,27 @@ public class UserService {
                 log.error("Error creating realm: {} Response: {}", realmName, e.getResponseBodyAsString());
                 return Mono.error(e);
             })
+            .doFinally(signal -> realmCache.invalidate(realmName))
             .map(realmMapper::toStream);
     }
 
     /**
-     * Checks for existing Realms and Returns if matching realm is found.
+     * Checks for existing Realms and Returns if matching realm is found. Realms are listed from Identity only when
+     * the realm cache does not know the realm.
      *
      * @param realmName
      * @return
      */
     private Mono<Realm> existingRealm(final String realmName) {
-        log.info("Checking for existing Realm '{}'", realmName);
-        return identityManagementApi.getRealms(null)
-            .onErrorResume(WebClientResponseException.class, e -> {
-                log.error("Error getting realm: {} Response: {}", realmName, e.getResponseBodyAsString());
-                return Mono.error(e);
-            })
-            .collectList()
-            .map(realms -> realms.stream().filter(realm -> realmName.equals(realm.getRealmName())).findFirst())
-            .flatMap(Mono::justOrEmpty);
+        return realmCache.get(realmName, () -> {
+            log.info("Checking for existing Realm '{}'", realmName);
+            return identityManagementApi.getRealms(null)
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    log.error("Error getting realm: {} Response: {}", realmName, e.getResponseBodyAsString());
+                    return Mono.error(e);
+                })
+                .collectList();
+        });
     }
 
     /**
@@ -225,7 +239,7 @@ public class UserService {
             return Mono.empty();
         }
         Mono<Realm> existingRealm = existingRealm(legalEntity.getRealmName());
-        Mono<Realm> createNewRealm = createRealm(legalEntity.getRealmName());
+        Mono<Realm> createNewRealm = Mono.defer(() -> createRealm(legalEntity.getRealmName()));
         return existingRealm.switchIfEmpty(createNewRealm)
             .map(actual -> actual);
 
@@ -8,6 +8,7 @@ import static com.backbase.stream.legalentity.model.LegalEntityStatus.ENABLED;
 import static com.backbase.stream.LambdaAssertions.assertEqualsTo;
 import static com.backbase.stream.WebClientTestUtils.buildWebResponseExceptionMono;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,6 +25,7 @@ import com.backbase.dbs.accesscontrol.api.service.v2.ServiceAgreementsApi;
 import com.backbase.dbs.accesscontrol.api.service.v2.UserQueryApi;
 import com.backbase.dbs.accesscontrol.api.service.v2.UsersApi;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.BatchResponseItemExtended;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.DataGroupItem;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.FunctionGroupItem;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.FunctionGroupItem.TypeEnum;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PersistenceApprovalPermissions;
@@ -31,8 +33,10 @@ import com.backbase.dbs.accesscontrol.api.service.v2.model.PersistenceApprovalPe
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationAction;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationAssignUserPermissions;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationDataGroupIdentifier;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationDataGroupItemPutRequestBody;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationFunctionGroupDataGroup;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationIdentifier;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationItemIdentifier;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationParticipantBatchUpdate;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationParticipantPutBody;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationServiceAgreementUserPair;
@@ -45,6 +49,7 @@ import com.backbase.stream.config.BackbaseStreamConfigurationProperties;
 import com.backbase.stream.legalentity.model.BaseProductGroup;
 import com.backbase.stream.legalentity.model.BatchProductGroup;
 import com.backbase.stream.legalentity.model.BusinessFunctionGroup;
+import com.backbase.stream.legalentity.model.CurrentAccount;
 import com.backbase.stream.legalentity.model.JobProfileUser;
 import com.backbase.stream.legalentity.model.LegalEntityParticipant;
 import com.backbase.stream.legalentity.model.ServiceAgreement;
@@ -699,6 +704,54 @@ class AccessGroupServiceTest {
         validator.verify(serviceAgreementApi).putPresentationIngestServiceAgreementParticipants(eq(expectedRequest));
     }
 
+    @Test
+    void getDataGroupItemUpdatesOnlyTouchesAffectedArrangementsInUpdateMode() {
+        List<DataGroupItem> existingDataGroups = asList(
+            new DataGroupItem().id("dg-1").name("pg1").type("ARRANGEMENTS").items(asList("a1", "a2", "x9")),
+            new DataGroupItem().id("dg-2").name("pg2").type("ARRANGEMENTS").items(Collections.emptyList()),
+            new DataGroupItem().id("dg-3").name("other").type("ARRANGEMENTS").items(singletonList("a1")));
+        List<BaseProductGroup> productGroups = asList(productGroup("pg1", "a1", "a3"), productGroup("pg2", "a2"));
+
+        List<PresentationDataGroupItemPutRequestBody> result = subject.getDataGroupItemUpdates(
+            BatchProductGroupTask.IngestionMode.UPDATE, existingDataGroups, productGroups);
+
+        assertEquals(asList(
+            dataGroupItemUpdate("dg-1", ADD, "a3"),
+            dataGroupItemUpdate("dg-1", REMOVE, "a2"),
+            dataGroupItemUpdate("dg-2", ADD, "a2")), result);
+    }
+
+    @Test
+    void getDataGroupItemUpdatesRemovesArrangementsNotRequestedInReplaceMode() {
+        List<DataGroupItem> existingDataGroups = singletonList(
+            new DataGroupItem().id("dg-1").name("pg1").type("ARRANGEMENTS").items(asList("a1", "a2", "x9")));
+        List<BaseProductGroup> productGroups = asList(productGroup("pg1", "a1"), productGroup("pg1", "a2"));
+
+        List<PresentationDataGroupItemPutRequestBody> result = subject.getDataGroupItemUpdates(
+            BatchProductGroupTask.IngestionMode.REPLACE, existingDataGroups, productGroups);
+
+        assertEquals(singletonList(dataGroupItemUpdate("dg-1", REMOVE, "a2", "x9")), result);
+    }
+
+    private BaseProductGroup productGroup(String name, String... internalIds) {
+        return new BaseProductGroup()
+            .name(name)
+            .currentAccounts(Stream.of(internalIds)
+                .map(internalId -> (CurrentAccount) new CurrentAccount().internalId(internalId))
+                .collect(Collectors.toList()));
+    }
+
+    private PresentationDataGroupItemPutRequestBody dataGroupItemUpdate(String dataGroupId, PresentationAction action,
+                                                                       String... internalIds) {
+        return new PresentationDataGroupItemPutRequestBody()
+            .dataGroupIdentifier(new PresentationDataGroupIdentifier().idIdentifier(dataGroupId))
+            .type("ARRANGEMENTS")
+            .action(action)
+            .dataItems(Stream.of(internalIds)
+                .map(internalId -> new PresentationItemIdentifier().internalIdIdentifier(internalId))
+                .collect(Collectors.toList()));
+    }
+
     private ServiceAgreement buildInputServiceAgreement(String saInternalId, String saExternalId, String description,
                                                         String name, LocalDate validFromDate, String validFromTime,
                                                         LocalDate validUntilDate, String validUntilTime) {
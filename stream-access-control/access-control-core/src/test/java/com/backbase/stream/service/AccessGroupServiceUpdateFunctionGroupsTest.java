@@ -404,6 +404,43 @@ class AccessGroupServiceUpdateFunctionGroupsTest {
                 ));
     }
 
+    @Test
+    void setupJobRolesAddsCreatedFunctionGroupsToSnapshot() {
+        final String saInternalId = "someSaInternalId";
+        StreamTask streamTask = Mockito.mock(StreamTask.class);
+        ServiceAgreement serviceAgreement = new ServiceAgreement()
+            .internalId(saInternalId)
+            .externalId("someSaExternalId");
+
+        Mockito.when(configurationProperties.getCache())
+            .thenReturn(new BackbaseStreamConfigurationProperties.CacheProperties());
+        Mockito.when(functionGroupApi.getFunctionGroups(saInternalId))
+            .thenReturn(Flux.just(new FunctionGroupItem().name("existingJobRole").id("1")));
+        Mockito.when(functionGroupsApi.postPresentationIngestFunctionGroup(any()))
+            .thenReturn(Mono.just(new IdItem().id("2")), Mono.just(new IdItem().id("3")));
+
+        subject.setupJobRole(streamTask, serviceAgreement, new JobRole().name("jobRole2")
+            .addFunctionGroupsItem(new BusinessFunctionGroup().name("fg1")
+                .addFunctionsItem(new BusinessFunction().functionId("101")
+                    .addPrivilegesItem(new com.backbase.stream.legalentity.model.Privilege().privilege("view")))))
+            .block();
+        subject.setupJobRole(streamTask, serviceAgreement, new JobRole().name("jobRole3")).block();
+        List<FunctionGroupItem> functionGroups = subject.getFunctionGroupsForServiceAgreement(saInternalId).block();
+
+        Mockito.verify(functionGroupApi, Mockito.times(1)).getFunctionGroups(saInternalId);
+        Mockito.verify(functionGroupsApi, Mockito.times(2)).postPresentationIngestFunctionGroup(any());
+        Assertions.assertNotNull(functionGroups);
+        Assertions.assertEquals(3, functionGroups.size());
+        FunctionGroupItem created = functionGroups.get(1);
+        Assertions.assertEquals("2", created.getId());
+        Assertions.assertEquals("jobRole2", created.getName());
+        Assertions.assertEquals(FunctionGroupItem.TypeEnum.REGULAR, created.getType());
+        Assertions.assertEquals(
+            new Permission().functionId("101").addAssignedPrivilegesItem(new Privilege().privilege("view")),
+            created.getPermissions().get(0));
+        Assertions.assertEquals("3", functionGroups.get(2).getId());
+    }
+
     private ServiceAgreement buildInputServiceAgreement(String saInternalId, String saExternalId, String description,
         String name, LocalDate validFromDate, String validFromTime, LocalDate validUntilDate, String validUntilTime) {
 
@@ -0,0 +1,177 @@
+package com.backbase.stream.service;
+
+import static org.mockito.Mockito.mock;
+
+import com.backbase.dbs.accesscontrol.api.service.v2.DataGroupApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.DataGroupsApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.FunctionGroupApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.FunctionGroupsApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.ServiceAgreementApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.ServiceAgreementQueryApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.ServiceAgreementsApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.UserQueryApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.UsersApi;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.DataGroupItem;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationAction;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationDataGroupIdentifier;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationDataGroupItemPutRequestBody;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.PresentationItemIdentifier;
+import com.backbase.dbs.user.api.service.v2.UserManagementApi;
+import com.backbase.stream.config.BackbaseStreamConfigurationProperties;
+import com.backbase.stream.legalentity.model.BaseProductGroup;
+import com.backbase.stream.legalentity.model.CurrentAccount;
+import com.backbase.stream.product.task.BatchProductGroupTask;
+import com.backbase.stream.product.utils.StreamUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the data group diff used by {@link AccessGroupService#updateExistingDataGroupsBatch} with the previous
+ * implementation, which scanned every requested product group and every affected arrangement for each data group.
+ * Each data group is out of date by a few arrangements, so both sides produce add and remove requests. Not executed
+ * by the test suite; run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class DataGroupItemUpdatesBenchmark {
+
+    private static final int DRIFT = 4;
+
+    @Param({"500"})
+    int groups;
+
+    @Param({"20000"})
+    int arrangements;
+
+    @Param({"UPDATE", "REPLACE"})
+    BatchProductGroupTask.IngestionMode ingestionMode;
+
+    private AccessGroupService accessGroupService;
+    private List<DataGroupItem> existingDataGroups;
+    private List<BaseProductGroup> productGroups;
+
+    @Setup
+    public void setUp() {
+        accessGroupService = new AccessGroupService(mock(UserManagementApi.class), mock(UserQueryApi.class),
+            mock(UsersApi.class), mock(DataGroupApi.class), mock(DataGroupsApi.class), mock(FunctionGroupApi.class),
+            mock(FunctionGroupsApi.class), mock(ServiceAgreementQueryApi.class), mock(ServiceAgreementApi.class),
+            mock(ServiceAgreementsApi.class), new BackbaseStreamConfigurationProperties());
+
+        int perGroup = arrangements / groups;
+        productGroups = new ArrayList<>(groups);
+        existingDataGroups = new ArrayList<>(groups);
+        for (int group = 0; group < groups; group++) {
+            int first = group * perGroup;
+            productGroups.add(new BaseProductGroup()
+                .name("product-group-" + group)
+                .currentAccounts(IntStream.range(first, first + perGroup)
+                    .mapToObj(arrangement -> (CurrentAccount) new CurrentAccount().internalId("arrangement-" + arrangement))
+                    .collect(Collectors.toList())));
+            // shifted window: the first arrangements are missing and the next group's first ones are assigned.
+            existingDataGroups.add(new DataGroupItem()
+                .id("data-group-" + group)
+                .name("product-group-" + group)
+                .type("ARRANGEMENTS")
+                .items(IntStream.range(first + DRIFT, first + perGroup + DRIFT)
+                    .mapToObj(arrangement -> "arrangement-" + arrangement)
+                    .collect(Collectors.toList())));
+        }
+    }
+
+    @Benchmark
+    public List<PresentationDataGroupItemPutRequestBody> legacy() {
+        return legacyDataGroupItemUpdates(ingestionMode, existingDataGroups, productGroups);
+    }
+
+    @Benchmark
+    public List<PresentationDataGroupItemPutRequestBody> indexed() {
+        return accessGroupService.getDataGroupItemUpdates(ingestionMode, existingDataGroups, productGroups);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(DataGroupItemUpdatesBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+
+    /**
+     * Diff as it was before product groups and arrangements were indexed, kept as the baseline.
+     */
+    static List<PresentationDataGroupItemPutRequestBody> legacyDataGroupItemUpdates(
+        BatchProductGroupTask.IngestionMode ingestionMode, List<DataGroupItem> existingDataGroups,
+        List<BaseProductGroup> productGroups) {
+        List<PresentationDataGroupItemPutRequestBody> batchUpdateRequest = new ArrayList<>();
+        final Set<String> affectedArrangements = productGroups.stream()
+            .map(StreamUtils::getInternalProductIds)
+            .flatMap(List::stream)
+            .collect(Collectors.toSet());
+        if (BatchProductGroupTask.IngestionMode.REPLACE.equals(ingestionMode)) {
+            affectedArrangements.addAll(existingDataGroups.stream()
+                .map(DataGroupItem::getItems)
+                .flatMap(List::stream)
+                .collect(Collectors.toSet()));
+        }
+
+        existingDataGroups.forEach(dbsDataGroup -> {
+            Optional<BaseProductGroup> pg = productGroups.stream()
+                .filter(it -> dbsDataGroup.getName().equals(it.getName()))
+                .findFirst();
+            List<String> arrangementsToAdd = new ArrayList<>();
+            List<String> arrangementsToRemove = new ArrayList<>();
+            affectedArrangements.forEach(arrangement -> pg.ifPresent(p -> {
+                boolean shouldBeInGroup = StreamUtils.getInternalProductIds(pg.get()).contains(arrangement);
+                if (!dbsDataGroup.getItems().contains(arrangement) && shouldBeInGroup) {
+                    arrangementsToAdd.add(arrangement);
+                }
+                if (dbsDataGroup.getItems().contains(arrangement) && !shouldBeInGroup) {
+                    arrangementsToRemove.add(arrangement);
+                }
+            }));
+            if (!arrangementsToAdd.isEmpty()) {
+                batchUpdateRequest.add(request(dbsDataGroup, PresentationAction.ADD, arrangementsToAdd));
+            }
+            if (!arrangementsToRemove.isEmpty()) {
+                batchUpdateRequest.add(request(dbsDataGroup, PresentationAction.REMOVE, arrangementsToRemove));
+            }
+        });
+        return batchUpdateRequest;
+    }
+
+    private static PresentationDataGroupItemPutRequestBody request(DataGroupItem dataGroup, PresentationAction action,
+        List<String> arrangements) {
+        return new PresentationDataGroupItemPutRequestBody()
+            .dataGroupIdentifier(new PresentationDataGroupIdentifier().idIdentifier(dataGroup.getId()))
+            .type(dataGroup.getType())
+            .action(action)
+            .dataItems(arrangements.stream()
+                .map(id -> new PresentationItemIdentifier().internalIdIdentifier(id))
+                .collect(Collectors.toList()));
+    }
+
+}
@@ -5,27 +5,40 @@ import com.backbase.dbs.accesscontrol.api.service.v2.LegalEntityApi;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.BatchResponseItem;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntityItem;
 import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntityItemBase;
+import com.backbase.dbs.accesscontrol.api.service.v2.model.LegalEntityItemId;
 import com.backbase.dbs.user.api.service.v2.model.GetUser;
 import com.backbase.stream.legalentity.model.LegalEntity;
 import com.backbase.stream.legalentity.model.User;
 import com.backbase.stream.mapper.LegalEntityMapper;
+import com.backbase.stream.service.LegalEntityService.UpsertOutcome;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
 
 import static com.backbase.stream.LambdaAssertions.assertEqualsTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -90,4 +103,138 @@ class LegalEntityServiceTest {
                 .assertNext(assertEqualsTo(legalEntityUpdated))
                 .verifyComplete();
     }
+
+    @Test
+    void getLegalEntityByExternalId_concurrentRequestsShareOneCall() {
+        final String externalId = "someExternalId";
+        LegalEntityItemBase leItemBase = new LegalEntityItemBase().id("someInternalId").externalId(externalId);
+        Sinks.One<LegalEntityItemBase> response = Sinks.one();
+
+        when(legalEntitiesApi.getLegalEntityByExternalId(externalId)).thenReturn(response.asMono());
+
+        StepVerifier.create(Mono.zip(subject.getLegalEntityByExternalId(externalId),
+                subject.getLegalEntityByExternalId(externalId)))
+            .then(() -> response.tryEmitValue(leItemBase))
+            .assertNext(legalEntities -> {
+                assertEquals("someInternalId", legalEntities.getT1().getInternalId());
+                assertNotSame(legalEntities.getT1(), legalEntities.getT2());
+            })
+            .verifyComplete();
+
+        verify(legalEntitiesApi, times(1)).getLegalEntityByExternalId(externalId);
+    }
+
+    @Test
+    void upsertLegalEntity_unchangedIsNotWritten() {
+        LegalEntity legalEntity = new LegalEntity().externalId("someExternalId").name("name");
+
+        when(legalEntitiesApi.getLegalEntityByExternalId("someExternalId")).thenReturn(Mono.just(
+            new LegalEntityItemBase().id("someInternalId").externalId("someExternalId").name("name")));
+
+        StepVerifier.create(subject.upsertLegalEntity(legalEntity))
+            .expectNext(UpsertOutcome.UNCHANGED)
+            .verifyComplete();
+
+        assertEquals("someInternalId", legalEntity.getInternalId());
+        verify(legalEntitiesApi, never()).putLegalEntities(anyList());
+        verify(legalEntitiesApi, times(1)).getLegalEntityByExternalId("someExternalId");
+    }
+
+    @Test
+    void upsertLegalEntity_changedIsUpdatedWithoutReading() {
+        LegalEntity legalEntity = new LegalEntity().externalId("someExternalId").name("newName");
+        BatchResponseItem batchResponseItem = new BatchResponseItem().status(BatchResponseItem.StatusEnum.HTTP_STATUS_OK);
+
+        when(legalEntitiesApi.getLegalEntityByExternalId("someExternalId")).thenReturn(Mono.just(
+            new LegalEntityItemBase().id("someInternalId").externalId("someExternalId").name("oldName")));
+        when(legalEntitiesApi.putLegalEntities(anyList())).thenReturn(Flux.just(batchResponseItem));
+
+        StepVerifier.create(subject.upsertLegalEntity(legalEntity))
+            .expectNext(UpsertOutcome.UPDATED)
+            .verifyComplete();
+
+        assertEquals("someInternalId", legalEntity.getInternalId());
+
+        verify(legalEntitiesApi, times(1)).putLegalEntities(anyList());
+        verify(legalEntitiesApi, times(1)).getLegalEntityByExternalId("someExternalId");
+    }
+
+    @Test
+    void upsertLegalEntity_reparentedIsUpdated() {
+        LegalEntity legalEntity = new LegalEntity().externalId("someExternalId").name("name")
+            .parentExternalId("newParentExternalId").parentInternalId("newParentInternalId");
+        BatchResponseItem batchResponseItem = new BatchResponseItem().status(BatchResponseItem.StatusEnum.HTTP_STATUS_OK);
+
+        when(legalEntitiesApi.getLegalEntityByExternalId("someExternalId")).thenReturn(Mono.just(
+            new LegalEntityItemBase().id("someInternalId").externalId("someExternalId").name("name")));
+        when(legalEntitiesApi.getLegalEntityById("someInternalId")).thenReturn(Mono.just(
+            new LegalEntityItem().id("someInternalId").externalId("someExternalId").name("name")
+                .parentId("oldParentInternalId")));
+        when(legalEntitiesApi.putLegalEntities(anyList())).thenReturn(Flux.just(batchResponseItem));
+
+        StepVerifier.create(subject.upsertLegalEntity(legalEntity))
+            .expectNext(UpsertOutcome.UPDATED)
+            .verifyComplete();
+
+        verify(legalEntitiesApi, times(1)).putLegalEntities(anyList());
+    }
+
+    @Test
+    void upsertLegalEntity_unchangedParentIsNotWritten() {
+        LegalEntity legalEntity = new LegalEntity().externalId("someExternalId").name("name")
+            .parentExternalId("parentExternalId").parentInternalId("parentInternalId");
+
+        when(legalEntitiesApi.getLegalEntityByExternalId("someExternalId")).thenReturn(Mono.just(
+            new LegalEntityItemBase().id("someInternalId").externalId("someExternalId").name("name")));
+        when(legalEntitiesApi.getLegalEntityById("someInternalId")).thenReturn(Mono.just(
+            new LegalEntityItem().id("someInternalId").externalId("someExternalId").name("name")
+                .parentId("parentInternalId")));
+
+        StepVerifier.create(subject.upsertLegalEntity(legalEntity))
+            .expectNext(UpsertOutcome.UNCHANGED)
+            .verifyComplete();
+
+        verify(legalEntitiesApi, never()).putLegalEntities(anyList());
+    }
+
+    @Test
+    void upsertLegalEntity_activateSingleServiceAgreementIsAlwaysWritten() {
+        LegalEntity legalEntity = new LegalEntity().externalId("someExternalId").name("name")
+            .activateSingleServiceAgreement(false);
+        BatchResponseItem batchResponseItem = new BatchResponseItem().status(BatchResponseItem.StatusEnum.HTTP_STATUS_OK);
+
+        when(legalEntitiesApi.getLegalEntityByExternalId("someExternalId")).thenReturn(Mono.just(
+            new LegalEntityItemBase().id("someInternalId").externalId("someExternalId").name("name")));
+        when(legalEntitiesApi.putLegalEntities(anyList())).thenReturn(Flux.just(batchResponseItem));
+
+        StepVerifier.create(subject.upsertLegalEntity(legalEntity))
+            .expectNext(UpsertOutcome.UPDATED)
+            .verifyComplete();
+
+        verify(legalEntitiesApi, times(1)).putLegalEntities(anyList());
+    }
+
+    @Test
+    void upsertLegalEntity_missingIsCreated() {
+        LegalEntity legalEntity = new LegalEntity().externalId("someExternalId").name("name");
+
+        when(legalEntitiesApi.getLegalEntityByExternalId("someExternalId")).thenReturn(Mono.empty());
+        when(legalEntitiesApi.postCreateLegalEntities(any())).thenReturn(Mono.just(new LegalEntityItemId().id("someInternalId")));
+
+        StepVerifier.create(subject.upsertLegalEntity(legalEntity))
+            .expectNext(UpsertOutcome.CREATED)
+            .verifyComplete();
+
+        assertEquals("someInternalId", legalEntity.getInternalId());
+        verify(legalEntitiesApi, never()).putLegalEntities(anyList());
+    }
+
+    @Test
+    void isUnchanged_treatsEmptyAdditionsAsMissing() {
+        LegalEntity existing = new LegalEntity().name("name");
+        LegalEntity legalEntity = new LegalEntity().name("name").additions(Collections.emptyMap());
+
+        assertTrue(LegalEntityService.isUnchanged(existing, legalEntity));
+        assertFalse(LegalEntityService.isUnchanged(existing, legalEntity.additions(Map.of("key", "value"))));
+    }
 }
@@ -0,0 +1,120 @@
+package com.backbase.stream.service;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.backbase.dbs.user.api.service.v2.model.Realm;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+class RealmCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger listings = new AtomicInteger();
+    private final RealmCache realmCache = new RealmCache(Duration.ofMinutes(10), Duration.ofSeconds(30), now::get);
+
+    @Test
+    void listsRealmsOnceWithinTtl() {
+        StepVerifier.create(get("backbase")).expectNextMatches(realm -> "backbase".equals(realm.getRealmName()))
+            .verifyComplete();
+        StepVerifier.create(get("backbase")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(get("retail")).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    void listsRealmsAgainAfterTtl() {
+        StepVerifier.create(get("backbase")).expectNextCount(1).verifyComplete();
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        StepVerifier.create(get("backbase")).expectNextCount(1).verifyComplete();
+
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void remembersMissingRealmForNegativeTtl() {
+        StepVerifier.create(get("unknown")).verifyComplete();
+        StepVerifier.create(get("unknown")).verifyComplete();
+        assertEquals(1, listings.get());
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        StepVerifier.create(get("unknown")).verifyComplete();
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void invalidatedRealmIsListedAgain() {
+        StepVerifier.create(get("unknown")).verifyComplete();
+        realmCache.invalidate("unknown");
+        StepVerifier.create(get("unknown")).verifyComplete();
+
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void zeroTtlDisablesCaching() {
+        RealmCache disabled = new RealmCache(Duration.ZERO, Duration.ZERO, now::get);
+
+        StepVerifier.create(disabled.get("backbase", this::listRealms)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(disabled.get("backbase", this::listRealms)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(disabled.get("unknown", this::listRealms)).verifyComplete();
+
+        assertEquals(3, listings.get());
+    }
+
+    @Test
+    void failedListingIsNotCached() {
+        StepVerifier.create(realmCache.get("backbase", () -> Mono.error(new IllegalStateException("unavailable"))))
+            .verifyErrorMessage("unavailable");
+        StepVerifier.create(get("backbase")).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    void realmsAreCachedPerForwardedHeaders() {
+        MultiValueMap<String, String> tenant1 = new LinkedMultiValueMap<>();
+        tenant1.add("X-TID", "tenant1");
+        MultiValueMap<String, String> tenant2 = new LinkedMultiValueMap<>();
+        tenant2.add("X-TID", "tenant2");
+
+        StepVerifier.create(get("backbase").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)))
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(get("backbase").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)))
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(get("backbase").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant2)))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        assertEquals(2, listings.get());
+    }
+
+    private Mono<Realm> get(String realmName) {
+        return realmCache.get(realmName, this::listRealms);
+    }
+
+    private Mono<List<Realm>> listRealms() {
+        return Mono.fromSupplier(() -> {
+            listings.incrementAndGet();
+            return Arrays.asList(realm("backbase"), realm("retail"));
+        });
+    }
+
+    private static Realm realm(String name) {
+        Realm realm = new Realm();
+        realm.setRealmName(name);
+        return realm;
+    }
+}
@@ -0,0 +1,228 @@
+package com.backbase.stream.service;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+class ServiceAgreementSnapshotCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicReference<Duration> ttl = new AtomicReference<>(Duration.ofMinutes(1));
+    private final AtomicInteger listings = new AtomicInteger();
+    private final ServiceAgreementSnapshotCache<String> cache =
+        new ServiceAgreementSnapshotCache<>("groups", ttl::get, UnaryOperator.identity(), now::get);
+
+    @Test
+    void listsGroupsOncePerServiceAgreementWithinTtl() {
+        StepVerifier.create(get("sa-1")).expectNext(List.of("sa-1-group")).verifyComplete();
+        StepVerifier.create(get("sa-1")).expectNext(List.of("sa-1-group")).verifyComplete();
+        StepVerifier.create(get("sa-2")).expectNext(List.of("sa-2-group")).verifyComplete();
+
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void listsGroupsAgainAfterTtl() {
+        StepVerifier.create(get("sa-1")).expectNextCount(1).verifyComplete();
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        StepVerifier.create(get("sa-1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void evictedSnapshotIsListedAgain() {
+        StepVerifier.create(get("sa-1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(get("sa-2")).expectNextCount(1).verifyComplete();
+
+        cache.evict("sa-1");
+        StepVerifier.create(get("sa-1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(get("sa-2")).expectNextCount(1).verifyComplete();
+
+        assertEquals(3, listings.get());
+    }
+
+    @Test
+    void listingInProgressWhenEvictedIsNotCached() {
+        Sinks.One<List<String>> response = Sinks.one();
+        StepVerifier.create(cache.get("sa-1", () -> {
+                listings.incrementAndGet();
+                return response.asMono();
+            }))
+            .then(() -> {
+                cache.evict("sa-1");
+                response.tryEmitValue(new ArrayList<>(List.of("stale")));
+            })
+            .expectNext(List.of("stale"))
+            .verifyComplete();
+
+        StepVerifier.create(get("sa-1")).expectNext(List.of("sa-1-group")).verifyComplete();
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void listingInProgressIsCachedWhenAnotherServiceAgreementIsEvicted() {
+        Sinks.One<List<String>> response = Sinks.one();
+        StepVerifier.create(cache.get("sa-1", () -> {
+                listings.incrementAndGet();
+                return response.asMono();
+            }))
+            .then(() -> {
+                cache.evict("sa-2");
+                response.tryEmitValue(new ArrayList<>(List.of("sa-1-group")));
+            })
+            .expectNext(List.of("sa-1-group"))
+            .verifyComplete();
+
+        StepVerifier.create(get("sa-1")).expectNext(List.of("sa-1-group")).verifyComplete();
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    void addedGroupIsReadFromSnapshot() {
+        StepVerifier.create(get("sa-1")).expectNextCount(1).verifyComplete();
+
+        StepVerifier.create(cache.add("sa-1", "created")).verifyComplete();
+        StepVerifier.create(get("sa-1")).expectNext(List.of("sa-1-group", "created")).verifyComplete();
+
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    void addWithoutSnapshotListsGroupsOnNextRead() {
+        StepVerifier.create(cache.add("sa-1", "created")).verifyComplete();
+        StepVerifier.create(get("sa-1")).expectNext(List.of("sa-1-group")).verifyComplete();
+
+        assertEquals(1, listings.get());
+    }
+
+    @Test
+    void listingInProgressWhenGroupIsAddedIsNotCached() {
+        Sinks.One<List<String>> response = Sinks.one();
+        StepVerifier.create(cache.get("sa-1", () -> {
+                listings.incrementAndGet();
+                return response.asMono();
+            }))
+            .then(() -> {
+                cache.add("sa-1", "created").block();
+                response.tryEmitValue(new ArrayList<>(List.of("stale")));
+            })
+            .expectNext(List.of("stale"))
+            .verifyComplete();
+
+        StepVerifier.create(get("sa-1")).expectNext(List.of("sa-1-group")).verifyComplete();
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void addEvictsSnapshotsOfOtherForwardedHeaders() {
+        MultiValueMap<String, String> tenant1 = new LinkedMultiValueMap<>();
+        tenant1.add("X-TID", "tenant1");
+        MultiValueMap<String, String> tenant2 = new LinkedMultiValueMap<>();
+        tenant2.add("X-TID", "tenant2");
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)))
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant2)))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        StepVerifier.create(cache.add("sa-1", "created")
+                .contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)))
+            .verifyComplete();
+
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)))
+            .expectNext(List.of("sa-1-group", "created"))
+            .verifyComplete();
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant2)))
+            .expectNext(List.of("sa-1-group"))
+            .verifyComplete();
+        assertEquals(3, listings.get());
+    }
+
+    @Test
+    void zeroTtlDisablesSnapshots() {
+        ttl.set(Duration.ZERO);
+
+        StepVerifier.create(get("sa-1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(get("sa-1")).expectNextCount(1).verifyComplete();
+
+        assertFalse(cache.isEnabled());
+        assertEquals(2, listings.get());
+    }
+
+    @Test
+    void snapshotsAreUnmodifiable() {
+        List<String> groups = cache.get("sa-1", this::list).block();
+
+        assertThrows(UnsupportedOperationException.class, () -> groups.add("other"));
+    }
+
+    @Test
+    void readsReturnCopiesOfGroups() {
+        ServiceAgreementSnapshotCache<StringBuilder> builders =
+            new ServiceAgreementSnapshotCache<>("groups", ttl::get, StringBuilder::new, now::get);
+        StringBuilder listed = new StringBuilder("group");
+
+        builders.get("sa-1", () -> Mono.just(List.of(listed))).block().get(0).append("-modified");
+        StringBuilder cached = builders.get("sa-1", () -> Mono.error(new IllegalStateException())).block().get(0);
+
+        assertEquals("group", cached.toString());
+        assertEquals("group", listed.toString());
+    }
+
+    @Test
+    void snapshotsAreKeptPerForwardedHeaders() {
+        MultiValueMap<String, String> tenant1 = new LinkedMultiValueMap<>();
+        tenant1.add("X-TID", "tenant1");
+        MultiValueMap<String, String> tenant2 = new LinkedMultiValueMap<>();
+        tenant2.add("X-TID", "tenant2");
+
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)))
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)))
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant2)))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        cache.evict("sa-1");
+        StepVerifier.create(get("sa-1").contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant2)))
+            .expectNextCount(1)
+            .verifyComplete();
+        assertEquals(3, listings.get());
+    }
+
+    private Mono<List<String>> get(String serviceAgreementId) {
+        return cache.get(serviceAgreementId, () -> list(serviceAgreementId));
+    }
+
+    private Mono<List<String>> list() {
+        return list("sa-1");
+    }
+
+    private Mono<List<String>> list(String serviceAgreementId) {
+        return Mono.fromSupplier(() -> {
+            listings.incrementAndGet();
+            return new ArrayList<>(List.of(serviceAgreementId + "-group"));
+        });
+    }
+}
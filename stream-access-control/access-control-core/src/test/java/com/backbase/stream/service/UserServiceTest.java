@@ -5,6 +5,7 @@ import static com.backbase.stream.legalentity.model.IdentityUserLinkStrategy.IMP
 import static com.backbase.stream.LambdaAssertions.assertEqualsTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -17,6 +18,7 @@ import com.backbase.identity.integration.api.service.v1.model.EnhancedUserRepres
 import com.backbase.identity.integration.api.service.v1.model.UserRequestBody;
 import com.backbase.stream.legalentity.model.EmailAddress;
 import com.backbase.stream.legalentity.model.IdentityUserLinkStrategy;
+import com.backbase.stream.legalentity.model.LegalEntity;
 import com.backbase.stream.legalentity.model.PhoneNumber;
 import com.backbase.stream.legalentity.model.User;
 
@@ -374,4 +376,17 @@ class UserServiceTest {
         StepVerifier.create(result)
                 .expectError().verify();
     }
+
+    @Test
+    void setupRealmListsRealmsOnce() {
+        Realm realm = new Realm();
+        realm.setRealmName("someRealm");
+        when(identityManagementApi.getRealms(null)).thenReturn(Flux.just(realm));
+        LegalEntity legalEntity = new LegalEntity().realmName("someRealm");
+
+        StepVerifier.create(subject.setupRealm(legalEntity)).expectNext(realm).verifyComplete();
+        StepVerifier.create(subject.setupRealm(legalEntity)).expectNext(realm).verifyComplete();
+
+        verify(identityManagementApi, times(1)).getRealms(null);
+    }
 }
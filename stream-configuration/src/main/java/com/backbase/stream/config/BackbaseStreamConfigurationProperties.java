@@ -1,5 +1,6 @@
 package com.backbase.stream.config;
 
+import java.time.Duration;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -11,6 +12,7 @@ public class BackbaseStreamConfigurationProperties {
 
     private DbsConnectionProperties dbs = new DbsConnectionProperties();
     private IdentityConnectionProperties identity = new IdentityConnectionProperties();
+    private CacheProperties cache = new CacheProperties();
 
     @Data
     @NoArgsConstructor
@@ -75,6 +77,27 @@ public class BackbaseStreamConfigurationProperties {
         private String identityIntegrationBaseUrl = "http://identity-integration-service:8080";
     }
 
+    @Data
+    @NoArgsConstructor
+    public static class CacheProperties {
+
+        /**
+         * Time a realm found in Identity is cached. Zero disables the realm cache.
+         */
+        private Duration realmTtl = Duration.ofMinutes(10);
+
+        /**
+         * Time a realm name not found in Identity is cached. Zero disables negative caching of realms.
+         */
+        private Duration realmNegativeTtl = Duration.ofSeconds(30);
+
+        /**
+         * Time a snapshot of the function groups or data groups of a service agreement is cached. Created groups are
+         * added to the snapshot, other writes evict it. Zero disables the snapshots.
+         */
+        private Duration accessGroupTtl = Duration.ofMinutes(1);
+    }
+
     @Data
     @NoArgsConstructor
     public static class DeletionProperties {
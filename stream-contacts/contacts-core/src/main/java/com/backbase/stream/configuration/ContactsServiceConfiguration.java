@@ -8,12 +8,16 @@ import com.backbase.stream.contact.ContactsTask;
 import com.backbase.stream.contact.ContactsUnitOfWorkExecutor;
 import com.backbase.stream.contact.repository.ContactsUnitOfWorkRepository;
 import com.backbase.stream.worker.repository.impl.InMemoryReactiveUnitOfWorkRepository;
+import com.backbase.stream.worker.repository.impl.R2dbcUnitOfWorkRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactory;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.beans.factory.annotation.Qualifier;
 import com.backbase.buildingblocks.webclient.WebClientConstants;
@@ -61,4 +65,24 @@ public class ContactsServiceConfiguration {
         return new ContactsUnitOfWorkExecutor(repository, saga, configurationProperties);
     }
 
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.r2dbc.core.DatabaseClient")
+    @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "r2dbc")
+    public static class ContactsR2dbcPersistenceConfiguration {
+
+        @Bean
+        public ContactsUnitOfWorkRepository contactsR2dbcUnitOfWorkRepository(ConnectionFactory connectionFactory,
+                ObjectMapper objectMapper) {
+            return new R2dbcContactsUnitOfWorkRepository(DatabaseClient.create(connectionFactory), objectMapper);
+        }
+    }
+
+    public static class R2dbcContactsUnitOfWorkRepository extends
+        R2dbcUnitOfWorkRepository<ContactsTask> implements ContactsUnitOfWorkRepository {
+
+        public R2dbcContactsUnitOfWorkRepository(DatabaseClient databaseClient, ObjectMapper objectMapper) {
+            super(databaseClient, objectMapper, ContactsTask.class);
+        }
+    }
+
 }
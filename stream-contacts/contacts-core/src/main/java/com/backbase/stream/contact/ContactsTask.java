@@ -4,7 +4,9 @@ import com.backbase.dbs.contact.api.service.v2.model.ContactsBulkPostRequestBody
 import com.backbase.dbs.contact.api.service.v2.model.ContactsBulkPostResponseBody;
 import com.backbase.stream.worker.model.StreamTask;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+@NoArgsConstructor
 @Data
 public class ContactsTask extends StreamTask {
 
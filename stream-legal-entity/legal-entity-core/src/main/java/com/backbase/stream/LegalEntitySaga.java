@@ -18,6 +18,7 @@ import com.backbase.stream.contact.ContactsSaga;
 import com.backbase.stream.contact.ContactsTask;
 import com.backbase.stream.exceptions.AccessGroupException;
 import com.backbase.stream.exceptions.LegalEntityException;
+import com.backbase.stream.legalentity.fingerprint.FingerprintStore;
 import com.backbase.stream.legalentity.model.*;
 import com.backbase.stream.limit.LimitsSaga;
 import com.backbase.stream.limit.LimitsTask;
@@ -31,11 +32,13 @@ import com.backbase.stream.product.task.ProductGroupTask;
 import com.backbase.stream.product.utils.StreamUtils;
 import com.backbase.stream.service.AccessGroupService;
 import com.backbase.stream.service.LegalEntityService;
+import com.backbase.stream.service.LegalEntityService.UpsertOutcome;
 import com.backbase.stream.service.UserProfileService;
 import com.backbase.stream.service.UserService;
 import com.backbase.stream.worker.StreamTaskExecutor;
 import com.backbase.stream.worker.exception.StreamTaskException;
 import com.backbase.stream.worker.model.StreamTask;
+import com.backbase.stream.worker.stage.StageGraph;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.mapstruct.factory.Mappers;
@@ -82,6 +85,7 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
     public static final String CREATED = "created";
 
     public static final String UPDATED = "updated";
+    public static final String UNCHANGED = "unchanged";
     public static final String PROCESS_PRODUCTS = "process-products";
     public static final String PROCESS_JOB_PROFILES = "process-job-profiles";
     public static final String PROCESS_LIMITS = "process-limits";
@@ -89,6 +93,12 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
     public static final String REJECTED = "rejected";
     public static final String UPSERT = "upsert";
     public static final String SETUP_SERVICE_AGREEMENT = "setup-service-agreement";
+    public static final String LINK_LEGAL_ENTITY_TO_REALM = "link-legal-entity-to-realm";
+    public static final String SETUP_ADMINISTRATORS = "setup-administrators";
+    public static final String SETUP_USERS = "setup-users";
+    public static final String CREATE_JOB_ROLES = "create-job-roles";
+    public static final String SETUP_ADMINISTRATOR_PERMISSIONS = "setup-administrator-permissions";
+    public static final String PROCESS_SUBSIDIARIES = "process-subsidiaries";
     private static final String BATCH_PRODUCT_GROUP_ID = "batch_product_group_task-";
 
     private static final String LEGAL_ENTITY_E_TYPE = "LE";
@@ -111,6 +121,9 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
     private final LimitsSaga limitsSaga;
     private final ContactsSaga contactsSaga;
     private final LegalEntitySagaConfigurationProperties legalEntitySagaConfigurationProperties;
+    private final StageFingerprints stageFingerprints;
+    private final StageGraph<LegalEntityTask> stageGraph;
+    private final SubsidiaryTraversal subsidiaryTraversal;
     private static final ExternalContactMapper externalContactMapper = ExternalContactMapper.INSTANCE;
 
     public LegalEntitySaga(LegalEntityService legalEntityService,
@@ -121,6 +134,23 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         BatchProductIngestionSaga batchProductIngestionSaga, LimitsSaga limitsSaga,
                            ContactsSaga contactsSaga,
         LegalEntitySagaConfigurationProperties legalEntitySagaConfigurationProperties) {
+        this(legalEntityService, userService, userProfileService, accessGroupService, productIngestionSaga,
+            batchProductIngestionSaga, limitsSaga, contactsSaga, legalEntitySagaConfigurationProperties, null);
+    }
+
+    /**
+     * Create Legal Entity Saga skipping stages whose input did not change since their last successful run.
+     * @param fingerprintStore Store of the input fingerprints of stages, or null to always run all stages
+     */
+    public LegalEntitySaga(LegalEntityService legalEntityService,
+        UserService userService,
+        UserProfileService userProfileService,
+        AccessGroupService accessGroupService,
+        ProductIngestionSaga productIngestionSaga,
+        BatchProductIngestionSaga batchProductIngestionSaga, LimitsSaga limitsSaga,
+        ContactsSaga contactsSaga,
+        LegalEntitySagaConfigurationProperties legalEntitySagaConfigurationProperties,
+        FingerprintStore fingerprintStore) {
         this.legalEntityService = legalEntityService;
         this.userService = userService;
         this.userProfileService = userProfileService;
@@ -129,22 +159,65 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         this.limitsSaga = limitsSaga;
         this.contactsSaga = contactsSaga;
         this.legalEntitySagaConfigurationProperties = legalEntitySagaConfigurationProperties;
+        this.stageFingerprints = fingerprintStore != null ? new StageFingerprints(fingerprintStore) : null;
+        this.stageGraph = createStageGraph();
+        this.subsidiaryTraversal = new SubsidiaryTraversal(this::executeStages,
+            legalEntitySagaConfigurationProperties.getSubsidiaryTraversalMode(),
+            legalEntitySagaConfigurationProperties.getSubsidiaryConcurrency());
     }
 
     @Override
     public Mono<LegalEntityTask> executeTask(@SpanTag(value = "streamTask") LegalEntityTask streamTask) {
-        return upsertLegalEntity(streamTask)
-            .flatMap(this::linkLegalEntityToRealm)
-            .flatMap(this::setupAdministrators)
-            .flatMap(this::setupUsers)
-            .flatMap(this::setupServiceAgreement)
-            .flatMap(this::createJobRoles)
-            .flatMap(this::processJobProfiles)
-            .flatMap(this::setupAdministratorPermissions)
-            .flatMap(this::setupLimits)
-            .flatMap(this::processProducts)
-            .flatMap(this::postContacts)
-            .flatMap(this::processSubsidiaries);
+        return executeStages(streamTask)
+            .flatMap(subsidiaryTraversal::traverse);
+    }
+
+    private Mono<LegalEntityTask> executeStages(LegalEntityTask streamTask) {
+        return stageFingerprints != null
+            ? stageFingerprints.execute(streamTask, stageGraph::execute)
+            : stageGraph.execute(streamTask);
+    }
+
+    /**
+     * Stages of the saga and the stages each of them depends on. Subsidiaries are ingested once the graph of their
+     * parent completed.
+     * @return Stage graph executed for every Legal Entity
+     */
+    public StageGraph<LegalEntityTask> getStageGraph() {
+        return stageGraph;
+    }
+
+    /**
+     * Stages only wait for the stages whose results they read. Users are created after administrators, as an
+     * administrator can also be a job profile user. Products are processed after administrator permissions and
+     * limits, which all assign permissions to the same users. Only stages whose results no other stage reads and which
+     * return nothing on the Legal Entity can be skipped while their input is unchanged. Products are always processed,
+     * as they assign the internal ids of products and arrangements.
+     */
+    private StageGraph<LegalEntityTask> createStageGraph() {
+        return StageGraph.<LegalEntityTask>builder("legal-entity-saga")
+            .stage(UPSERT_LEGAL_ENTITY, this::upsertLegalEntity)
+            .stage(LINK_LEGAL_ENTITY_TO_REALM, this::linkLegalEntityToRealm, UPSERT_LEGAL_ENTITY)
+            .stage(SETUP_ADMINISTRATORS, this::setupAdministrators, LINK_LEGAL_ENTITY_TO_REALM)
+            .stage(SETUP_USERS, this::setupUsers, SETUP_ADMINISTRATORS)
+            .stage(SETUP_SERVICE_AGREEMENT, this::setupServiceAgreement, SETUP_ADMINISTRATORS, SETUP_USERS)
+            .stage(CREATE_JOB_ROLES, this::createJobRoles, SETUP_SERVICE_AGREEMENT)
+            .stage(PROCESS_JOB_PROFILES, this::processJobProfiles, CREATE_JOB_ROLES, SETUP_USERS)
+            .stage(SETUP_ADMINISTRATOR_PERMISSIONS, this::setupAdministratorPermissions, PROCESS_JOB_PROFILES)
+            .stage(PROCESS_LIMITS, fingerprinted(PROCESS_LIMITS, legalEntity -> Arrays.asList(legalEntity.getLimit(),
+                legalEntity.getMasterServiceAgreement(), legalEntity.getCustomServiceAgreement(),
+                legalEntity.getReferenceJobRoles(), legalEntity.getProductGroups(), legalEntity.getUsers()),
+                this::setupLimits), PROCESS_JOB_PROFILES)
+            .stage(PROCESS_PRODUCTS, this::processProducts, SETUP_ADMINISTRATOR_PERMISSIONS, PROCESS_LIMITS)
+            .stage(PROCESS_CONTACTS, fingerprinted(PROCESS_CONTACTS, legalEntity -> Arrays.asList(
+                legalEntity.getContacts(), legalEntity.getUsers(), legalEntity.getMasterServiceAgreement(),
+                legalEntity.getCustomServiceAgreement()), this::postContacts), PROCESS_JOB_PROFILES)
+            .build();
+    }
+
+    private Function<LegalEntityTask, Mono<LegalEntityTask>> fingerprinted(String stage,
+        Function<LegalEntity, Object> input, Function<LegalEntityTask, Mono<LegalEntityTask>> action) {
+        return stageFingerprints != null ? stageFingerprints.stage(stage, input, action) : action;
     }
 
     private Mono<LegalEntityTask> postContacts(LegalEntityTask streamTask) {
@@ -326,45 +399,25 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
     private Mono<LegalEntityTask> upsertLegalEntity(LegalEntityTask task) {
         task.info(LEGAL_ENTITY, UPSERT, "", task.getData().getExternalId(), null, "Upsert Legal Entity with External ID: %s", task.getData().getExternalId());
         LegalEntity legalEntity = task.getData();
-        // Pipeline for Existing Legal Entity
-        Mono<LegalEntityTask> existingLegalEntity = legalEntityService.getLegalEntityByExternalId(legalEntity.getExternalId())
-            .onErrorResume(throwable -> {
-                task.error(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, FAILED, legalEntity.getExternalId(), null, throwable, throwable.getMessage(), "Unexpected Error");
-                return Mono.error(new StreamTaskException(task, throwable, "Failed to get Legal Entity: " + throwable.getMessage()));
-            })
-            .onErrorResume(WebClientResponseException.class, throwable -> {
-                task.error(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, FAILED, legalEntity.getExternalId(), null, throwable, throwable.getResponseBodyAsString(), "Unexpected Web Client Exception");
-                return Mono.error(new StreamTaskException(task, throwable, "Failed to get Legal Entity: " + throwable.getMessage()));
-            })
-            .flatMap(actual -> {
-                task.getData().setInternalId(actual.getInternalId());
-                return legalEntityService.getLegalEntityByInternalId(actual.getInternalId())
-                    .flatMap(result -> {
-                        task.getData().setParentInternalId(result.getParentInternalId());
-
-                        return legalEntityService.putLegalEntity(task.getData()).flatMap(leUpdated -> {
-                            log.info("Updated LegalEntity: {}", leUpdated.getName());
-                            task.info(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, UPDATED, legalEntity.getExternalId(), actual.getInternalId(), "Legal Entity: %s updated", legalEntity.getName());
-                            return Mono.just(task);
-                        });
-                    });
-            });
-        // Pipeline for Creating New Legal Entity
-        Mono<LegalEntityTask> createNewLegalEntity = legalEntityService.createLegalEntity(legalEntity)
-            .flatMap(actual -> {
-                task.getData().setInternalId(legalEntity.getInternalId());
-                return legalEntityService.getLegalEntityByInternalId(actual.getInternalId())
-                    .flatMap(result -> {
-                        task.getData().setParentInternalId(result.getParentInternalId());
-                        task.info(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, CREATED, legalEntity.getExternalId(), legalEntity.getInternalId(), "Created new Legal Entity");
-                        return Mono.just(task);
-                    });
+        return legalEntityService.upsertLegalEntity(legalEntity)
+            .doOnNext(outcome -> {
+                if (outcome == UpsertOutcome.CREATED) {
+                    task.info(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, CREATED, legalEntity.getExternalId(), legalEntity.getInternalId(), "Created new Legal Entity");
+                } else if (outcome == UpsertOutcome.UPDATED) {
+                    task.info(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, UPDATED, legalEntity.getExternalId(), legalEntity.getInternalId(), "Legal Entity: %s updated", legalEntity.getName());
+                } else {
+                    task.info(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, UNCHANGED, legalEntity.getExternalId(), legalEntity.getInternalId(), "Legal Entity: %s unchanged", legalEntity.getName());
+                }
             })
             .onErrorResume(LegalEntityException.class, legalEntityException -> {
                 task.error(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, FAILED, legalEntity.getExternalId(), legalEntity.getInternalId(), legalEntityException, legalEntityException.getHttpResponse(), legalEntityException.getMessage());
                 return Mono.error(new StreamTaskException(task, legalEntityException));
-            });
-        return existingLegalEntity.switchIfEmpty(createNewLegalEntity);
+            })
+            .onErrorResume(throwable -> !(throwable instanceof StreamTaskException), throwable -> {
+                task.error(LEGAL_ENTITY, UPSERT_LEGAL_ENTITY, FAILED, legalEntity.getExternalId(), legalEntity.getInternalId(), throwable, throwable.getMessage(), "Unexpected Error");
+                return Mono.error(new StreamTaskException(task, throwable, "Failed to upsert Legal Entity: " + throwable.getMessage()));
+            })
+            .map(outcome -> task);
     }
 
     private Mono<LegalEntityTask> processProducts(LegalEntityTask streamTask) {
@@ -532,29 +585,101 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
             .map(streamTask::data);
     }
 
-    private Mono<LegalEntityTask>  setupUsers(LegalEntityTask streamTask) {
+    Mono<LegalEntityTask> setupUsers(LegalEntityTask streamTask) {
         LegalEntity legalEntity = streamTask.getData();
-        Flux<JobProfileUser> jobProfileUsers = Flux.fromStream(nullableCollectionToStream(legalEntity.getUsers()));
-
-        return jobProfileUsers
-            .flatMap(jobProfileUser -> upsertUser(streamTask, jobProfileUser.getUser())
-                .flatMap(upsertedUser -> {
-                    User inputUser = nullableCollectionToStream(legalEntity.getUsers())
-                        .filter(jpu -> jpu.getUser().getExternalId().equalsIgnoreCase(
-                            upsertedUser.getExternalId()))
-                        .findFirst().get().getUser();
-                    inputUser.setInternalId(upsertedUser.getInternalId());
-                    return upsertUserProfile(inputUser)
-                        .map(userProfile -> {
-                            log.info("User Profile upserted for: {}", userProfile.getUserName());
-                            inputUser.setUserProfile(userProfile);
-                            return userProfile;
-                        });
-                }))
+        Map<String, List<User>> inputUsers = indexUsersByExternalId(legalEntity.getUsers());
+        int batchSize = legalEntitySagaConfigurationProperties.getUserBatchSize();
+        Map<Boolean, List<User>> usersByIdentity = inputUsers.values().stream()
+            .map(users -> users.get(0))
+            .collect(Collectors.partitioningBy(user -> batchSize <= 0 || isIdentityUser(user)));
+
+        Flux<User> upsertedUsers = Flux.merge(
+            Flux.fromIterable(usersByIdentity.get(true)).flatMap(user -> upsertUser(streamTask, user)),
+            upsertUsersInBatches(streamTask, usersByIdentity.get(false), batchSize));
+
+        return upsertedUsers
+            .flatMap(upsertedUser -> {
+                List<User> sameUsers = inputUsers.getOrDefault(userKey(upsertedUser.getExternalId()),
+                    Collections.singletonList(upsertedUser));
+                sameUsers.forEach(user -> user.setInternalId(upsertedUser.getInternalId()));
+                User inputUser = sameUsers.get(0);
+                return upsertUserProfile(inputUser)
+                    .map(userProfile -> {
+                        log.info("User Profile upserted for: {}", userProfile.getUserName());
+                        inputUser.setUserProfile(userProfile);
+                        return userProfile;
+                    });
+            })
             .collectList()
             .thenReturn(streamTask);
     }
 
+    /**
+     * Index users by external id, ignoring case. Only the first user of an external id used more than once is
+     * upserted, the others get its internal id.
+     */
+    private Map<String, List<User>> indexUsersByExternalId(List<JobProfileUser> jobProfileUsers) {
+        Map<String, List<User>> users = new LinkedHashMap<>();
+        nullableCollectionToStream(jobProfileUsers)
+            .map(JobProfileUser::getUser)
+            .forEach(user -> users.computeIfAbsent(userKey(user.getExternalId()), key -> new ArrayList<>()).add(user));
+        return users;
+    }
+
+    private static String userKey(String externalId) {
+        return externalId.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Upsert users without identity. Existing users are updated one by one, new users are created in batches through
+     * {@link UserService#ingestUsers(List)}. Users of a failed batch are upserted one by one.
+     */
+    private Flux<User> upsertUsersInBatches(LegalEntityTask streamTask, List<User> users, int batchSize) {
+        if (users.isEmpty()) {
+            return Flux.empty();
+        }
+        return Flux.fromIterable(users)
+            .flatMap(user -> userService.getUserByExternalId(user.getExternalId())
+                .map(existingUser -> Tuples.of(user, Optional.of(existingUser)))
+                .defaultIfEmpty(Tuples.of(user, Optional.empty())))
+            .collectList()
+            .flatMapMany(lookups -> {
+                List<User> newUsers = lookups.stream()
+                    .filter(lookup -> lookup.getT2().isEmpty())
+                    .map(lookup -> lookup.getT1())
+                    .collect(Collectors.toList());
+                Flux<User> updatedUsers = Flux.fromIterable(lookups)
+                    .filter(lookup -> lookup.getT2().isPresent())
+                    .flatMap(lookup -> updateExistingUser(streamTask, lookup.getT1(), lookup.getT2().get()));
+                Flux<User> createdUsers = Flux.fromIterable(newUsers)
+                    .buffer(batchSize)
+                    .concatMap(batch -> ingestUsers(streamTask, batch));
+                return Flux.merge(updatedUsers, createdUsers);
+            });
+    }
+
+    private Flux<User> ingestUsers(LegalEntityTask streamTask, List<User> users) {
+        LegalEntity legalEntity = streamTask.getData();
+        users.forEach(user -> {
+            streamTask.info(USER, UPSERT, "", user.getExternalId(), null, "Upsert User with External ID: %s",
+                user.getExternalId());
+            user.setLegalEntityId(legalEntity.getInternalId());
+        });
+        return userService.ingestUsers(users)
+            .flatMapIterable(createdUsers -> {
+                createdUsers.forEach(user -> streamTask.info(USER, CREATED, CREATED, user.getExternalId(),
+                    user.getInternalId(), "User %s created", user.getExternalId()));
+                return createdUsers;
+            })
+            .onErrorResume(e -> {
+                log.warn("Failed to ingest batch of {} users for Legal Entity: {}, upserting them one by one: {}",
+                    users.size(), legalEntity.getExternalId(), e.getMessage());
+                streamTask.warn(USER, UPSERT, FAILED, legalEntity.getExternalId(), legalEntity.getInternalId(),
+                    "Failed to ingest batch of %d users, upserting them one by one", users.size());
+                return Flux.fromIterable(users).flatMap(user -> upsertUser(user, streamTask));
+            });
+    }
+
     private Mono<LegalEntityTask> postUserContacts(LegalEntityTask streamTask) {
         LegalEntity legalEntity = streamTask.getData();
         Flux<JobProfileUser> jobProfileUsers = Flux.fromStream(nullableCollectionToStream(legalEntity.getUsers()));
@@ -658,8 +783,7 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
     }
 
     public Mono<User> upsertUser(LegalEntityTask streamTask, User user) {
-        if (legalEntitySagaConfigurationProperties.isUseIdentityIntegration()
-            && !IdentityUserLinkStrategy.IDENTITY_AGNOSTIC.equals(user.getIdentityLinkStrategy())) {
+        if (isIdentityUser(user)) {
             return upsertIdentityUser(streamTask, user);
         } else {
             log.debug("Fallback to Identity Agnostic identityLinkStrategy. Either identity integration is disabled or User identityLinkStrategy is not set to identity.");
@@ -667,6 +791,11 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         }
     }
 
+    private boolean isIdentityUser(User user) {
+        return legalEntitySagaConfigurationProperties.isUseIdentityIntegration()
+            && !IdentityUserLinkStrategy.IDENTITY_AGNOSTIC.equals(user.getIdentityLinkStrategy());
+    }
+
     private Mono<User> upsertUserBulk(User user, LegalEntityTask streamTask) {
         LegalEntity legalEntity = streamTask.getData();
         streamTask.info(USER, UPSERT, "", user.getExternalId(), "Upsert User with External ID: %s", user.getExternalId());
@@ -690,16 +819,8 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         LegalEntity legalEntity = streamTask.getData();
         streamTask.info(USER, UPSERT, "", user.getExternalId(), "Upsert User with External ID: %s", user.getExternalId());
 
-        Mono<User> existingUser = userService.getUserByExternalId(user.getExternalId()).flatMap(existUser -> {
-            user.setInternalId(existUser.getInternalId());
-            user.setLegalEntityId(existUser.getLegalEntityId());
-
-            return userService.updateUser(user).flatMap(userUpdated -> {
-                log.info("User was updated: {}", userUpdated.getFullName());
-                streamTask.info(USER, UPDATED, user.getExternalId(), user.getInternalId(), "User %s updated", existUser.getExternalId());
-                return Mono.just(userUpdated);
-            });
-        });
+        Mono<User> existingUser = userService.getUserByExternalId(user.getExternalId())
+            .flatMap(existUser -> updateExistingUser(streamTask, user, existUser));
 
         Mono<User> createNewUser = Mono.zip(Mono.just(user), userService.createUser(user, legalEntity.getExternalId(), streamTask),
             (u, newUser) -> {
@@ -710,6 +831,17 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         return existingUser.switchIfEmpty(createNewUser);
     }
 
+    private Mono<User> updateExistingUser(LegalEntityTask streamTask, User user, User existUser) {
+        user.setInternalId(existUser.getInternalId());
+        user.setLegalEntityId(existUser.getLegalEntityId());
+
+        return userService.updateUser(user).flatMap(userUpdated -> {
+            log.info("User was updated: {}", userUpdated.getFullName());
+            streamTask.info(USER, UPDATED, user.getExternalId(), user.getInternalId(), "User %s updated", existUser.getExternalId());
+            return Mono.just(userUpdated);
+        });
+    }
+
     private Mono<User> upsertIdentityUser(LegalEntityTask streamTask, User user) {
         streamTask.info(IDENTITY_USER, UPSERT, "", user.getExternalId(), "Upsert User to Identity with External ID: %s", user.getExternalId());
         LegalEntity legalEntity = streamTask.getData();
@@ -803,10 +935,18 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         // As creatorLegalEntity doesnt accept external ID
         // If creatorLegalEntity property is specified and equals to LE's parentExternalId then setup the
         // creatorLegalEntity for SA as the LE's parent Internal ID
+        Mono<ServiceAgreement> setupCreatorLegalEntity = Mono.just(newSa);
         if (legalEntity.getParentExternalId().equals(newSa.getCreatorLegalEntity())) {
-            newSa.setCreatorLegalEntity(legalEntity.getParentInternalId());
+            setupCreatorLegalEntity = getParentInternalId(legalEntity)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(parentInternalId -> {
+                    newSa.setCreatorLegalEntity(parentInternalId.orElse(null));
+                    return newSa;
+                });
         }
-        Mono<LegalEntityTask> createServiceAgreement = accessGroupService.createServiceAgreement(streamTask, newSa)
+        Mono<LegalEntityTask> createServiceAgreement = setupCreatorLegalEntity
+            .flatMap(sa -> accessGroupService.createServiceAgreement(streamTask, sa))
             .onErrorMap(AccessGroupException.class, accessGroupException -> {
                 streamTask.error(SERVICE_AGREEMENT, SETUP_SERVICE_AGREEMENT, FAILED, newSa.getExternalId(), null,
                     accessGroupException, accessGroupException.getMessage(),
@@ -828,6 +968,19 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         return existingServiceAgreement.switchIfEmpty(createServiceAgreement);
     }
 
+    /**
+     * Internal ID of the parent Legal Entity. Subsidiaries get it from their parent, other Legal Entities look their
+     * parent up.
+     */
+    private Mono<String> getParentInternalId(LegalEntity legalEntity) {
+        if (legalEntity.getParentInternalId() != null || legalEntity.getParentExternalId() == null) {
+            return Mono.justOrEmpty(legalEntity.getParentInternalId());
+        }
+        return legalEntityService.getLegalEntityByExternalId(legalEntity.getParentExternalId())
+            .map(LegalEntity::getInternalId)
+            .doOnNext(legalEntity::setParentInternalId);
+    }
+
     private ServiceAgreement createMasterServiceAgreement(LegalEntity legalEntity, @Valid List<User> admins) {
 
         List<String> adminExternalIds = admins != null
@@ -861,26 +1014,6 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         return serviceAgreement;
     }
 
-    private Mono<LegalEntityTask> processSubsidiaries(LegalEntityTask streamTask) {
-
-        LegalEntity parentLegalEntity = streamTask.getData();
-
-        Flux<LegalEntity> subsidiaries = parentLegalEntity.getSubsidiaries() == null
-            ? Flux.empty()
-            : Flux.fromIterable(parentLegalEntity.getSubsidiaries());
-
-        Flux<LegalEntityTask> subsidiariesWithParentId = setSubsidiaryParentLegalEntityId(parentLegalEntity,
-            subsidiaries).map(LegalEntityTask::new);
-        return subsidiariesWithParentId
-            .flatMap(this::executeTask)
-            .map(childTask -> streamTask.addHistory(childTask.getHistory()))
-            .collectList()
-            .zipWith(Mono.just(streamTask), (legalEntityResults, childStreamTask) -> {
-                // Do Something With The Children
-                return streamTask;
-            });
-    }
-
     private Mono<LegalEntityTask> linkLegalEntityToRealm(LegalEntityTask streamTask) {
         return Mono.just(streamTask)
             .filter(task -> legalEntitySagaConfigurationProperties.isUseIdentityIntegration())
@@ -898,14 +1031,6 @@ public class LegalEntitySaga implements StreamTaskExecutor<LegalEntityTask> {
         return legalEntity.getMasterServiceAgreement();
     }
 
-    private Flux<LegalEntity> setSubsidiaryParentLegalEntityId(LegalEntity parentLegalEntity,
-                                                               Flux<LegalEntity> subsidiaries) {
-        return subsidiaries.map(subsidiary -> {
-            subsidiary.setParentExternalId(parentLegalEntity.getExternalId());
-            return subsidiary;
-        });
-    }
-
     private Mono<LegalEntityTask> setupLimits(LegalEntityTask streamTask) {
         return Mono.just(streamTask)
             .flatMap(this::setupLegalEntityLimits)
@@ -0,0 +1,144 @@
+package com.backbase.stream;
+
+import static com.backbase.stream.LegalEntitySaga.LEGAL_ENTITY;
+import static com.backbase.stream.LegalEntitySaga.UNCHANGED;
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+
+import com.backbase.stream.legalentity.fingerprint.FingerprintStore;
+import com.backbase.stream.legalentity.fingerprint.Fingerprints;
+import com.backbase.stream.legalentity.model.LegalEntity;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Skips stages of a Legal Entity whose input did not change since their last successful run. The input of every
+ * fingerprinted stage is hashed before the first stage runs, so fingerprints are not affected by ids the stages
+ * themselves assign.
+ *
+ * <p>A fingerprint is stored once its stage completed without failing the task, and removed when the stage fails.
+ * All fingerprints of a Legal Entity are removed when its stages fail with an error. A store that cannot be read or
+ * written only causes stages to run.</p>
+ *
+ * <p>A skipped stage produces nothing: the returned Legal Entity lacks any id or field the stage would have set, and
+ * the task history only records that the stage was skipped instead of its individual results. Fingerprinted stages
+ * must therefore neither produce data read by other stages nor set fields on the Legal Entity.</p>
+ *
+ * <p>Fingerprints are scoped by the headers forwarded to DBS, such as the tenant id, taken from the subscriber
+ * context. Sinks ingesting into several tenants must forward a header identifying the tenant, as Legal Entities with
+ * the same external id would otherwise skip stages based on each other's fingerprints.</p>
+ */
+@Slf4j
+class StageFingerprints {
+
+    private static final String CONTEXT_KEY = StageFingerprints.class.getName();
+
+    private final FingerprintStore store;
+    private final Map<String, Function<LegalEntity, Object>> inputs = new ConcurrentHashMap<>();
+
+    StageFingerprints(FingerprintStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Wrap a stage to skip it while its input is unchanged.
+     * @param stage Name of the stage
+     * @param input Part of the Legal Entity read by the stage
+     * @param action Stage
+     * @return Fingerprinted stage
+     */
+    Function<LegalEntityTask, Mono<LegalEntityTask>> stage(String stage, Function<LegalEntity, Object> input,
+        Function<LegalEntityTask, Mono<LegalEntityTask>> action) {
+        inputs.put(stage, input);
+        return task -> Mono.deferContextual(context -> {
+            Run run = context.getOrDefault(CONTEXT_KEY, null);
+            String fingerprint = run != null ? run.fingerprints.get(stage) : null;
+            if (fingerprint == null) {
+                return action.apply(task);
+            }
+            LegalEntity legalEntity = task.getData();
+            if (fingerprint.equals(run.stored.get(stage))) {
+                task.info(LEGAL_ENTITY, stage, UNCHANGED, legalEntity.getExternalId(), legalEntity.getInternalId(),
+                    "Skipped %s of Legal Entity: %s as its input did not change", stage, legalEntity.getExternalId());
+                return Mono.just(task);
+            }
+            return action.apply(task)
+                .flatMap(completed -> (completed.isFailed()
+                    ? store.invalidate(run.scope, run.externalId, stage)
+                    : store.save(run.scope, run.externalId, stage, fingerprint))
+                    .onErrorResume(e -> {
+                        log.warn("Failed to update fingerprint of stage: {} of: {}", stage, run.externalId, e);
+                        return Mono.empty();
+                    })
+                    .thenReturn(completed));
+        });
+    }
+
+    /**
+     * Run the stages of a Legal Entity with the fingerprints of their current input.
+     * @param task Task of the Legal Entity
+     * @param stages Stages of the Legal Entity
+     * @return Result of the stages
+     */
+    Mono<LegalEntityTask> execute(LegalEntityTask task, Function<LegalEntityTask, Mono<LegalEntityTask>> stages) {
+        String externalId = task.getData().getExternalId();
+        if (externalId == null) {
+            return stages.apply(task);
+        }
+        return Mono.deferContextual(context -> {
+            String scope = scope(context);
+            Map<String, String> fingerprints = fingerprints(task.getData());
+            return store.findAll(scope, externalId)
+                .onErrorResume(e -> {
+                    log.warn("Failed to read fingerprints of: {}, running all stages", externalId, e);
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Map.of())
+                .flatMap(stored -> stages.apply(task)
+                    .contextWrite(ctx -> ctx.put(CONTEXT_KEY, new Run(scope, externalId, fingerprints, stored))))
+                .onErrorResume(e -> store.invalidateAll(scope, externalId)
+                    .onErrorResume(invalidateError -> {
+                        log.warn("Failed to invalidate fingerprints of: {}", externalId, invalidateError);
+                        return Mono.empty();
+                    })
+                    .then(Mono.error(e)));
+        });
+    }
+
+    private static String scope(ContextView context) {
+        Map<?, ?> headers = context.getOrDefault(CONTEXT_KEY_FORWARDED_HEADERS, null);
+        return headers != null && !headers.isEmpty() ? Fingerprints.of(headers) : FingerprintStore.DEFAULT_SCOPE;
+    }
+
+    private Map<String, String> fingerprints(LegalEntity legalEntity) {
+        Map<String, String> fingerprints = new HashMap<>();
+        inputs.forEach((stage, input) -> {
+            try {
+                fingerprints.put(stage, Fingerprints.of(input.apply(legalEntity)));
+            } catch (RuntimeException e) {
+                log.warn("Failed to fingerprint stage: {} of: {}, running it", stage, legalEntity.getExternalId(), e);
+            }
+        });
+        return fingerprints;
+    }
+
+    private static final class Run {
+
+        private final String scope;
+        private final String externalId;
+        private final Map<String, String> fingerprints;
+        private final Map<String, String> stored;
+
+        private Run(String scope, String externalId, Map<String, String> fingerprints, Map<String, String> stored) {
+            this.scope = scope;
+            this.externalId = externalId;
+            this.fingerprints = fingerprints;
+            this.stored = stored;
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.backbase.stream;
+
+import static com.backbase.stream.LegalEntitySaga.LEGAL_ENTITY;
+import static com.backbase.stream.LegalEntitySaga.PROCESS_SUBSIDIARIES;
+
+import com.backbase.stream.configuration.LegalEntitySagaConfigurationProperties.SubsidiaryTraversalMode;
+import com.backbase.stream.legalentity.model.LegalEntity;
+import com.backbase.stream.worker.ratelimit.RateLimiter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ingests the subsidiaries of a Legal Entity tree. A subsidiary starts once its parent completed, and at most
+ * {@code concurrency} subsidiaries are ingested at the same time across all levels of the tree. Subsidiaries of a
+ * subsidiary completing empty are skipped.
+ *
+ * <p>The history of every subsidiary is appended to the root task once, and the number of ingested subsidiaries is
+ * reported per level.</p>
+ */
+@Slf4j
+class SubsidiaryTraversal {
+
+    private final Function<LegalEntityTask, Mono<LegalEntityTask>> saga;
+    private final SubsidiaryTraversalMode mode;
+    private final int concurrency;
+
+    /**
+     * Create Subsidiary Traversal.
+     * @param saga Ingestion of a single Legal Entity, without its subsidiaries
+     * @param mode Order in which subsidiaries are ingested
+     * @param concurrency Maximum number of subsidiaries ingested at the same time
+     */
+    SubsidiaryTraversal(Function<LegalEntityTask, Mono<LegalEntityTask>> saga, SubsidiaryTraversalMode mode,
+        int concurrency) {
+        this.saga = saga;
+        this.mode = mode;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Ingest all subsidiaries of an ingested Legal Entity.
+     * @param rootTask Task of the root Legal Entity
+     * @return Root task once all subsidiaries completed
+     */
+    Mono<LegalEntityTask> traverse(LegalEntityTask rootTask) {
+        return Mono.defer(() -> {
+            Progress progress = new Progress();
+            List<LegalEntity> subsidiaries = subsidiaries(rootTask.getData(), 1, progress);
+            if (subsidiaries.isEmpty()) {
+                return Mono.just(rootTask);
+            }
+            Mono<Void> traversal = mode == SubsidiaryTraversalMode.LEVEL_BY_LEVEL
+                ? levelByLevel(rootTask, subsidiaries, 1, progress)
+                : breadthFirst(rootTask, subsidiaries, 1, new RateLimiter(0, concurrency), progress);
+            return traversal
+                .then(Mono.fromRunnable(() -> progress.report(rootTask)))
+                .thenReturn(rootTask);
+        });
+    }
+
+    private Mono<Void> levelByLevel(LegalEntityTask rootTask, List<LegalEntity> level, int depth,
+        Progress progress) {
+        if (level.isEmpty()) {
+            return Mono.empty();
+        }
+        log.info("Ingesting {} subsidiaries at level {} of: {}", level.size(), depth, rootTask.getName());
+        return Flux.fromIterable(level)
+            .flatMap(subsidiary -> ingest(rootTask, subsidiary, depth, progress), concurrency)
+            .flatMapIterable(ingested -> subsidiaries(ingested, depth + 1, progress))
+            .collectList()
+            .flatMap(nextLevel -> levelByLevel(rootTask, nextLevel, depth + 1, progress));
+    }
+
+    private Mono<Void> breadthFirst(LegalEntityTask rootTask, List<LegalEntity> subsidiaries, int depth,
+        RateLimiter budget, Progress progress) {
+        // permits are handed out in request order, so a level queued earlier is served first.
+        return Flux.fromIterable(subsidiaries)
+            .flatMap(subsidiary -> budget.limit(ingest(rootTask, subsidiary, depth, progress))
+                .flatMap(ingested -> breadthFirst(rootTask, subsidiaries(ingested, depth + 1, progress), depth + 1,
+                    budget, progress)), Integer.MAX_VALUE)
+            .then();
+    }
+
+    private Mono<LegalEntity> ingest(LegalEntityTask rootTask, LegalEntity subsidiary, int depth,
+        Progress progress) {
+        return Mono.defer(() -> saga.apply(new LegalEntityTask(subsidiary)))
+            .map(task -> {
+                rootTask.addHistory(task.getHistory());
+                progress.completed(depth);
+                return task.getData();
+            })
+            .switchIfEmpty(Mono.fromRunnable(() -> progress.skipped(depth)));
+    }
+
+    private List<LegalEntity> subsidiaries(LegalEntity parent, int depth, Progress progress) {
+        List<LegalEntity> subsidiaries = parent.getSubsidiaries();
+        if (subsidiaries == null || subsidiaries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        subsidiaries.forEach(subsidiary -> {
+            subsidiary.setParentExternalId(parent.getExternalId());
+            subsidiary.setParentInternalId(parent.getInternalId());
+        });
+        progress.discovered(depth, subsidiaries.size());
+        return subsidiaries;
+    }
+
+    private static final class Progress {
+
+        private final Map<Integer, int[]> levels = new TreeMap<>();
+
+        synchronized void discovered(int depth, int count) {
+            level(depth)[0] += count;
+        }
+
+        synchronized void completed(int depth) {
+            int[] level = level(depth);
+            level[1]++;
+            log.debug("Ingested {} of {} known subsidiaries at level {}", level[1] + level[2], level[0], depth);
+        }
+
+        synchronized void skipped(int depth) {
+            level(depth)[2]++;
+        }
+
+        synchronized void report(LegalEntityTask rootTask) {
+            LegalEntity root = rootTask.getData();
+            levels.forEach((depth, level) -> rootTask.info(LEGAL_ENTITY, PROCESS_SUBSIDIARIES, "level-" + depth,
+                root.getExternalId(), root.getInternalId(), "Ingested %d of %d subsidiaries at level %d, skipped %d",
+                level[1], level[0], depth, level[2]));
+        }
+
+        private int[] level(int depth) {
+            return levels.computeIfAbsent(depth, key -> new int[3]);
+        }
+    }
+
+}
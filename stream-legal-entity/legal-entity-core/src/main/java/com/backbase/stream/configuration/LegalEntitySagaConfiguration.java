@@ -4,6 +4,9 @@ import com.backbase.stream.LegalEntitySaga;
 import com.backbase.stream.LegalEntityTask;
 import com.backbase.stream.LegalEntityUnitOfWorkExecutor;
 import com.backbase.stream.contact.ContactsSaga;
+import com.backbase.stream.legalentity.fingerprint.FingerprintStore;
+import com.backbase.stream.legalentity.fingerprint.InMemoryFingerprintStore;
+import com.backbase.stream.legalentity.fingerprint.R2dbcFingerprintStore;
 import com.backbase.stream.legalentity.repository.LegalEntityUnitOfWorkRepository;
 import com.backbase.stream.limit.LimitsSaga;
 import com.backbase.stream.product.BatchProductIngestionSaga;
@@ -14,13 +17,20 @@ import com.backbase.stream.service.AccessGroupService;
 import com.backbase.stream.service.LegalEntityService;
 import com.backbase.stream.service.UserProfileService;
 import com.backbase.stream.service.UserService;
+import com.backbase.stream.worker.UnitOfWorkScheduler;
 import com.backbase.stream.worker.repository.impl.InMemoryReactiveUnitOfWorkRepository;
+import com.backbase.stream.worker.repository.impl.R2dbcUnitOfWorkRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
 
 @Configuration
 @Import({
@@ -45,7 +55,8 @@ public class LegalEntitySagaConfiguration {
         LimitsSaga limitsSaga,
         ContactsSaga contactsSaga,
         LegalEntitySagaConfigurationProperties sinkConfigurationProperties,
-        ObjectMapper objectMapper) {
+        ObjectMapper objectMapper,
+        ObjectProvider<FingerprintStore> fingerprintStore) {
         return new LegalEntitySaga(
             legalEntityService,
             userService,
@@ -54,14 +65,16 @@ public class LegalEntitySagaConfiguration {
             productIngestionSaga,
             batchProductIngestionSaga, limitsSaga,
                 contactsSaga,
-                sinkConfigurationProperties
+                sinkConfigurationProperties,
+                fingerprintStore.getIfAvailable()
         );
     }
 
     @Bean
     @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "memory", matchIfMissing = true)
-    public LegalEntityUnitOfWorkRepository legalEntityInMemoryUnitOfWorkRepository() {
-        return new LegalEntityInMemoryUnitOfWorkRepository();
+    public LegalEntityUnitOfWorkRepository legalEntityInMemoryUnitOfWorkRepository(
+        LegalEntitySagaConfigurationProperties configProperties) {
+        return new LegalEntityInMemoryUnitOfWorkRepository(configProperties.getCompletedUnitOfWorkTtl());
     }
 
     @Bean
@@ -73,9 +86,56 @@ public class LegalEntitySagaConfiguration {
         return new LegalEntityUnitOfWorkExecutor(legalEntityUnitOfWorkRepository, legalEntitySaga, configProperties);
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "backbase.stream.legalentity.sink.scheduler-enabled", havingValue = "true")
+    public UnitOfWorkScheduler<LegalEntityTask> legalEntityUnitOfWorkScheduler(
+        LegalEntityUnitOfWorkExecutor legalEntityUnitOfWorkExecutor) {
+        return new UnitOfWorkScheduler<>(legalEntityUnitOfWorkExecutor);
+    }
+
     public static class LegalEntityInMemoryUnitOfWorkRepository extends
         InMemoryReactiveUnitOfWorkRepository<LegalEntityTask> implements LegalEntityUnitOfWorkRepository {
 
+        public LegalEntityInMemoryUnitOfWorkRepository(Duration completedTtl) {
+            super(completedTtl);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "backbase.stream.legalentity.sink.fingerprint-enabled", havingValue = "true")
+    public static class LegalEntityInMemoryFingerprintConfiguration {
+
+        @Bean
+        @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "memory", matchIfMissing = true)
+        public FingerprintStore legalEntityInMemoryFingerprintStore() {
+            return new InMemoryFingerprintStore();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.r2dbc.core.DatabaseClient")
+    @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "r2dbc")
+    public static class LegalEntityR2dbcPersistenceConfiguration {
+
+        @Bean
+        public LegalEntityUnitOfWorkRepository legalEntityR2dbcUnitOfWorkRepository(
+            ConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+            return new LegalEntityR2dbcUnitOfWorkRepository(DatabaseClient.create(connectionFactory), objectMapper);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "backbase.stream.legalentity.sink.fingerprint-enabled", havingValue = "true")
+        public FingerprintStore legalEntityR2dbcFingerprintStore(ConnectionFactory connectionFactory) {
+            return new R2dbcFingerprintStore(DatabaseClient.create(connectionFactory));
+        }
+    }
+
+    public static class LegalEntityR2dbcUnitOfWorkRepository extends
+        R2dbcUnitOfWorkRepository<LegalEntityTask> implements LegalEntityUnitOfWorkRepository {
+
+        public LegalEntityR2dbcUnitOfWorkRepository(DatabaseClient databaseClient, ObjectMapper objectMapper) {
+            super(databaseClient, objectMapper, LegalEntityTask.class);
+        }
     }
 
 }
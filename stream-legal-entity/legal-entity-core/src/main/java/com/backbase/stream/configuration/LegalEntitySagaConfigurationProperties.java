@@ -20,4 +20,40 @@ public class LegalEntitySagaConfigurationProperties extends StreamWorkerConfigur
      */
     private boolean userProfileEnabled = false;
 
+    /**
+     * Number of new users without identity created per batch. Zero or less creates every user separately.
+     */
+    private int userBatchSize = 50;
+
+    /**
+     * Maximum number of subsidiary sagas running at the same time, shared across all levels of a Legal Entity tree.
+     */
+    private int subsidiaryConcurrency = 8;
+
+    /**
+     * Order in which the subsidiaries of a Legal Entity tree are ingested.
+     */
+    private SubsidiaryTraversalMode subsidiaryTraversalMode = SubsidiaryTraversalMode.BREADTH_FIRST;
+
+    /**
+     * Skip limits and contacts of a Legal Entity when their input did not change since the last successful ingestion.
+     * Neither stage sets fields on the returned Legal Entity, so skipping them only leaves their individual results out
+     * of the task history. Products are always processed, as they assign internal ids. Fingerprints are stored in
+     * memory, or in the {@code legal_entity_fingerprint} table when {@code backbase.stream.persistence} is
+     * {@code r2dbc}, separately per set of forwarded headers. Do not enable for sinks ingesting into several tenants
+     * unless the tenant id is a forwarded header.
+     */
+    private boolean fingerprintEnabled = false;
+
+    public enum SubsidiaryTraversalMode {
+        /**
+         * A subsidiary starts as soon as its parent completed.
+         */
+        BREADTH_FIRST,
+        /**
+         * A level of the tree starts once the previous level completed.
+         */
+        LEVEL_BY_LEVEL
+    }
+
 }
@@ -6,12 +6,19 @@ import com.backbase.stream.UpdatedServiceAgreementUnitOfWorkExecutor;
 import com.backbase.stream.legalentity.repository.UpdatedServiceAgreementUnitOfWorkRepository;
 import com.backbase.stream.product.service.ArrangementService;
 import com.backbase.stream.service.AccessGroupService;
+import com.backbase.stream.worker.UnitOfWorkScheduler;
 import com.backbase.stream.worker.repository.impl.InMemoryReactiveUnitOfWorkRepository;
+import com.backbase.stream.worker.repository.impl.R2dbcUnitOfWorkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
 
 @Configuration
 @Import({AccessControlConfiguration.class})
@@ -28,8 +35,9 @@ public class UpdatedServiceAgreementSagaConfiguration {
 
     @Bean
     @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "memory", matchIfMissing = true)
-    public UpdatedServiceAgreementUnitOfWorkRepository updatedServiceAgreementInMemoryUnitOfWorkRepository() {
-        return new UpdatedServiceAgreementInMemoryUnitOfWorkRepository();
+    public UpdatedServiceAgreementUnitOfWorkRepository updatedServiceAgreementInMemoryUnitOfWorkRepository(
+        UpdatedServiceAgreementSagaConfigurationProperties configProperties) {
+        return new UpdatedServiceAgreementInMemoryUnitOfWorkRepository(configProperties.getCompletedUnitOfWorkTtl());
     }
 
     @Bean
@@ -42,9 +50,43 @@ public class UpdatedServiceAgreementSagaConfiguration {
             updatedServiceAgreementSaga, configProperties);
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "backbase.stream.legalentity.serviceagreement.sink.scheduler-enabled",
+        havingValue = "true")
+    public UnitOfWorkScheduler<UpdatedServiceAgreementTask> updatedServiceAgreementUnitOfWorkScheduler(
+        UpdatedServiceAgreementUnitOfWorkExecutor updatedServiceAgreementUnitOfWorkExecutor) {
+        return new UnitOfWorkScheduler<>(updatedServiceAgreementUnitOfWorkExecutor);
+    }
+
     public static class UpdatedServiceAgreementInMemoryUnitOfWorkRepository extends
         InMemoryReactiveUnitOfWorkRepository<UpdatedServiceAgreementTask> implements
         UpdatedServiceAgreementUnitOfWorkRepository {
 
+        public UpdatedServiceAgreementInMemoryUnitOfWorkRepository(Duration completedTtl) {
+            super(completedTtl);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.r2dbc.core.DatabaseClient")
+    @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "r2dbc")
+    public static class UpdatedServiceAgreementR2dbcPersistenceConfiguration {
+
+        @Bean
+        public UpdatedServiceAgreementUnitOfWorkRepository updatedServiceAgreementR2dbcUnitOfWorkRepository(
+            ConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+            return new UpdatedServiceAgreementR2dbcUnitOfWorkRepository(DatabaseClient.create(connectionFactory),
+                objectMapper);
+        }
+    }
+
+    public static class UpdatedServiceAgreementR2dbcUnitOfWorkRepository extends
+        R2dbcUnitOfWorkRepository<UpdatedServiceAgreementTask> implements
+        UpdatedServiceAgreementUnitOfWorkRepository {
+
+        public UpdatedServiceAgreementR2dbcUnitOfWorkRepository(DatabaseClient databaseClient,
+            ObjectMapper objectMapper) {
+            super(databaseClient, objectMapper, UpdatedServiceAgreementTask.class);
+        }
     }
 }
@@ -0,0 +1,53 @@
+package com.backbase.stream.legalentity.fingerprint;
+
+import java.util.Map;
+import reactor.core.publisher.Mono;
+
+/**
+ * Store of the input fingerprints of the last successful run of each stage of a Legal Entity, keyed by scope, the
+ * external id of the Legal Entity and the name of the stage. The scope separates Legal Entities with the same external
+ * id ingested into different tenants.
+ */
+public interface FingerprintStore {
+
+    /**
+     * Scope of Legal Entities ingested without forwarded headers.
+     */
+    String DEFAULT_SCOPE = "default";
+
+    /**
+     * Fingerprints of all stages of a Legal Entity.
+     * @param scope Scope of the Legal Entity
+     * @param externalId External id of the Legal Entity
+     * @return Fingerprint per stage name, empty map if none are stored
+     */
+    Mono<Map<String, String>> findAll(String scope, String externalId);
+
+    /**
+     * Store the fingerprint of a successful run of a stage, replacing the previous one.
+     * @param scope Scope of the Legal Entity
+     * @param externalId External id of the Legal Entity
+     * @param stage Name of the stage
+     * @param fingerprint Fingerprint of the input of the stage
+     * @return Completion
+     */
+    Mono<Void> save(String scope, String externalId, String stage, String fingerprint);
+
+    /**
+     * Remove the fingerprint of a stage, so it runs again on the next ingestion.
+     * @param scope Scope of the Legal Entity
+     * @param externalId External id of the Legal Entity
+     * @param stage Name of the stage
+     * @return Completion
+     */
+    Mono<Void> invalidate(String scope, String externalId, String stage);
+
+    /**
+     * Remove the fingerprints of all stages of a Legal Entity.
+     * @param scope Scope of the Legal Entity
+     * @param externalId External id of the Legal Entity
+     * @return Completion
+     */
+    Mono<Void> invalidateAll(String scope, String externalId);
+
+}
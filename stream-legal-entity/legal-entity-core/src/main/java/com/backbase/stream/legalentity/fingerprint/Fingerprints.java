@@ -0,0 +1,46 @@
+package com.backbase.stream.legalentity.fingerprint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Content hashes of (parts of) a Legal Entity aggregate. Content is serialized to JSON with properties and map
+ * entries sorted by name, so equal content always has the same fingerprint regardless of the order in which it was
+ * built.
+ */
+public final class Fingerprints {
+
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .findAndAddModules()
+        .build();
+
+    private Fingerprints() {
+    }
+
+    /**
+     * Fingerprint of content.
+     * @param content Content serializable to JSON
+     * @return URL safe Base64 encoded SHA-256 hash of the content
+     */
+    public static String of(Object content) {
+        try {
+            byte[] json = CANONICAL_MAPPER.writeValueAsBytes(content);
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot fingerprint content of type: " + content.getClass(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
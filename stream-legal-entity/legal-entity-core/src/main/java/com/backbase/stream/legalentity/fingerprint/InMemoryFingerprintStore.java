@@ -0,0 +1,42 @@
+package com.backbase.stream.legalentity.fingerprint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import reactor.core.publisher.Mono;
+
+/**
+ * In memory Fingerprint Store. Fingerprints are lost on restart, after which every stage runs once again.
+ */
+public class InMemoryFingerprintStore implements FingerprintStore {
+
+    private final Map<List<String>, Map<String, String>> fingerprints = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Map<String, String>> findAll(String scope, String externalId) {
+        return Mono.fromSupplier(() -> {
+            Map<String, String> stages = fingerprints.get(List.of(scope, externalId));
+            return stages != null ? Map.copyOf(stages) : Map.of();
+        });
+    }
+
+    @Override
+    public Mono<Void> save(String scope, String externalId, String stage, String fingerprint) {
+        return Mono.fromRunnable(() -> fingerprints.computeIfAbsent(List.of(scope, externalId),
+            key -> new ConcurrentHashMap<>()).put(stage, fingerprint));
+    }
+
+    @Override
+    public Mono<Void> invalidate(String scope, String externalId, String stage) {
+        return Mono.fromRunnable(() -> fingerprints.computeIfPresent(List.of(scope, externalId), (key, stages) -> {
+            stages.remove(stage);
+            return stages.isEmpty() ? null : stages;
+        }));
+    }
+
+    @Override
+    public Mono<Void> invalidateAll(String scope, String externalId) {
+        return Mono.fromRunnable(() -> fingerprints.remove(List.of(scope, externalId)));
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.backbase.stream.legalentity.fingerprint;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fingerprint Store backed by R2DBC, using the {@code legal_entity_fingerprint} table defined in
+ * {@code db/legal-entity/fingerprint-schema.sql}. Fingerprints survive restarts and are shared by all nodes ingesting
+ * into the same environment.
+ */
+@Slf4j
+public class R2dbcFingerprintStore implements FingerprintStore {
+
+    private static final String UPDATE = "UPDATE legal_entity_fingerprint SET fingerprint = :fingerprint, "
+        + "updated_at = :updatedAt WHERE scope = :scope AND external_id = :externalId AND stage = :stage";
+
+    private static final String INSERT = "INSERT INTO legal_entity_fingerprint "
+        + "(scope, external_id, stage, fingerprint, updated_at) "
+        + "VALUES (:scope, :externalId, :stage, :fingerprint, :updatedAt)";
+
+    private final DatabaseClient databaseClient;
+
+    public R2dbcFingerprintStore(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Map<String, String>> findAll(String scope, String externalId) {
+        return databaseClient.sql("SELECT stage, fingerprint FROM legal_entity_fingerprint "
+                + "WHERE scope = :scope AND external_id = :externalId")
+            .bind("scope", scope)
+            .bind("externalId", externalId)
+            .map(row -> Map.entry(row.get("stage", String.class), row.get("fingerprint", String.class)))
+            .all()
+            .collect(HashMap::new, (fingerprints, entry) -> fingerprints.put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Update the stored fingerprint, or insert it when the stage has none yet. An insert losing a race against another
+     * node falls back to the update.
+     */
+    @Override
+    public Mono<Void> save(String scope, String externalId, String stage, String fingerprint) {
+        OffsetDateTime updatedAt = OffsetDateTime.now();
+        return write(UPDATE, scope, externalId, stage, fingerprint, updatedAt)
+            .flatMap(updated -> updated > 0 ? Mono.just(updated)
+                : write(INSERT, scope, externalId, stage, fingerprint, updatedAt)
+                    .onErrorResume(DataIntegrityViolationException.class, e -> {
+                        log.debug("Fingerprint of stage: {} of: {} inserted concurrently", stage, externalId);
+                        return write(UPDATE, scope, externalId, stage, fingerprint, updatedAt);
+                    }))
+            .then();
+    }
+
+    @Override
+    public Mono<Void> invalidate(String scope, String externalId, String stage) {
+        return databaseClient.sql("DELETE FROM legal_entity_fingerprint WHERE scope = :scope "
+                + "AND external_id = :externalId AND stage = :stage")
+            .bind("scope", scope)
+            .bind("externalId", externalId)
+            .bind("stage", stage)
+            .then();
+    }
+
+    @Override
+    public Mono<Void> invalidateAll(String scope, String externalId) {
+        return databaseClient.sql("DELETE FROM legal_entity_fingerprint WHERE scope = :scope "
+                + "AND external_id = :externalId")
+            .bind("scope", scope)
+            .bind("externalId", externalId)
+            .then();
+    }
+
+    private Mono<Integer> write(String sql, String scope, String externalId, String stage, String fingerprint,
+        OffsetDateTime updatedAt) {
+        return databaseClient.sql(sql)
+            .bind("scope", scope)
+            .bind("externalId", externalId)
+            .bind("stage", stage)
+            .bind("fingerprint", fingerprint)
+            .bind("updatedAt", updatedAt)
+            .fetch()
+            .rowsUpdated();
+    }
+
+}
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS legal_entity_fingerprint
+(
+    scope       VARCHAR(64)  NOT NULL,
+    external_id VARCHAR(255) NOT NULL,
+    stage       VARCHAR(64)  NOT NULL,
+    fingerprint VARCHAR(64)  NOT NULL,
+    updated_at  TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (scope, external_id, stage)
+);
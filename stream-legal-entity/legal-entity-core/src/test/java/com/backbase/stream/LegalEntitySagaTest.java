@@ -42,8 +42,10 @@ import com.backbase.stream.product.task.BatchProductGroupTask;
 import com.backbase.stream.product.task.ProductGroupTask;
 import com.backbase.stream.service.AccessGroupService;
 import com.backbase.stream.service.LegalEntityService;
+import com.backbase.stream.service.LegalEntityService.UpsertOutcome;
 import com.backbase.stream.service.UserProfileService;
 import com.backbase.stream.service.UserService;
+import com.backbase.stream.worker.stage.StageGraph;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -64,6 +66,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.backbase.stream.service.UserService.REMOVED_PREFIX;
 import static java.util.Collections.singletonList;
@@ -140,9 +143,7 @@ class LegalEntitySagaTest {
 
         LegalEntityTask task = mockLegalEntityTask(legalEntity);
 
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.empty());
-        when(legalEntityService.getLegalEntityByInternalId(eq(leInternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.just(legalEntity));
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(accessGroupService.getServiceAgreementByExternalId(eq(customSaExId))).thenReturn(Mono.empty());
         when(accessGroupService.createServiceAgreement(any(), eq(customSa))).thenReturn(Mono.just(customSa));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
@@ -191,9 +192,7 @@ class LegalEntitySagaTest {
 
         LegalEntityTask task = mockLegalEntityTask(legalEntity);
 
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.empty());
-        when(legalEntityService.getLegalEntityByInternalId(eq(leInternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.just(legalEntity));
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(accessGroupService.getServiceAgreementByExternalId(eq(customSaExId))).thenReturn(Mono.empty());
         when(accessGroupService.createServiceAgreement(any(), eq(customSa))).thenReturn(Mono.just(customSa));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
@@ -237,10 +236,8 @@ class LegalEntitySagaTest {
         LegalEntityTask task = mockLegalEntityTask(legalEntity);
 
         when(task.getLegalEntity()).thenReturn(legalEntity);
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.empty());
-        when(legalEntityService.getLegalEntityByInternalId(eq(leInternalId))).thenReturn(Mono.just(legalEntity));
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(legalEntityService.getMasterServiceAgreementForInternalLegalEntityId(eq(leInternalId))).thenReturn(Mono.just(sa));
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.just(legalEntity));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
         when(batchProductIngestionSaga.process(any(ProductGroupTask.class)))
             .thenReturn(productGroupTaskMono);
@@ -255,8 +252,6 @@ class LegalEntitySagaTest {
         verify(userService).setupRealm(task.getLegalEntity());
         verify(userService).linkLegalEntityToRealm(task.getLegalEntity());
 
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.putLegalEntity(any())).thenReturn(Mono.just(legalEntity));
         result = legalEntitySaga.executeTask(task);
         result.block();
 
@@ -284,10 +279,8 @@ class LegalEntitySagaTest {
         LegalEntityTask task = mockLegalEntityTask(legalEntity);
 
         when(task.getLegalEntity()).thenReturn(legalEntity);
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.empty());
-        when(legalEntityService.getLegalEntityByInternalId(eq(leInternalId))).thenReturn(Mono.just(legalEntity));
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(legalEntityService.getMasterServiceAgreementForInternalLegalEntityId(eq(leInternalId))).thenReturn(Mono.empty());
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.just(legalEntity));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
         when(accessGroupService.createServiceAgreement(any(), any())).thenReturn(Mono.just(sa));
         when(batchProductIngestionSaga.process(any(ProductGroupTask.class)))
@@ -303,8 +296,6 @@ class LegalEntitySagaTest {
         verify(userService).setupRealm(task.getLegalEntity());
         verify(userService).linkLegalEntityToRealm(task.getLegalEntity());
 
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.putLegalEntity(any())).thenReturn(Mono.just(legalEntity));
         result = legalEntitySaga.executeTask(task);
         result.block();
 
@@ -416,13 +407,8 @@ class LegalEntitySagaTest {
 
         List<String> productGroupTaskProcessingOrder = new CopyOnWriteArrayList<>();
 
-        when(legalEntityService.getLegalEntityByExternalId("100000"))
-            .thenReturn(Mono.just(legalEntityTask.getLegalEntity()));
-        when(legalEntityService.getLegalEntityByInternalId("100001"))
-            .thenReturn(Mono.just(legalEntityTask.getLegalEntity()));
-        when(legalEntityService.createLegalEntity(legalEntityTask.getLegalEntity()))
-            .thenReturn(Mono.empty());
-        when(legalEntityService.putLegalEntity(any())).thenReturn(Mono.just(legalEntityTask.getLegalEntity()));
+        when(legalEntityService.upsertLegalEntity(any()))
+            .thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(legalEntitySagaConfigurationProperties.isUseIdentityIntegration())
             .thenReturn(true);
         when(userService.setupRealm(legalEntityTask.getLegalEntity()))
@@ -474,6 +460,98 @@ class LegalEntitySagaTest {
         );
     }
 
+    @Test
+    void stageGraphOnlyOrdersDependentStages() {
+        StageGraph<LegalEntityTask> stageGraph = legalEntitySaga.getStageGraph();
+
+        Assertions.assertEquals(singletonList(LegalEntitySaga.PROCESS_JOB_PROFILES),
+            stageGraph.getStage(LegalEntitySaga.PROCESS_CONTACTS).getDependencies());
+        Assertions.assertEquals(singletonList(LegalEntitySaga.PROCESS_JOB_PROFILES),
+            stageGraph.getStage(LegalEntitySaga.PROCESS_LIMITS).getDependencies());
+        Assertions.assertEquals(
+            Arrays.asList(LegalEntitySaga.SETUP_ADMINISTRATOR_PERMISSIONS, LegalEntitySaga.PROCESS_LIMITS),
+            stageGraph.getStage(LegalEntitySaga.PROCESS_PRODUCTS).getDependencies());
+        Assertions.assertEquals(11, stageGraph.getStages().size());
+    }
+
+    @Test
+    void administratorsAreCreatedInIdentityAfterRealmIsLinked() {
+        User adminUser = new User().externalId(adminExId);
+        legalEntity = new LegalEntity().internalId(leInternalId).externalId(leExternalId)
+            .addAdministratorsItem(adminUser);
+        LegalEntityTask task = new LegalEntityTask(legalEntity);
+        AtomicBoolean realmLinked = new AtomicBoolean();
+        List<Boolean> realmLinkedOnUserCreation = new CopyOnWriteArrayList<>();
+
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
+        when(userService.setupRealm(legalEntity)).thenReturn(Mono.just(new Realm()));
+        when(userService.linkLegalEntityToRealm(legalEntity)).thenReturn(Mono.delay(Duration.ofMillis(100))
+            .then(Mono.fromCallable(() -> {
+                realmLinked.set(true);
+                return legalEntity;
+            })));
+        when(userService.getUserByExternalId(adminExId)).thenReturn(Mono.empty());
+        // Stops the saga once the administrator is created in Identity
+        when(userService.createOrImportIdentityUser(eq(adminUser), eq(leInternalId), eq(task)))
+            .thenAnswer(invocation -> {
+                realmLinkedOnUserCreation.add(realmLinked.get());
+                return Mono.error(new IllegalStateException("stop"));
+            });
+
+        legalEntitySaga.executeTask(task)
+            .onErrorResume(e -> Mono.empty())
+            .block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(singletonList(true), realmLinkedOnUserCreation);
+    }
+
+    @Test
+    void setupUsersCreatesNewUsersInBatches() {
+        legalEntitySagaConfigurationProperties.setUserBatchSize(2);
+        User existing = agnosticUser("existing");
+        User first = agnosticUser("new-1");
+        User second = agnosticUser("new-2");
+        User third = agnosticUser("new-3");
+        User firstDuplicate = agnosticUser("NEW-1");
+        legalEntity = new LegalEntity().internalId(leInternalId).externalId(leExternalId)
+            .users(Arrays.asList(
+                new JobProfileUser().user(existing),
+                new JobProfileUser().user(first),
+                new JobProfileUser().user(firstDuplicate),
+                new JobProfileUser().user(second),
+                new JobProfileUser().user(third)));
+        LegalEntityTask task = new LegalEntityTask(legalEntity);
+
+        when(userService.getUserByExternalId("existing"))
+            .thenReturn(Mono.just(new User().externalId("existing").internalId("in-existing")));
+        when(userService.getUserByExternalId("new-1")).thenReturn(Mono.empty());
+        when(userService.getUserByExternalId("new-2")).thenReturn(Mono.empty());
+        when(userService.getUserByExternalId("new-3")).thenReturn(Mono.empty());
+        when(userService.updateUser(existing)).thenReturn(Mono.just(existing));
+        when(userService.ingestUsers(any())).thenAnswer(invocation -> {
+            List<User> batch = invocation.getArgument(0);
+            if (batch.contains(third)) {
+                return Mono.error(new IllegalStateException("Batch failed"));
+            }
+            batch.forEach(user -> user.setInternalId("in-" + user.getExternalId()));
+            return Mono.just(batch);
+        });
+        when(userService.createUser(eq(third), eq(leExternalId), eq(task)))
+            .thenReturn(Mono.just(new User().externalId("new-3").internalId("in-new-3")));
+
+        legalEntitySaga.setupUsers(task).block();
+
+        Assertions.assertEquals("in-existing", existing.getInternalId());
+        Assertions.assertEquals("in-new-1", first.getInternalId());
+        Assertions.assertEquals("in-new-1", firstDuplicate.getInternalId());
+        Assertions.assertEquals("in-new-2", second.getInternalId());
+        Assertions.assertEquals("in-new-3", third.getInternalId());
+        Assertions.assertEquals(leInternalId, first.getLegalEntityId());
+        verify(userService).ingestUsers(Arrays.asList(first, second));
+        verify(userService).ingestUsers(singletonList(third));
+        verify(userService).createUser(eq(third), eq(leExternalId), eq(task));
+    }
+
     @Test
     void deleteLegalEntity_usersPrefixedWithRemovedNotProcessed() {
         legalEntity = new LegalEntity().internalId(leInternalId).externalId(leExternalId)
@@ -585,10 +663,7 @@ class LegalEntitySagaTest {
 
         LegalEntityTask task = mockLegalEntityTask(newLE);
 
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.getLegalEntityByInternalId(eq(leInternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.empty());
-        when(legalEntityService.putLegalEntity(any())).thenReturn(Mono.just(newLE));
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(accessGroupService.getServiceAgreementByExternalId(eq(customSaExId))).thenReturn(Mono.empty());
         when(accessGroupService.createServiceAgreement(any(), eq(customSa))).thenReturn(Mono.just(customSa));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
@@ -641,10 +716,7 @@ class LegalEntitySagaTest {
 
         LegalEntityTask task = mockLegalEntityTask(legalEntity);
 
-        when(legalEntityService.getLegalEntityByExternalId(eq(leExternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.getLegalEntityByInternalId(eq(leInternalId))).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.putLegalEntity(any())).thenReturn(Mono.empty());
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(accessGroupService.getServiceAgreementByExternalId(eq(customSaExId))).thenReturn(Mono.empty());
         when(accessGroupService.createServiceAgreement(any(), eq(customSa))).thenReturn(Mono.just(customSa));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
@@ -702,9 +774,7 @@ class LegalEntitySagaTest {
                         new LegalEntity().externalId(leExternalId).customServiceAgreement(customSa)
                 ));
 
-        when(legalEntityService.getLegalEntityByExternalId(leExternalId)).thenReturn(Mono.empty());
-        when(legalEntityService.getLegalEntityByInternalId(leInternalId)).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.just(legalEntity));
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(accessGroupService.getServiceAgreementByExternalId(customSaExId)).thenReturn(Mono.empty());
         when(accessGroupService.createServiceAgreement(any(), eq(customSa))).thenReturn(Mono.just(customSa));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
@@ -769,9 +839,7 @@ class LegalEntitySagaTest {
 
         LegalEntityTask task = mockLegalEntityTask(legalEntity);
 
-        when(legalEntityService.getLegalEntityByExternalId(leExternalId)).thenReturn(Mono.empty());
-        when(legalEntityService.getLegalEntityByInternalId(leInternalId)).thenReturn(Mono.just(legalEntity));
-        when(legalEntityService.createLegalEntity(any())).thenReturn(Mono.just(legalEntity));
+        when(legalEntityService.upsertLegalEntity(any())).thenReturn(Mono.just(UpsertOutcome.CREATED));
         when(accessGroupService.getServiceAgreementByExternalId(customSaExId)).thenReturn(Mono.empty());
         when(accessGroupService.createServiceAgreement(any(), eq(customSa))).thenReturn(Mono.just(customSa));
         when(accessGroupService.setupJobRole(any(), any(), any())).thenReturn(Mono.just(jobRole));
@@ -850,6 +918,10 @@ class LegalEntitySagaTest {
         return users;
     }
 
+    private User agnosticUser(String externalId) {
+        return new User().externalId(externalId).identityLinkStrategy(IdentityUserLinkStrategy.IDENTITY_AGNOSTIC);
+    }
+
     private LegalEntityTask mockLegalEntityTask(LegalEntity legalEntity) {
         LegalEntityTask task = Mockito.mock(LegalEntityTask.class);
         when(task.getData()).thenReturn(legalEntity);
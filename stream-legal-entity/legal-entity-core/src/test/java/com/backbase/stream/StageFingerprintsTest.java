@@ -0,0 +1,137 @@
+package com.backbase.stream;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.backbase.stream.legalentity.fingerprint.FingerprintStore;
+import com.backbase.stream.legalentity.fingerprint.InMemoryFingerprintStore;
+import com.backbase.stream.legalentity.model.LegalEntity;
+import com.backbase.stream.worker.model.StreamTask;
+import com.backbase.stream.worker.stage.StageGraph;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class StageFingerprintsTest {
+
+    private final InMemoryFingerprintStore store = new InMemoryFingerprintStore();
+    private final StageFingerprints stageFingerprints = new StageFingerprints(store);
+    private final AtomicInteger limits = new AtomicInteger();
+    private final AtomicInteger contacts = new AtomicInteger();
+
+    @Test
+    void skipsStagesWithUnchangedInput() {
+        StageGraph<LegalEntityTask> graph = graph(task -> Mono.just(task));
+
+        execute(graph, legalEntity("Legal Entity", "a", "b"));
+        LegalEntityTask unchanged = execute(graph, legalEntity("Legal Entity", "b", "a"));
+        execute(graph, legalEntity("Renamed", "a", "b"));
+
+        assertEquals(2, limits.get());
+        assertEquals(1, contacts.get());
+        assertTrue(unchanged.getHistory().stream().anyMatch(history ->
+            LegalEntitySaga.UNCHANGED.equals(history.getResult())
+                && LegalEntitySaga.PROCESS_LIMITS.equals(history.getOperation())));
+    }
+
+    @Test
+    void runsFailedStageAgain() {
+        StageGraph<LegalEntityTask> graph = graph(task -> {
+            task.setState(StreamTask.State.FAILED);
+            return Mono.just(task);
+        });
+
+        execute(graph, legalEntity("Legal Entity", "a", "b"));
+        execute(graph, legalEntity("Legal Entity", "a", "b"));
+
+        assertEquals(1, limits.get());
+        assertEquals(2, contacts.get());
+    }
+
+    @Test
+    void invalidatesAllFingerprintsOnError() {
+        AtomicInteger runs = new AtomicInteger();
+        StageGraph<LegalEntityTask> graph = graph(task -> runs.incrementAndGet() > 1
+            ? Mono.error(new IllegalStateException("failed")) : Mono.just(task));
+
+        execute(graph, legalEntity("Legal Entity", "a", "b"));
+        StepVerifier.create(stageFingerprints.execute(new LegalEntityTask(legalEntity("Legal Entity", "c")),
+                graph::execute))
+            .verifyError(IllegalStateException.class);
+
+        StepVerifier.create(store.findAll(FingerprintStore.DEFAULT_SCOPE, "le"))
+            .expectNext(Map.of())
+            .verifyComplete();
+    }
+
+    @Test
+    void scopesFingerprintsByForwardedHeaders() {
+        StageGraph<LegalEntityTask> graph = graph(task -> Mono.just(task));
+
+        execute(graph, legalEntity("Legal Entity", "a"), "tenant-1");
+        execute(graph, legalEntity("Legal Entity", "a"), "tenant-2");
+        execute(graph, legalEntity("Legal Entity", "a"), "tenant-1");
+        execute(graph, legalEntity("Legal Entity", "a"));
+
+        assertEquals(3, limits.get());
+        StepVerifier.create(store.findAll(FingerprintStore.DEFAULT_SCOPE, "le"))
+            .expectNextMatches(fingerprints -> fingerprints.size() == 2)
+            .verifyComplete();
+    }
+
+    /**
+     * Limits are fingerprinted by name and additions, contacts by additions only.
+     */
+    private StageGraph<LegalEntityTask> graph(Function<LegalEntityTask, Mono<LegalEntityTask>> contactsResult) {
+        return StageGraph.<LegalEntityTask>builder("test")
+            .stage(LegalEntitySaga.PROCESS_LIMITS, stageFingerprints.stage(LegalEntitySaga.PROCESS_LIMITS,
+                legalEntity -> Arrays.asList(legalEntity.getName(), legalEntity.getAdditions()), task -> {
+                    limits.incrementAndGet();
+                    return Mono.just(task);
+                }))
+            .stage(LegalEntitySaga.PROCESS_CONTACTS, stageFingerprints.stage(LegalEntitySaga.PROCESS_CONTACTS,
+                legalEntity -> legalEntity.getAdditions(), task -> {
+                    contacts.incrementAndGet();
+                    return contactsResult.apply(task);
+                }), LegalEntitySaga.PROCESS_LIMITS)
+            .build();
+    }
+
+    private LegalEntityTask execute(StageGraph<LegalEntityTask> graph, LegalEntity legalEntity) {
+        LegalEntityTask task = new LegalEntityTask(legalEntity);
+        StepVerifier.create(stageFingerprints.execute(task, graph::execute))
+            .expectNext(task)
+            .verifyComplete();
+        return task;
+    }
+
+    private LegalEntityTask execute(StageGraph<LegalEntityTask> graph, LegalEntity legalEntity, String tenantId) {
+        MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+        headers.add("X-TID", tenantId);
+        LegalEntityTask task = new LegalEntityTask(legalEntity);
+        StepVerifier.create(stageFingerprints.execute(task, graph::execute)
+                .contextWrite(context -> context.put(CONTEXT_KEY_FORWARDED_HEADERS, headers)))
+            .expectNext(task)
+            .verifyComplete();
+        return task;
+    }
+
+    private LegalEntity legalEntity(String name, String... additionKeys) {
+        Map<String, String> additions = new LinkedHashMap<>();
+        for (String key : additionKeys) {
+            additions.put(key, "value-" + key);
+        }
+        LegalEntity legalEntity = new LegalEntity().externalId("le").name(name);
+        legalEntity.setAdditions(additions);
+        return legalEntity;
+    }
+
+}
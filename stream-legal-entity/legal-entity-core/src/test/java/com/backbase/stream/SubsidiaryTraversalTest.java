@@ -0,0 +1,124 @@
+package com.backbase.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.backbase.stream.configuration.LegalEntitySagaConfigurationProperties.SubsidiaryTraversalMode;
+import com.backbase.stream.legalentity.model.LegalEntity;
+import com.backbase.stream.worker.model.TaskHistory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class SubsidiaryTraversalTest {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+    private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void breadthFirstIngestsParentsBeforeChildrenWithinConcurrency() {
+        assertIngestsParentsBeforeChildrenWithinConcurrency(SubsidiaryTraversalMode.BREADTH_FIRST);
+    }
+
+    @Test
+    void levelByLevelIngestsParentsBeforeChildrenWithinConcurrency() {
+        assertIngestsParentsBeforeChildrenWithinConcurrency(SubsidiaryTraversalMode.LEVEL_BY_LEVEL);
+    }
+
+    @Test
+    void skipsSubsidiariesOfEmptySubsidiaries() {
+        LegalEntity root = tree("root", 2, 2);
+        String skipped = root.getSubsidiaries().get(0).getExternalId();
+        SubsidiaryTraversal traversal = new SubsidiaryTraversal(task -> skipped.equals(task.getData().getExternalId())
+            ? Mono.empty() : ingest(task), SubsidiaryTraversalMode.BREADTH_FIRST, 2);
+        LegalEntityTask rootTask = new LegalEntityTask(root);
+
+        StepVerifier.create(traversal.traverse(rootTask))
+            .expectNext(rootTask)
+            .verifyComplete();
+
+        assertEquals(1 + 2, completed.size());
+        assertEquals(List.of("Ingested 1 of 2 subsidiaries at level 1, skipped 1",
+                "Ingested 2 of 2 subsidiaries at level 2, skipped 0"),
+            levelMessages(rootTask));
+    }
+
+    @Test
+    void completesWithoutSubsidiaries() {
+        LegalEntityTask rootTask = new LegalEntityTask(new LegalEntity().externalId("root"));
+
+        StepVerifier.create(new SubsidiaryTraversal(this::ingest, SubsidiaryTraversalMode.LEVEL_BY_LEVEL, 1)
+                .traverse(rootTask))
+            .expectNext(rootTask)
+            .verifyComplete();
+
+        assertTrue(completed.isEmpty());
+    }
+
+    private void assertIngestsParentsBeforeChildrenWithinConcurrency(SubsidiaryTraversalMode mode) {
+        LegalEntity root = tree("root", 3, 3);
+        SubsidiaryTraversal traversal = new SubsidiaryTraversal(this::ingest, mode, 4);
+        LegalEntityTask rootTask = new LegalEntityTask(root);
+
+        StepVerifier.create(traversal.traverse(rootTask))
+            .expectNext(rootTask)
+            .verifyComplete();
+
+        assertEquals(3 + 9 + 27, completed.size());
+        assertTrue(violations.isEmpty(), () -> "Started before parent completed: " + violations);
+        assertTrue(maxRunning.get() <= 4, () -> "Running at the same time: " + maxRunning.get());
+        assertEquals("root", root.getSubsidiaries().get(0).getParentExternalId());
+        assertEquals(List.of("Ingested 3 of 3 subsidiaries at level 1, skipped 0",
+                "Ingested 9 of 9 subsidiaries at level 2, skipped 0",
+                "Ingested 27 of 27 subsidiaries at level 3, skipped 0"),
+            levelMessages(rootTask));
+    }
+
+    private Mono<LegalEntityTask> ingest(LegalEntityTask task) {
+        LegalEntity legalEntity = task.getData();
+        String parent = legalEntity.getParentExternalId();
+        if (!"root".equals(parent) && !completed.contains(parent)) {
+            violations.add(legalEntity.getExternalId());
+        }
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        return Mono.delay(Duration.ofMillis(5))
+            .map(tick -> {
+                running.decrementAndGet();
+                completed.add(legalEntity.getExternalId());
+                return task;
+            });
+    }
+
+    private LegalEntity tree(String externalId, int width, int depth) {
+        LegalEntity legalEntity = new LegalEntity().externalId(externalId);
+        if (depth > 0) {
+            List<LegalEntity> subsidiaries = new ArrayList<>();
+            for (int i = 0; i < width; i++) {
+                subsidiaries.add(tree(externalId + "-" + i, width, depth - 1));
+            }
+            legalEntity.setSubsidiaries(subsidiaries);
+        }
+        return legalEntity;
+    }
+
+    private List<String> levelMessages(LegalEntityTask rootTask) {
+        List<String> messages = new ArrayList<>();
+        for (TaskHistory history : rootTask.getHistory()) {
+            if (LegalEntitySaga.PROCESS_SUBSIDIARIES.equals(history.getOperation())) {
+                messages.add(history.getMessage());
+            }
+        }
+        return messages;
+    }
+
+}
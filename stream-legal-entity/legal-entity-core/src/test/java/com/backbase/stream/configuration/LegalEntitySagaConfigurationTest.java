@@ -0,0 +1,62 @@
+package com.backbase.stream.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.backbase.buildingblocks.webclient.WebClientConstants;
+import com.backbase.stream.configuration.ContactsServiceConfiguration.InMemoryContactsUnitOfWorkRepository;
+import com.backbase.stream.configuration.ContactsServiceConfiguration.R2dbcContactsUnitOfWorkRepository;
+import com.backbase.stream.configuration.LegalEntitySagaConfiguration.LegalEntityInMemoryUnitOfWorkRepository;
+import com.backbase.stream.configuration.LegalEntitySagaConfiguration.LegalEntityR2dbcUnitOfWorkRepository;
+import com.backbase.stream.configuration.LimitsServiceConfiguration.InMemoryLimitsUnitOfWorkRepository;
+import com.backbase.stream.configuration.LimitsServiceConfiguration.R2dbcLimitsUnitOfWorkRepository;
+import com.backbase.stream.contact.repository.ContactsUnitOfWorkRepository;
+import com.backbase.stream.legalentity.repository.LegalEntityUnitOfWorkRepository;
+import com.backbase.stream.limit.repository.LimitsUnitOfWorkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class LegalEntitySagaConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withBean(WebClientConstants.INTER_SERVICE_WEB_CLIENT_NAME, WebClient.class, WebClient::create)
+        .withBean(ObjectMapper.class, ObjectMapper::new)
+        .withBean(DateFormat.class, () -> new SimpleDateFormat("yyyy-MM-dd"))
+        .withUserConfiguration(LegalEntitySagaConfiguration.class);
+
+    @Test
+    void startsWithInMemoryPersistenceByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).getBean(LegalEntityUnitOfWorkRepository.class)
+                .isInstanceOf(LegalEntityInMemoryUnitOfWorkRepository.class);
+            assertThat(context).getBean(LimitsUnitOfWorkRepository.class)
+                .isInstanceOf(InMemoryLimitsUnitOfWorkRepository.class);
+            assertThat(context).getBean(ContactsUnitOfWorkRepository.class)
+                .isInstanceOf(InMemoryContactsUnitOfWorkRepository.class);
+        });
+    }
+
+    @Test
+    void startsWithR2dbcPersistence() {
+        contextRunner
+            .withBean(ConnectionFactory.class,
+                () -> ConnectionFactories.get("r2dbc:h2:mem:///legal-entity-context;DB_CLOSE_DELAY=-1"))
+            .withPropertyValues("backbase.stream.persistence=r2dbc")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).getBean(LegalEntityUnitOfWorkRepository.class)
+                    .isInstanceOf(LegalEntityR2dbcUnitOfWorkRepository.class);
+                assertThat(context).getBean(LimitsUnitOfWorkRepository.class)
+                    .isInstanceOf(R2dbcLimitsUnitOfWorkRepository.class);
+                assertThat(context).getBean(ContactsUnitOfWorkRepository.class)
+                    .isInstanceOf(R2dbcContactsUnitOfWorkRepository.class);
+            });
+    }
+
+}
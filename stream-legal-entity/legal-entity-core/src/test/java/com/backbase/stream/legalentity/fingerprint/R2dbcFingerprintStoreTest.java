@@ -0,0 +1,80 @@
+package com.backbase.stream.legalentity.fingerprint;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+class R2dbcFingerprintStoreTest {
+
+    private static final String SCOPE = FingerprintStore.DEFAULT_SCOPE;
+
+    private R2dbcFingerprintStore store;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory =
+            ConnectionFactories.get("r2dbc:h2:mem:///legal-entity-fingerprint;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/legal-entity/fingerprint-schema.sql"))
+            .populate(connectionFactory)
+            .block();
+        DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient.sql("DELETE FROM legal_entity_fingerprint").then().block();
+        store = new R2dbcFingerprintStore(databaseClient);
+    }
+
+    @Test
+    void savesAndReplacesFingerprintsPerStage() {
+        store.save(SCOPE, "le-1", "process-contacts", "first").block();
+        store.save(SCOPE, "le-1", "process-limits", "limits").block();
+        store.save(SCOPE, "le-1", "process-contacts", "second").block();
+        store.save(SCOPE, "le-2", "process-contacts", "other").block();
+
+        StepVerifier.create(store.findAll(SCOPE, "le-1"))
+            .expectNext(Map.of("process-contacts", "second", "process-limits", "limits"))
+            .verifyComplete();
+        StepVerifier.create(store.findAll(SCOPE, "unknown"))
+            .expectNext(Map.of())
+            .verifyComplete();
+    }
+
+    @Test
+    void keepsFingerprintsPerScope() {
+        store.save(SCOPE, "le-1", "process-contacts", "default").block();
+        store.save("tenant", "le-1", "process-contacts", "tenant").block();
+
+        store.invalidateAll("tenant", "le-1").block();
+        StepVerifier.create(store.findAll(SCOPE, "le-1"))
+            .expectNext(Map.of("process-contacts", "default"))
+            .verifyComplete();
+        StepVerifier.create(store.findAll("tenant", "le-1"))
+            .expectNext(Map.of())
+            .verifyComplete();
+    }
+
+    @Test
+    void invalidatesFingerprints() {
+        store.save(SCOPE, "le-1", "process-contacts", "contacts").block();
+        store.save(SCOPE, "le-1", "process-limits", "limits").block();
+        store.save(SCOPE, "le-2", "process-contacts", "other").block();
+
+        store.invalidate(SCOPE, "le-1", "process-contacts").block();
+        StepVerifier.create(store.findAll(SCOPE, "le-1"))
+            .expectNext(Map.of("process-limits", "limits"))
+            .verifyComplete();
+
+        store.invalidateAll(SCOPE, "le-1").block();
+        StepVerifier.create(store.findAll(SCOPE, "le-1"))
+            .expectNext(Map.of())
+            .verifyComplete();
+        StepVerifier.create(store.findAll(SCOPE, "le-2"))
+            .expectNext(Map.of("process-contacts", "other"))
+            .verifyComplete();
+    }
+
+}
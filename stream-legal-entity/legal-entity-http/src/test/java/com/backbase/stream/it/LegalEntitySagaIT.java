@@ -308,7 +308,7 @@ public class LegalEntitySagaIT {
             .expectStatus().isEqualTo(200);
 
         // Then
-        wireMockServer.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/access-control/service-api/v2/legalentities/500000"))
+        wireMockServer.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/access-control/service-api/v2/legalentities/external/100000"))
                 .withHeader("X-TID", WireMock.equalTo("tenant-id")));
 
         Assertions.assertTrue(wireMockServer.findAllUnmatchedRequests().isEmpty());
@@ -334,7 +334,7 @@ public class LegalEntitySagaIT {
                 .expectStatus().isEqualTo(200);
 
         // Then
-        wireMockServer.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/access-control/service-api/v2/legalentities/500000"))
+        wireMockServer.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/access-control/service-api/v2/legalentities/external/100000"))
                 .withHeader("X-TID", WireMock.equalTo("tenant-id")));
 
         Assertions.assertTrue(wireMockServer.findAllUnmatchedRequests().isEmpty());
@@ -365,7 +365,9 @@ public class LegalEntitySagaIT {
 
 
         // Then
-        wireMockServer.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/access-control/service-api/v2/legalentities/500000"))
+        wireMockServer.verify(WireMock.getRequestedFor(WireMock.urlEqualTo("/access-control/service-api/v2/legalentities/external/100000"))
+                .withHeader("X-TID", WireMock.equalTo("tenant-id")));
+        wireMockServer.verify(1, WireMock.putRequestedFor(WireMock.urlEqualTo("/access-control/service-api/v2/legalentities"))
                 .withHeader("X-TID", WireMock.equalTo("tenant-id")));
 
         Assertions.assertTrue(wireMockServer.findAllUnmatchedRequests().isEmpty());
@@ -10,14 +10,18 @@ import com.backbase.stream.limit.LimitsTask;
 import com.backbase.stream.limit.LimitsUnitOfWorkExecutor;
 import com.backbase.stream.limit.repository.LimitsUnitOfWorkRepository;
 import com.backbase.stream.worker.repository.impl.InMemoryReactiveUnitOfWorkRepository;
+import com.backbase.stream.worker.repository.impl.R2dbcUnitOfWorkRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactory;
 import java.text.DateFormat;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @EnableConfigurationProperties({
@@ -77,4 +81,24 @@ public class LimitsServiceConfiguration {
         return new LimitsUnitOfWorkExecutor(repository, saga, configurationProperties);
     }
 
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.r2dbc.core.DatabaseClient")
+    @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "r2dbc")
+    public static class LimitsR2dbcPersistenceConfiguration {
+
+        @Bean
+        public LimitsUnitOfWorkRepository limitsR2dbcUnitOfWorkRepository(ConnectionFactory connectionFactory,
+            ObjectMapper objectMapper) {
+            return new R2dbcLimitsUnitOfWorkRepository(DatabaseClient.create(connectionFactory), objectMapper);
+        }
+    }
+
+    public static class R2dbcLimitsUnitOfWorkRepository extends
+        R2dbcUnitOfWorkRepository<LimitsTask> implements LimitsUnitOfWorkRepository {
+
+        public R2dbcLimitsUnitOfWorkRepository(DatabaseClient databaseClient, ObjectMapper objectMapper) {
+            super(databaseClient, objectMapper, LimitsTask.class);
+        }
+    }
+
 }
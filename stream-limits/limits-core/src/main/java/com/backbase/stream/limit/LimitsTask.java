@@ -5,8 +5,10 @@ import com.backbase.dbs.limit.api.service.v2.model.LimitsPostResponseBody;
 import com.backbase.stream.worker.model.StreamTask;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 @EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
 @Data
 public class LimitsTask extends StreamTask {
 
@@ -0,0 +1,89 @@
+package com.backbase.stream.product;
+
+import com.backbase.dbs.arrangement.api.service.v2.model.AccountArrangementItemPost;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Drops arrangements that are equal on the fields relevant for a batch upsert: external arrangement id, external legal
+ * entity ids, external product id, external state id, product id and additions. The generated {@code equals} of
+ * {@link AccountArrangementItemPost} does not take inherited fields into account, so arrangements are compared on these
+ * fields only.
+ *
+ * <p>Each arrangement is wrapped in a key holding a hash of its scalar ids only, computed once. External legal entity
+ * ids and additions are never hashed: they are only compared when all ids of two arrangements are equal, which for
+ * distinct arrangements is rare as the external arrangement id is part of the hash. Dropped duplicates are counted in
+ * {@code stream.product.arrangements.duplicates}.</p>
+ */
+final class ArrangementDeduplicator {
+
+    static final String DUPLICATES_METRIC = "stream.product.arrangements.duplicates";
+
+    private ArrangementDeduplicator() {
+    }
+
+    /**
+     * Keep the first of each set of equal arrangements.
+     *
+     * @param arrangements Arrangements to upsert
+     * @return Distinct arrangements, in the order given
+     */
+    static List<AccountArrangementItemPost> distinct(List<AccountArrangementItemPost> arrangements) {
+        Set<Key> seen = new HashSet<>(Math.max(16, arrangements.size() * 2));
+        List<AccountArrangementItemPost> distinct = new ArrayList<>(arrangements.size());
+        for (AccountArrangementItemPost arrangement : arrangements) {
+            if (seen.add(new Key(arrangement))) {
+                distinct.add(arrangement);
+            }
+        }
+        int duplicates = arrangements.size() - distinct.size();
+        if (duplicates > 0) {
+            Metrics.counter(DUPLICATES_METRIC).increment(duplicates);
+        }
+        return distinct;
+    }
+
+    private static final class Key {
+
+        private final AccountArrangementItemPost arrangement;
+        private final int hash;
+
+        private Key(AccountArrangementItemPost arrangement) {
+            this.arrangement = arrangement;
+            int result = Objects.hashCode(arrangement.getExternalArrangementId());
+            result = 31 * result + Objects.hashCode(arrangement.getExternalProductId());
+            result = 31 * result + Objects.hashCode(arrangement.getExternalStateId());
+            result = 31 * result + Objects.hashCode(arrangement.getProductId());
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            AccountArrangementItemPost other = that.arrangement;
+            return hash == that.hash
+                && Objects.equals(arrangement.getExternalArrangementId(), other.getExternalArrangementId())
+                && Objects.equals(arrangement.getExternalProductId(), other.getExternalProductId())
+                && Objects.equals(arrangement.getExternalStateId(), other.getExternalStateId())
+                && Objects.equals(arrangement.getProductId(), other.getProductId())
+                && Objects.equals(arrangement.getExternalLegalEntityIds(), other.getExternalLegalEntityIds())
+                && Objects.equals(arrangement.getAdditions(), other.getAdditions());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -1,11 +1,7 @@
 package com.backbase.stream.product;
 
-import static java.util.Comparator.comparing;
-import static java.util.Comparator.naturalOrder;
-import static java.util.Comparator.nullsFirst;
-
-
 import com.backbase.dbs.arrangement.api.service.v2.model.AccountArrangementItemPost;
+import com.backbase.dbs.arrangement.api.service.v2.model.AccountBatchResponseItemExtended;
 import com.backbase.stream.legalentity.model.BaseProduct;
 import com.backbase.stream.legalentity.model.BaseProductGroup;
 import com.backbase.stream.legalentity.model.BatchProductGroup;
@@ -23,17 +19,16 @@ import com.backbase.stream.product.utils.StreamUtils;
 import com.backbase.stream.service.AccessGroupService;
 import com.backbase.stream.service.UserService;
 import com.backbase.stream.worker.exception.StreamTaskException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -50,6 +45,7 @@ import reactor.core.publisher.Mono;
 public class BatchProductIngestionSaga extends ProductIngestionSaga {
 
     public static final String BATCH_PRODUCT_GROUP = "batch-product-group";
+    public static final String DUPLICATES = "duplicates";
 
 
     public BatchProductIngestionSaga(ArrangementService arrangementService, AccessGroupService accessGroupService, UserService userService, ProductIngestionSagaConfigurationProperties configurationProperties) {
@@ -129,17 +125,6 @@ public class BatchProductIngestionSaga extends ProductIngestionSaga {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static<T> Predicate<T> distinctByKeys(final Function<? super T, ?>... keyExtractors) {
-      final Map<List<?>, Boolean> seen = new ConcurrentHashMap<>();
-      return t -> {
-        final List<?> keys = Arrays.stream(keyExtractors)
-            .map(key -> key.apply(t))
-            .collect(Collectors.toList());
-        return seen.putIfAbsent(keys, Boolean.TRUE) == null;
-      };
-    }
-
     protected Mono<BatchProductGroupTask> upsertArrangementsBatch(BatchProductGroupTask batchProductGroupTask) {
         List<AccountArrangementItemPost> batchArrangements = new ArrayList<>();
         batchProductGroupTask.getData().getProductGroups().forEach(pg -> batchArrangements.addAll(
@@ -157,42 +142,32 @@ public class BatchProductIngestionSaga extends ProductIngestionSaga {
                         .map(product -> ensureLegalEntityId(pg.getUsers(), product))
                         .collect(Collectors.toList())
         ));
-        // Insert  without duplicates.
+        // Insert without duplicates.
         // TODO: Revert this change when either OpenAPI generated methods can call super in equals
         // or if the product spec is modified to mitigate the issue
-        List<AccountArrangementItemPost> itemsToUpsert = batchArrangements.stream()
-            .filter(distinctByKeys(
-                AccountArrangementItemPost::getExternalArrangementId,
-                AccountArrangementItemPost::getExternalLegalEntityIds,
-                AccountArrangementItemPost::getExternalProductId,
-                AccountArrangementItemPost::getExternalStateId,
-                AccountArrangementItemPost::getProductId,
-               /* AccountArrangementItemPost::getAlias,*/
-                AccountArrangementItemPost::getAdditions
-            )).collect(Collectors.toList());
+        List<AccountArrangementItemPost> itemsToUpsert = ArrangementDeduplicator.distinct(batchArrangements);
+        int duplicates = batchArrangements.size() - itemsToUpsert.size();
+        if (duplicates > 0) {
+            batchProductGroupTask.info(ARRANGEMENT, UPSERT_ARRANGEMENT, DUPLICATES, null, null,
+                "Dropped %d duplicate arrangements", duplicates);
+        }
 
         Set<String> upsertedInternalIds = new HashSet<>();
-        return Flux.fromIterable(itemsToUpsert)
-                .sort(comparing(AccountArrangementItemPost::getExternalParentId, nullsFirst(naturalOrder()))) // Avoiding child to be created before parent
-                .buffer(50) // hardcoded to match DBS limitation
-                .concatMap(batch -> arrangementService.upsertBatchArrangements(batch)
-                        .doOnNext(r -> batchProductGroupTask.info(ARRANGEMENT, UPSERT_ARRANGEMENT, UPDATED, r.getResourceId(), r.getArrangementId(), "Updated Arrangements (in batch)"))
-                        .collectList()
-                ).map(batchResponses -> {
-                    // Update products with internal IDs.
-                    return batchProductGroupTask.getData().getProductGroups().stream()
-                        .flatMap(pg -> StreamUtils.getAllProducts(pg))
-                        .map(product -> {
-                            batchResponses.forEach(result -> {
-                                if (result.getResourceId().equalsIgnoreCase(product.getExternalId())) {
-                                    product.setInternalId(result.getArrangementId());
-                                    upsertedInternalIds.add(result.getArrangementId());
-                                }
-                            });
-                            return product;
-                        });
-                })
-                .flatMap(baseProductStream -> Flux.fromStream(baseProductStream)
+        int batchSize = Math.max(1, Math.min(ProductIngestionSagaConfigurationProperties.MAX_ARRANGEMENT_BATCH_SIZE,
+            configurationProperties.getArrangementBatchSize()));
+        int concurrency = Math.max(1, configurationProperties.getArrangementBatchConcurrency());
+        // Avoiding child to be created before parent: levels are upserted one after the other.
+        return Flux.fromIterable(groupByDependencyLevel(itemsToUpsert))
+                .concatMap(level -> Flux.fromIterable(level)
+                        .buffer(batchSize)
+                        .flatMapSequential(batch -> arrangementService.upsertBatchArrangements(batch)
+                                .doOnNext(r -> batchProductGroupTask.info(ARRANGEMENT, UPSERT_ARRANGEMENT, UPDATED, r.getResourceId(), r.getArrangementId(), "Updated Arrangements (in batch)")),
+                            concurrency)
+                )
+                .collectList()
+                // Update products with internal IDs.
+                .map(batchResponses -> assignInternalIds(batchProductGroupTask.getData().getProductGroups(), batchResponses, upsertedInternalIds))
+                .flatMapMany(products -> Flux.fromIterable(products)
                     .filter(baseProduct -> !CollectionUtils.isEmpty(baseProduct.getUsersPreferences()))
                     .flatMap(this::updateUsersPreferences))
                 .collectList()
@@ -215,6 +190,85 @@ public class BatchProductIngestionSaga extends ProductIngestionSaga {
                 });
     }
 
+    /**
+     * Group arrangements by their depth in the parent hierarchy. The first level holds arrangements without a parent in
+     * the given list, the next one their children, and so on. Arrangements keep their relative order within a level.
+     *
+     * @param arrangements Arrangements to upsert
+     * @return Arrangements per dependency level, roots first
+     */
+    static List<List<AccountArrangementItemPost>> groupByDependencyLevel(List<AccountArrangementItemPost> arrangements) {
+        Map<String, String> parentIds = new HashMap<>();
+        arrangements.stream()
+            .filter(arrangement -> arrangement.getExternalArrangementId() != null)
+            .forEach(arrangement -> parentIds.putIfAbsent(arrangement.getExternalArrangementId(), arrangement.getExternalParentId()));
+
+        Map<String, Integer> levels = new HashMap<>();
+        List<List<AccountArrangementItemPost>> result = new ArrayList<>();
+        for (AccountArrangementItemPost arrangement : arrangements) {
+            int level = levelBelow(arrangement.getExternalParentId(), parentIds, levels);
+            while (result.size() <= level) {
+                result.add(new ArrayList<>());
+            }
+            result.get(level).add(arrangement);
+        }
+        log.debug("Upserting {} arrangements in {} dependency levels", arrangements.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Level of an arrangement with the given parent. Levels of the ancestors are resolved iteratively and remembered;
+     * a cycle in the hierarchy is cut where it is detected.
+     */
+    private static int levelBelow(String parentId, Map<String, String> parentIds, Map<String, Integer> levels) {
+        Deque<String> ancestors = new ArrayDeque<>();
+        Set<String> visited = new HashSet<>();
+        String current = parentId;
+        while (current != null && parentIds.containsKey(current) && !levels.containsKey(current) && visited.add(current)) {
+            ancestors.push(current);
+            current = parentIds.get(current);
+        }
+        int level = current != null && levels.containsKey(current) ? levels.get(current) + 1 : 0;
+        while (!ancestors.isEmpty()) {
+            levels.put(ancestors.pop(), level++);
+        }
+        return level;
+    }
+
+    /**
+     * Set internal ids from the batch upsert responses on the products of all product groups. Responses are indexed by
+     * resource id, which matches the external id of a product ignoring case; the last response for a resource wins.
+     *
+     * @param productGroups       Product groups holding the upserted products
+     * @param batchResponses      Responses of all upsert batches, in the order the batches were sent
+     * @param upsertedInternalIds Collects the internal ids assigned to products
+     * @return All products of the product groups
+     */
+    private List<BaseProduct> assignInternalIds(List<BaseProductGroup> productGroups,
+        List<AccountBatchResponseItemExtended> batchResponses, Set<String> upsertedInternalIds) {
+        Map<String, String> arrangementIdsByResourceId = new HashMap<>(batchResponses.size() * 2);
+        batchResponses.stream()
+            .filter(result -> result.getResourceId() != null)
+            .forEach(result -> arrangementIdsByResourceId.put(normalizeResourceId(result.getResourceId()), result.getArrangementId()));
+
+        List<BaseProduct> products = productGroups.stream()
+            .flatMap(StreamUtils::getAllProducts)
+            .collect(Collectors.toList());
+        for (BaseProduct product : products) {
+            String normalized = product.getExternalId() != null ? normalizeResourceId(product.getExternalId()) : null;
+            if (normalized != null && arrangementIdsByResourceId.containsKey(normalized)) {
+                String arrangementId = arrangementIdsByResourceId.get(normalized);
+                product.setInternalId(arrangementId);
+                upsertedInternalIds.add(arrangementId);
+            }
+        }
+        return products;
+    }
+
+    private static String normalizeResourceId(String resourceId) {
+        return resourceId.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
     protected Mono<BaseProduct> updateUsersPreferences(BaseProduct product) {
         return Flux.fromIterable(product.getUsersPreferences())
             .map(productMapper::mapUserPreference)
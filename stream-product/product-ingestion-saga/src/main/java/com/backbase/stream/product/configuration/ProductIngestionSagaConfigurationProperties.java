@@ -7,6 +7,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties("backbase.stream.product.sink")
 public class ProductIngestionSagaConfigurationProperties {
 
+    /**
+     * Maximum number of arrangements DBS accepts in a single batch upsert request
+     */
+    public static final int MAX_ARRANGEMENT_BATCH_SIZE = 50;
+
     /**
      * Enable identity integration
      */
@@ -21,4 +26,15 @@ public class ProductIngestionSagaConfigurationProperties {
      * Number of Worker Threads for Tasks
      */
     private int taskExecutors = 3;
+
+    /**
+     * Number of arrangements sent in a single batch upsert request. DBS accepts at most 50, larger values are capped
+     */
+    private int arrangementBatchSize = MAX_ARRANGEMENT_BATCH_SIZE;
+
+    /**
+     * Number of arrangement batch upsert requests in flight at the same time. Parents are always upserted before their
+     * children
+     */
+    private int arrangementBatchConcurrency = 4;
 }
@@ -0,0 +1,88 @@
+package com.backbase.stream.product;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.backbase.dbs.arrangement.api.service.v2.model.AccountArrangementItemPost;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ArrangementDeduplicatorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    void keepsFirstOfEqualArrangements() {
+        AccountArrangementItemPost first = arrangement("acc-1", "le-1", Map.of("a", "1", "b", "2"));
+        AccountArrangementItemPost other = arrangement("acc-2", "le-1", Map.of("a", "1", "b", "2"));
+        Map<String, String> reordered = new LinkedHashMap<>();
+        reordered.put("b", "2");
+        reordered.put("a", "1");
+        AccountArrangementItemPost duplicate = arrangement("acc-1", "le-1", reordered);
+
+        List<AccountArrangementItemPost> result = ArrangementDeduplicator.distinct(asList(first, other, duplicate));
+
+        assertEquals(asList(first, other), result);
+        assertEquals(1, registry.get(ArrangementDeduplicator.DUPLICATES_METRIC).counter().count());
+    }
+
+    @Test
+    void keepsArrangementsDifferingInAnyKeyField() {
+        AccountArrangementItemPost first = arrangement("acc-1", "le-1", null);
+        AccountArrangementItemPost otherLegalEntity = arrangement("acc-1", "le-2", null);
+        AccountArrangementItemPost otherAdditions = arrangement("acc-1", "le-1", Map.of("a", "1"));
+        AccountArrangementItemPost otherState = arrangement("acc-1", "le-1", null);
+        otherState.setExternalStateId("closed");
+
+        List<AccountArrangementItemPost> result = ArrangementDeduplicator.distinct(
+            asList(first, otherLegalEntity, otherAdditions, otherState));
+
+        assertEquals(asList(first, otherLegalEntity, otherAdditions, otherState), result);
+    }
+
+    @Test
+    void doesNotHashAdditionsOfDistinctArrangements() {
+        Map<String, String> unhashable = new HashMap<>(Map.of("a", "1")) {
+            @Override
+            public int hashCode() {
+                throw new AssertionError("additions must not be hashed");
+            }
+        };
+        AccountArrangementItemPost first = arrangement("acc-1", "le-1", unhashable);
+        AccountArrangementItemPost second = arrangement("acc-2", "le-1", unhashable);
+        AccountArrangementItemPost duplicate = arrangement("acc-1", "le-1", Map.of("a", "1"));
+
+        List<AccountArrangementItemPost> result = ArrangementDeduplicator.distinct(asList(first, second, duplicate));
+
+        assertEquals(asList(first, second), result);
+    }
+
+    private AccountArrangementItemPost arrangement(String externalId, String legalEntityId,
+        Map<String, String> additions) {
+        AccountArrangementItemPost arrangement = new AccountArrangementItemPost();
+        arrangement.setExternalArrangementId(externalId);
+        arrangement.setExternalLegalEntityIds(List.of(legalEntityId));
+        arrangement.setExternalProductId("current-account");
+        arrangement.setProductId("product");
+        arrangement.setAdditions(additions);
+        return arrangement;
+    }
+
+}
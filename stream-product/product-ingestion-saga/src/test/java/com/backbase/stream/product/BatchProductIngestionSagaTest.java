@@ -0,0 +1,174 @@
+package com.backbase.stream.product;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.backbase.dbs.arrangement.api.service.v2.model.AccountArrangementItemPost;
+import com.backbase.dbs.arrangement.api.service.v2.model.AccountBatchResponseItemExtended;
+import com.backbase.stream.legalentity.model.BaseProduct;
+import com.backbase.stream.legalentity.model.BaseProductGroup;
+import com.backbase.stream.legalentity.model.BatchProductGroup;
+import com.backbase.stream.legalentity.model.CurrentAccount;
+import com.backbase.stream.legalentity.model.JobProfileUser;
+import com.backbase.stream.legalentity.model.LegalEntityReference;
+import com.backbase.stream.product.configuration.ProductIngestionSagaConfigurationProperties;
+import com.backbase.stream.product.service.ArrangementService;
+import com.backbase.stream.product.task.BatchProductGroupTask;
+import com.backbase.stream.service.AccessGroupService;
+import com.backbase.stream.service.UserService;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class BatchProductIngestionSagaTest {
+
+    @Mock
+    private ArrangementService arrangementService;
+
+    @Mock
+    private AccessGroupService accessGroupService;
+
+    @Mock
+    private UserService userService;
+
+    @Test
+    void upsertArrangementsBatchAssignsInternalIdsIgnoringCase() {
+        BatchProductIngestionSaga saga = new BatchProductIngestionSaga(arrangementService, accessGroupService,
+            userService, new ProductIngestionSagaConfigurationProperties());
+        BaseProduct first = new CurrentAccount().externalId("ACC-1");
+        BaseProduct second = new CurrentAccount().externalId("acc-2");
+        BaseProduct third = new CurrentAccount().externalId("acc-3");
+        BaseProductGroup productGroup = new BaseProductGroup()
+            .name("pg")
+            .users(singletonList(new JobProfileUser().legalEntityReference(new LegalEntityReference().externalId("le"))))
+            .currentAccounts(asList((CurrentAccount) first, (CurrentAccount) second, (CurrentAccount) third));
+        BatchProductGroupTask task = new BatchProductGroupTask("task",
+            new BatchProductGroup().productGroups(singletonList(productGroup)));
+
+        when(arrangementService.upsertBatchArrangements(any())).thenReturn(Flux.just(
+            response("acc-1", "internal-1"), response("ACC-2", "internal-2")));
+
+        StepVerifier.create(saga.upsertArrangementsBatch(task))
+            .expectNext(task)
+            .verifyComplete();
+
+        List<CurrentAccount> products = productGroup.getCurrentAccounts();
+        assertEquals("internal-1", products.get(0).getInternalId());
+        assertEquals("internal-2", products.get(1).getInternalId());
+        assertNull(products.get(2).getInternalId());
+        verify(arrangementService, times(1)).upsertBatchArrangements(any());
+    }
+
+    @Test
+    void upsertArrangementsBatchUpsertsParentsBeforeChildren() {
+        ProductIngestionSagaConfigurationProperties properties = new ProductIngestionSagaConfigurationProperties();
+        properties.setArrangementBatchSize(1);
+        properties.setArrangementBatchConcurrency(2);
+        BatchProductIngestionSaga saga = new BatchProductIngestionSaga(arrangementService, accessGroupService,
+            userService, properties);
+        BaseProductGroup productGroup = new BaseProductGroup()
+            .name("pg")
+            .users(singletonList(new JobProfileUser().legalEntityReference(new LegalEntityReference().externalId("le"))))
+            .currentAccounts(asList(
+                (CurrentAccount) new CurrentAccount().externalId("child").externalParentId("parent"),
+                (CurrentAccount) new CurrentAccount().externalId("parent"),
+                (CurrentAccount) new CurrentAccount().externalId("other")));
+        BatchProductGroupTask task = new BatchProductGroupTask("task",
+            new BatchProductGroup().productGroups(singletonList(productGroup)));
+
+        when(arrangementService.upsertBatchArrangements(any())).thenAnswer(invocation -> Flux.fromIterable(
+            invocation.<List<AccountArrangementItemPost>>getArgument(0)).map(item ->
+            response(item.getExternalArrangementId(), "internal-" + item.getExternalArrangementId())));
+
+        StepVerifier.create(saga.upsertArrangementsBatch(task))
+            .expectNext(task)
+            .verifyComplete();
+
+        InOrder inOrder = inOrder(arrangementService);
+        inOrder.verify(arrangementService, times(2)).upsertBatchArrangements(argThat(batch ->
+            !batch.get(0).getExternalArrangementId().equals("child")));
+        inOrder.verify(arrangementService).upsertBatchArrangements(argThat(batch ->
+            batch.get(0).getExternalArrangementId().equals("child")));
+        assertEquals("internal-child", productGroup.getCurrentAccounts().get(0).getInternalId());
+    }
+
+    @Test
+    void upsertArrangementsBatchCapsBatchSizeAtDbsLimit() {
+        ProductIngestionSagaConfigurationProperties properties = new ProductIngestionSagaConfigurationProperties();
+        properties.setArrangementBatchSize(100);
+        BatchProductIngestionSaga saga = new BatchProductIngestionSaga(arrangementService, accessGroupService,
+            userService, properties);
+        BaseProductGroup productGroup = new BaseProductGroup()
+            .name("pg")
+            .users(singletonList(new JobProfileUser().legalEntityReference(new LegalEntityReference().externalId("le"))))
+            .currentAccounts(IntStream.range(0, 51)
+                .mapToObj(i -> (CurrentAccount) new CurrentAccount().externalId("acc-" + i))
+                .collect(Collectors.toList()));
+        BatchProductGroupTask task = new BatchProductGroupTask("task",
+            new BatchProductGroup().productGroups(singletonList(productGroup)));
+
+        when(arrangementService.upsertBatchArrangements(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(saga.upsertArrangementsBatch(task))
+            .expectNext(task)
+            .verifyComplete();
+
+        verify(arrangementService).upsertBatchArrangements(argThat(batch -> batch.size() == 50));
+        verify(arrangementService).upsertBatchArrangements(argThat(batch -> batch.size() == 1));
+    }
+
+    @Test
+    void groupByDependencyLevelOrdersAncestorsFirst() {
+        AccountArrangementItemPost grandChild = arrangement("grand-child", "child");
+        AccountArrangementItemPost child = arrangement("child", "root");
+        AccountArrangementItemPost root = arrangement("root", null);
+        AccountArrangementItemPost orphan = arrangement("orphan", "unknown");
+
+        List<List<AccountArrangementItemPost>> levels =
+            BatchProductIngestionSaga.groupByDependencyLevel(asList(grandChild, child, root, orphan));
+
+        assertEquals(asList(asList(root, orphan), singletonList(child), singletonList(grandChild)), levels);
+    }
+
+    @Test
+    void groupByDependencyLevelTerminatesOnCycles() {
+        AccountArrangementItemPost first = arrangement("first", "second");
+        AccountArrangementItemPost second = arrangement("second", "first");
+
+        List<List<AccountArrangementItemPost>> levels =
+            BatchProductIngestionSaga.groupByDependencyLevel(asList(first, second));
+
+        assertEquals(2, levels.stream().mapToInt(List::size).sum());
+    }
+
+    private AccountBatchResponseItemExtended response(String resourceId, String arrangementId) {
+        AccountBatchResponseItemExtended response = new AccountBatchResponseItemExtended();
+        response.setResourceId(resourceId);
+        response.setArrangementId(arrangementId);
+        return response;
+    }
+
+    private AccountArrangementItemPost arrangement(String externalId, String externalParentId) {
+        AccountArrangementItemPost arrangement = new AccountArrangementItemPost();
+        arrangement.setExternalArrangementId(externalId);
+        arrangement.setExternalParentId(externalParentId);
+        return arrangement;
+    }
+
+}
@@ -1,14 +1,24 @@
 package com.backbase.stream.webclient;
 
 import com.backbase.buildingblocks.webclient.InterServiceWebClientCustomizer;
+import com.backbase.stream.webclient.configuration.DbsBaseUrls;
 import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties;
+import com.backbase.stream.webclient.connector.DbsClientHttpConnectors;
+import com.backbase.stream.webclient.connector.RoutingClientHttpConnector;
 import com.backbase.stream.webclient.filter.HeadersForwardingClientFilter;
+import com.backbase.stream.webclient.filter.DbsMetricsClientFilter;
+import com.backbase.stream.webclient.filter.DbsResilienceClientFilter;
 import com.backbase.stream.webclient.filter.HeadersForwardingServerFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 
 
 /**
@@ -47,4 +57,71 @@ public class DbsWebClientConfiguration {
         return webClientBuilder -> webClientBuilder.filter(new HeadersForwardingClientFilter(properties));
     }
 
+    /**
+     * Add customizer to the SSDK's Web Client to record metrics of requests to DBS. Requests are attributed to the base
+     * URLs configured under {@code backbase.stream.dbs}.
+     *
+     * @param properties
+     * @param meterRegistry
+     * @param environment
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(name = "backbase.stream.client.metrics.enabled", havingValue = "true",
+        matchIfMissing = true)
+    public InterServiceWebClientCustomizer metricsWebClientCustomizer(DbsWebClientConfigurationProperties properties,
+        ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        DbsMetricsClientFilter filter = new DbsMetricsClientFilter(
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+            DbsBaseUrls.resolve(environment).values(),
+            properties.getMetrics().isPercentileHistogram());
+        return webClientBuilder -> webClientBuilder.filter(filter);
+    }
+
+    /**
+     * Add customizer to the SSDK's Web Client to guard requests to each DBS service with a bulkhead and a circuit
+     * breaker.
+     *
+     * @param properties
+     * @param meterRegistry
+     * @param environment
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(name = "backbase.stream.client.resilience.enabled", havingValue = "true")
+    public InterServiceWebClientCustomizer resilienceWebClientCustomizer(DbsWebClientConfigurationProperties properties,
+        ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        DbsResilienceClientFilter filter = new DbsResilienceClientFilter(
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), properties.getResilience(),
+            DbsBaseUrls.resolve(environment));
+        return webClientBuilder -> webClientBuilder.filter(filter);
+    }
+
+    /**
+     * Connector with a dedicated connection pool per DBS service, so services with many concurrent requests do not
+     * starve requests to other services.
+     *
+     * @param properties
+     * @param environment
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(name = "backbase.stream.client.connection-pools.enabled", havingValue = "true")
+    public RoutingClientHttpConnector dbsClientHttpConnector(DbsWebClientConfigurationProperties properties,
+        Environment environment) {
+        return DbsClientHttpConnectors.create(properties.getConnectionPools(), DbsBaseUrls.resolve(environment));
+    }
+
+    /**
+     * Add customizer to the SSDK's Web Client to use the connection pools per DBS service.
+     *
+     * @param connector
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(name = "backbase.stream.client.connection-pools.enabled", havingValue = "true")
+    public InterServiceWebClientCustomizer connectionPoolsWebClientCustomizer(RoutingClientHttpConnector connector) {
+        return webClientBuilder -> webClientBuilder.clientConnector(connector);
+    }
+
 }
@@ -0,0 +1,89 @@
+package com.backbase.stream.webclient.coalescing;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces identical concurrent calls: subscribers executing a call for a key while a call for the same key is in
+ * flight share its outcome (value, empty or error) instead of sending another request. Nothing is kept once the call
+ * terminates, so the next subscriber always triggers a fresh call.
+ *
+ * <p>Calls are partitioned by the headers forwarded through the Reactor context, so requests on behalf of different
+ * callers (e.g. tenants) are never shared. The call runs with the context of the subscriber that started it and is not
+ * cancelled when its subscribers cancel.
+ *
+ * @param <K> Key type, identifying equal calls
+ */
+public class SingleFlight<K> {
+
+    private final Map<FlightKey, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Execute the call, or join the call in flight for the same key.
+     *
+     * @param key  Key identifying the call
+     * @param call Supplies the call to execute when none is in flight
+     * @param <V>  Result type, the same for every call with the same key
+     * @return Outcome of the call
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> execute(K key, Supplier<? extends Mono<V>> call) {
+        return Mono.deferContextual(context -> {
+            FlightKey flightKey = new FlightKey(key, context.getOrDefault(CONTEXT_KEY_FORWARDED_HEADERS, null));
+            return (Mono<V>) inFlight.computeIfAbsent(flightKey, k -> flight(k, call));
+        });
+    }
+
+    /**
+     * Number of calls in flight.
+     *
+     * @return Calls in flight
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private <V> Mono<V> flight(FlightKey key, Supplier<? extends Mono<V>> call) {
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        Mono<V> flight = Mono.<V>defer(call)
+            .doFinally(signal -> inFlight.remove(key, self.get()))
+            .cache();
+        self.set(flight);
+        return flight;
+    }
+
+    private static final class FlightKey {
+
+        private final Object key;
+        private final Object scope;
+
+        private FlightKey(Object key, Object scope) {
+            this.key = key;
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey that = (FlightKey) o;
+            return Objects.equals(key, that.key) && Objects.equals(scope, that.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, scope);
+        }
+    }
+
+}
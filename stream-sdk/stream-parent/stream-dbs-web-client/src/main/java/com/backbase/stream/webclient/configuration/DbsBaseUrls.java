@@ -0,0 +1,53 @@
+package com.backbase.stream.webclient.configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+/**
+ * Base URLs of DBS services configured as {@code backbase.stream.dbs.<service>-base-url}, the properties of
+ * {@code BackbaseStreamConfigurationProperties.DbsConnectionProperties}. Read from the environment, so this module does
+ * not depend on the services' configuration. Services without a configured base URL use the defaults of
+ * {@code DbsConnectionProperties}, which must be kept in sync.
+ */
+public final class DbsBaseUrls {
+
+    private static final String PREFIX = "backbase.stream.dbs";
+    private static final String SUFFIX = "-base-url";
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+        "access-control", "http://access-control:8080",
+        "arrangement-manager", "http://arrangement-manager:8080",
+        "transaction-manager", "http://transaction-manager:8080",
+        "limits-manager", "http://limit:8080",
+        "user-manager", "http://user-manager:8080",
+        "user-profile-manager", "http://user-profile-manager:8080",
+        "approvals", "http://approval-service:8080",
+        "portfolio", "http://portfolio:8080",
+        "contact-manager", "http://contact-manager:8080");
+
+    private DbsBaseUrls() {
+    }
+
+    /**
+     * Resolve DBS base URLs, falling back to the default base URL of each service that is not configured.
+     * @param environment The environment
+     * @return Base URL by service name, e.g. {@code access-control}
+     */
+    public static Map<String, String> resolve(Environment environment) {
+        Map<String, String> properties = Binder.get(environment)
+            .bind(PREFIX, Bindable.mapOf(String.class, String.class))
+            .orElse(Map.of());
+        Map<String, String> baseUrls = new LinkedHashMap<>(DEFAULTS);
+        properties.forEach((key, value) -> {
+            String name = key.replaceAll("([a-z0-9])([A-Z])", "$1-$2").toLowerCase();
+            if (name.endsWith(SUFFIX) && value != null && !value.isEmpty()) {
+                baseUrls.put(name.substring(0, name.length() - SUFFIX.length()), value);
+            }
+        });
+        return baseUrls;
+    }
+
+}
@@ -2,13 +2,16 @@ package com.backbase.stream.webclient.configuration;
 
 import static java.util.Arrays.asList;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.MultiValueMap;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -26,4 +29,261 @@ public class DbsWebClientConfigurationProperties {
      */
     private List<String> headersToForward = asList("X-TID");
 
+    /**
+     * Metrics of requests to DBS services.
+     */
+    private MetricsProperties metrics = new MetricsProperties();
+
+    /**
+     * Dedicated Reactor Netty connection pools per DBS service.
+     */
+    private ConnectionPoolsProperties connectionPools = new ConnectionPoolsProperties();
+
+    /**
+     * Bulkhead and circuit breaker per DBS service.
+     */
+    private ResilienceProperties resilience = new ResilienceProperties();
+
+    @Data
+    @NoArgsConstructor
+    public static class MetricsProperties {
+
+        /**
+         * Record latency, status and in-flight metrics of requests to DBS services.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Publish a percentile histogram of the request latency.
+         */
+        private boolean percentileHistogram = true;
+
+    }
+
+
+    @Data
+    @NoArgsConstructor
+    public static class ConnectionPoolsProperties {
+
+        /**
+         * Route requests to DBS services through dedicated connection pools instead of the shared connector of the
+         * inter-service Web Client.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Settings of the pool for requests that do not match a service, and defaults for service pools.
+         */
+        private ConnectionPoolProperties defaults = ConnectionPoolProperties.defaultSettings();
+
+        /**
+         * Pools by service name, e.g. {@code access-control} for {@code backbase.stream.dbs.access-control-base-url}.
+         * Unset settings are taken from the defaults.
+         */
+        private Map<String, ConnectionPoolProperties> services = new LinkedHashMap<>();
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class ConnectionPoolProperties {
+
+        /**
+         * Base URL of the service. Defaults to {@code backbase.stream.dbs.<service>-base-url}.
+         */
+        private String baseUrl;
+
+        /**
+         * Maximum number of connections.
+         */
+        private Integer maxConnections;
+
+        /**
+         * Maximum number of requests waiting for a connection. No limit when -1.
+         */
+        private Integer pendingAcquireMaxCount;
+
+        /**
+         * Maximum time to wait for a connection.
+         */
+        private Duration pendingAcquireTimeout;
+
+        /**
+         * Time after which an idle connection is closed.
+         */
+        private Duration maxIdleTime;
+
+        /**
+         * Time after which a connection is closed once it is released. Unlimited when not set.
+         */
+        private Duration maxLifeTime;
+
+        /**
+         * Interval of the background eviction of idle and expired connections. Disabled when not set.
+         */
+        private Duration evictionInterval;
+
+        /**
+         * Keep connections alive between requests.
+         */
+        private Boolean keepAlive;
+
+        /**
+         * Negotiate HTTP/2, using h2c for plain HTTP services.
+         */
+        private Boolean http2;
+
+        /**
+         * Accept gzip compressed responses.
+         */
+        private Boolean compressResponses;
+
+        /**
+         * Gzip request bodies of at least 1 KiB. Only enable for services that accept compressed requests.
+         */
+        private Boolean compressRequests;
+
+        static ConnectionPoolProperties defaultSettings() {
+            ConnectionPoolProperties defaults = new ConnectionPoolProperties();
+            defaults.setMaxConnections(100);
+            defaults.setPendingAcquireMaxCount(1000);
+            defaults.setPendingAcquireTimeout(Duration.ofSeconds(45));
+            defaults.setMaxIdleTime(Duration.ofSeconds(30));
+            defaults.setEvictionInterval(Duration.ofSeconds(30));
+            defaults.setKeepAlive(true);
+            defaults.setHttp2(false);
+            defaults.setCompressResponses(false);
+            defaults.setCompressRequests(false);
+            return defaults;
+        }
+
+        /**
+         * Settings of this pool, with unset settings taken from the defaults.
+         * @param defaults The defaults
+         * @return Merged settings
+         */
+        public ConnectionPoolProperties withDefaults(ConnectionPoolProperties defaults) {
+            ConnectionPoolProperties merged = new ConnectionPoolProperties();
+            merged.setBaseUrl(baseUrl);
+            merged.setMaxConnections(maxConnections != null ? maxConnections : defaults.getMaxConnections());
+            merged.setPendingAcquireMaxCount(pendingAcquireMaxCount != null
+                ? pendingAcquireMaxCount : defaults.getPendingAcquireMaxCount());
+            merged.setPendingAcquireTimeout(pendingAcquireTimeout != null
+                ? pendingAcquireTimeout : defaults.getPendingAcquireTimeout());
+            merged.setMaxIdleTime(maxIdleTime != null ? maxIdleTime : defaults.getMaxIdleTime());
+            merged.setMaxLifeTime(maxLifeTime != null ? maxLifeTime : defaults.getMaxLifeTime());
+            merged.setEvictionInterval(evictionInterval != null ? evictionInterval : defaults.getEvictionInterval());
+            merged.setKeepAlive(keepAlive != null ? keepAlive : defaults.getKeepAlive());
+            merged.setHttp2(http2 != null ? http2 : defaults.getHttp2());
+            merged.setCompressResponses(compressResponses != null
+                ? compressResponses : defaults.getCompressResponses());
+            merged.setCompressRequests(compressRequests != null ? compressRequests : defaults.getCompressRequests());
+            return merged;
+        }
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class ResilienceProperties {
+
+        /**
+         * Guard requests to each DBS service with a bulkhead and a circuit breaker.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Settings for services without specific settings, and defaults for service settings.
+         */
+        private ServiceResilienceProperties defaults = ServiceResilienceProperties.defaultSettings();
+
+        /**
+         * Settings by service name, e.g. {@code user-manager} for {@code backbase.stream.dbs.user-manager-base-url}.
+         * Unset settings are taken from the defaults.
+         */
+        private Map<String, ServiceResilienceProperties> services = new LinkedHashMap<>();
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class ServiceResilienceProperties {
+
+        /**
+         * Base URL of the service. Defaults to {@code backbase.stream.dbs.<service>-base-url}.
+         */
+        private String baseUrl;
+
+        /**
+         * Maximum number of concurrent requests.
+         */
+        private Integer maxConcurrentCalls;
+
+        /**
+         * Maximum time a request waits for the bulkhead. Rejected immediately when zero.
+         */
+        private Duration maxWaitDuration;
+
+        /**
+         * Percentage of failed requests (5xx responses and connection errors) at which the circuit breaker opens.
+         */
+        private Integer failureRateThreshold;
+
+        /**
+         * Minimum number of requests before the failure rate is evaluated.
+         */
+        private Integer minimumCalls;
+
+        /**
+         * Number of most recent requests the failure rate is calculated over.
+         */
+        private Integer slidingWindowSize;
+
+        /**
+         * Time the circuit breaker rejects requests before letting trial requests through.
+         */
+        private Duration waitDurationInOpenState;
+
+        /**
+         * Number of trial requests that must succeed to close the circuit breaker.
+         */
+        private Integer permittedCallsInHalfOpenState;
+
+        static ServiceResilienceProperties defaultSettings() {
+            ServiceResilienceProperties defaults = new ServiceResilienceProperties();
+            defaults.setMaxConcurrentCalls(100);
+            defaults.setMaxWaitDuration(Duration.ofSeconds(10));
+            defaults.setFailureRateThreshold(50);
+            defaults.setMinimumCalls(20);
+            defaults.setSlidingWindowSize(100);
+            defaults.setWaitDurationInOpenState(Duration.ofSeconds(30));
+            defaults.setPermittedCallsInHalfOpenState(5);
+            return defaults;
+        }
+
+        /**
+         * Settings of this service, with unset settings taken from the defaults.
+         * @param defaults The defaults
+         * @return Merged settings
+         */
+        public ServiceResilienceProperties withDefaults(ServiceResilienceProperties defaults) {
+            ServiceResilienceProperties merged = new ServiceResilienceProperties();
+            merged.setBaseUrl(baseUrl);
+            merged.setMaxConcurrentCalls(maxConcurrentCalls != null
+                ? maxConcurrentCalls : defaults.getMaxConcurrentCalls());
+            merged.setMaxWaitDuration(maxWaitDuration != null ? maxWaitDuration : defaults.getMaxWaitDuration());
+            merged.setFailureRateThreshold(failureRateThreshold != null
+                ? failureRateThreshold : defaults.getFailureRateThreshold());
+            merged.setMinimumCalls(minimumCalls != null ? minimumCalls : defaults.getMinimumCalls());
+            merged.setSlidingWindowSize(slidingWindowSize != null
+                ? slidingWindowSize : defaults.getSlidingWindowSize());
+            merged.setWaitDurationInOpenState(waitDurationInOpenState != null
+                ? waitDurationInOpenState : defaults.getWaitDurationInOpenState());
+            merged.setPermittedCallsInHalfOpenState(permittedCallsInHalfOpenState != null
+                ? permittedCallsInHalfOpenState : defaults.getPermittedCallsInHalfOpenState());
+            return merged;
+        }
+
+    }
+
 }
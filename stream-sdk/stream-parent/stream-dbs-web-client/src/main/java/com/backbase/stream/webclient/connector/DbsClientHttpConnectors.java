@@ -0,0 +1,91 @@
+package com.backbase.stream.webclient.connector;
+
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties.ConnectionPoolProperties;
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties.ConnectionPoolsProperties;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.Disposable;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Creates Reactor Netty connectors with a dedicated connection pool per DBS service.
+ */
+@Slf4j
+public final class DbsClientHttpConnectors {
+
+    private static final String POOL_PREFIX = "dbs-";
+
+    private DbsClientHttpConnectors() {
+    }
+
+    /**
+     * Create a connector routing requests to a connection pool per service.
+     * @param properties Connection pool configuration
+     * @param baseUrls Configured base URLs by service name
+     * @return Routing connector
+     */
+    public static RoutingClientHttpConnector create(ConnectionPoolsProperties properties,
+        Map<String, String> baseUrls) {
+        List<Disposable> resources = new ArrayList<>();
+        Map<String, ClientHttpConnector> connectors = new LinkedHashMap<>();
+        properties.getServices().forEach((service, pool) -> {
+            ConnectionPoolProperties settings = pool.withDefaults(properties.getDefaults());
+            String baseUrl = settings.getBaseUrl() != null ? settings.getBaseUrl() : baseUrls.get(service);
+            if (baseUrl == null) {
+                log.warn("No base URL for connection pool of service: {}. Set base-url or "
+                    + "backbase.stream.dbs.{}-base-url", service, service);
+                return;
+            }
+            log.info("Creating connection pool for service: {} with base URL: {}", service, baseUrl);
+            connectors.put(baseUrl, connector(POOL_PREFIX + service, baseUrl, settings, resources));
+        });
+        ClientHttpConnector fallback = connector(POOL_PREFIX + "default", null,
+            properties.getDefaults(), resources);
+        return new RoutingClientHttpConnector(connectors, fallback, resources);
+    }
+
+    private static ClientHttpConnector connector(String name, String baseUrl, ConnectionPoolProperties settings,
+        List<Disposable> resources) {
+        ConnectionProvider.Builder pool = ConnectionProvider.builder(name)
+            .maxConnections(settings.getMaxConnections())
+            .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+            .metrics(true);
+        if (settings.getPendingAcquireTimeout() != null) {
+            pool.pendingAcquireTimeout(settings.getPendingAcquireTimeout());
+        }
+        if (settings.getMaxIdleTime() != null) {
+            pool.maxIdleTime(settings.getMaxIdleTime());
+        }
+        if (settings.getMaxLifeTime() != null) {
+            pool.maxLifeTime(settings.getMaxLifeTime());
+        }
+        if (settings.getEvictionInterval() != null) {
+            pool.evictInBackground(settings.getEvictionInterval());
+        }
+        ConnectionProvider connectionProvider = pool.build();
+        resources.add(connectionProvider);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .keepAlive(settings.getKeepAlive())
+            .compress(settings.getCompressResponses());
+        if (Boolean.TRUE.equals(settings.getHttp2())) {
+            httpClient = baseUrl != null && baseUrl.startsWith("https")
+                ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        ReactorClientHttpConnector connector = new ReactorClientHttpConnector(httpClient);
+        if (Boolean.TRUE.equals(settings.getCompressRequests())) {
+            return (method, uri, requestCallback) -> connector.connect(method, uri,
+                request -> requestCallback.apply(new GzipClientHttpRequest(request)));
+        }
+        return connector;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.backbase.stream.webclient.connector;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client HTTP Request that gzips its body when it is at least {@link #MIN_SIZE} bytes. Streaming writes through
+ * {@code writeAndFlushWith} are sent as is.
+ */
+class GzipClientHttpRequest extends ClientHttpRequestDecorator {
+
+    static final int MIN_SIZE = 1024;
+
+    GzipClientHttpRequest(ClientHttpRequest delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return super.writeWith(body);
+        }
+        return DataBufferUtils.join(body)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(joined -> {
+                if (joined.isEmpty()) {
+                    return super.writeWith(Flux.empty());
+                }
+                DataBuffer buffer = joined.get();
+                if (buffer.readableByteCount() < MIN_SIZE) {
+                    return super.writeWith(Mono.just(buffer));
+                }
+                byte[] compressed;
+                try {
+                    compressed = gzip(buffer);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+                getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                getHeaders().setContentLength(compressed.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+            });
+    }
+
+    private static byte[] gzip(DataBuffer buffer) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(buffer.readableByteCount() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+}
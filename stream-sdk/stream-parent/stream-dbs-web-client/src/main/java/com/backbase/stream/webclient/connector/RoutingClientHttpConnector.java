@@ -0,0 +1,80 @@
+package com.backbase.stream.webclient.connector;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client HTTP Connector that routes each request to the connector of the longest base URL it starts with, or to the
+ * fallback connector when no base URL matches.
+ */
+@Slf4j
+public class RoutingClientHttpConnector implements ClientHttpConnector, AutoCloseable {
+
+    private final List<Map.Entry<String, ClientHttpConnector>> routes;
+    private final ClientHttpConnector fallback;
+    private final List<Disposable> resources;
+
+    /**
+     * Create Routing Connector.
+     * @param connectors Connectors by base URL
+     * @param fallback Connector for requests that do not match a base URL
+     * @param resources Resources, like connection providers, disposed on {@link #close()}
+     */
+    public RoutingClientHttpConnector(Map<String, ClientHttpConnector> connectors, ClientHttpConnector fallback,
+        List<Disposable> resources) {
+        Map<String, ClientHttpConnector> trimmed = new LinkedHashMap<>();
+        connectors.forEach((baseUrl, connector) -> trimmed.put(trimTrailingSlash(baseUrl), connector));
+        this.routes = trimmed.entrySet().stream()
+            .sorted(Comparator.comparingInt((Map.Entry<String, ClientHttpConnector> route) -> route.getKey().length())
+                .reversed())
+            .collect(Collectors.toList());
+        this.fallback = fallback;
+        this.resources = resources;
+    }
+
+    @Override
+    public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+        Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+        return route(uri).connect(method, uri, requestCallback);
+    }
+
+    ClientHttpConnector route(URI uri) {
+        String url = uri.toString();
+        for (Map.Entry<String, ClientHttpConnector> route : routes) {
+            String baseUrl = route.getKey();
+            if (url.startsWith(baseUrl)
+                && (url.length() == baseUrl.length() || "/?".indexOf(url.charAt(baseUrl.length())) >= 0)) {
+                return route.getValue();
+            }
+        }
+        return fallback;
+    }
+
+    @Override
+    public void close() {
+        resources.forEach(resource -> {
+            try {
+                resource.dispose();
+            } catch (RuntimeException e) {
+                log.warn("Failed to dispose connection resource: {}", e.getMessage());
+            }
+        });
+    }
+
+    private static String trimTrailingSlash(String baseUrl) {
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+}
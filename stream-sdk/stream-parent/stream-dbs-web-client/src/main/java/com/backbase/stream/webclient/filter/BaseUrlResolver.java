@@ -0,0 +1,48 @@
+package com.backbase.stream.webclient.filter;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the base URL of a request: the longest configured base URL the request starts with, or the scheme, host and
+ * port of the request otherwise.
+ */
+class BaseUrlResolver {
+
+    private final List<String> baseUrls;
+
+    BaseUrlResolver(Collection<String> baseUrls) {
+        this.baseUrls = baseUrls.stream()
+            .filter(baseUrl -> baseUrl != null && !baseUrl.isEmpty())
+            .map(BaseUrlResolver::trimTrailingSlash)
+            .distinct()
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .collect(Collectors.toList());
+    }
+
+    String resolve(URI uri) {
+        return resolve(uri, uri.toString());
+    }
+
+    String resolve(URI uri, String url) {
+        for (String baseUrl : baseUrls) {
+            if (url.startsWith(baseUrl) && (url.length() == baseUrl.length() || isPathBoundary(url, baseUrl.length()))) {
+                return baseUrl;
+            }
+        }
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    private static boolean isPathBoundary(String url, int index) {
+        char next = url.charAt(index);
+        return next == '/' || next == '?';
+    }
+
+    private static String trimTrailingSlash(String baseUrl) {
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.backbase.stream.webclient.filter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Records metrics of requests to DBS services.
+ *
+ * <ul>
+ *     <li>{@code stream.dbs.client.requests}: Timer with percentile histogram of the time until the response status
+ *     is received, tagged by {@code method}, {@code uri} template, {@code base-url}, {@code status} and
+ *     {@code outcome}. Its count is the number of requests per status.</li>
+ *     <li>{@code stream.dbs.client.active}: Requests in flight, tagged by {@code base-url}</li>
+ * </ul>
+ *
+ * <p>The {@code base-url} is the longest configured DBS base URL the request starts with, or the scheme, host and port
+ * of the request otherwise. The {@code uri} is the template the request was built from, relative to the base URL and
+ * without query, or the path with numeric and UUID segments replaced when no template is available.</p>
+ */
+@Slf4j
+public class DbsMetricsClientFilter implements ExchangeFilterFunction {
+
+    public static final String REQUESTS_METRIC = "stream.dbs.client.requests";
+    public static final String ACTIVE_METRIC = "stream.dbs.client.active";
+
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+        "/(\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-fA-F]{32})(?=/|$)");
+
+    private final MeterRegistry registry;
+    private final BaseUrlResolver baseUrlResolver;
+    private final boolean percentileHistogram;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    /**
+     * Create DBS metrics filter.
+     * @param registry Registry to record metrics in
+     * @param baseUrls Base URLs of the DBS services
+     * @param percentileHistogram Publish a percentile histogram of the request latency
+     */
+    public DbsMetricsClientFilter(MeterRegistry registry, Collection<String> baseUrls, boolean percentileHistogram) {
+        this.registry = registry;
+        this.baseUrlResolver = new BaseUrlResolver(baseUrls);
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            String url = request.url().toString();
+            String baseUrl = baseUrlResolver.resolve(request.url(), url);
+            String uri = resolveUriTemplate(request, baseUrl, url);
+            AtomicInteger inFlight = active.computeIfAbsent(baseUrl, this::registerActiveGauge);
+            inFlight.incrementAndGet();
+            long startedAt = System.nanoTime();
+            String[] status = new String[]{"IO_ERROR"};
+            return next.exchange(request)
+                .doOnNext(response -> status[0] = String.valueOf(response.rawStatusCode()))
+                .doFinally(signalType -> {
+                    inFlight.decrementAndGet();
+                    String statusTag = signalType == SignalType.CANCEL ? "CANCELLED" : status[0];
+                    record(request.method().name(), uri, baseUrl, statusTag, System.nanoTime() - startedAt);
+                });
+        });
+    }
+
+    private void record(String method, String uri, String baseUrl, String status, long durationNanos) {
+        Timer.builder(REQUESTS_METRIC)
+            .tags(Tags.of("method", method, "uri", uri, "base-url", baseUrl, "status", status,
+                "outcome", outcome(status)))
+            .description("Requests to DBS services")
+            .publishPercentileHistogram(percentileHistogram)
+            .register(registry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private AtomicInteger registerActiveGauge(String baseUrl) {
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder(ACTIVE_METRIC, inFlight, AtomicInteger::get)
+            .tags("base-url", baseUrl)
+            .description("Requests to DBS services in flight")
+            .strongReference(true)
+            .register(registry);
+        return inFlight;
+    }
+
+    private String resolveUriTemplate(ClientRequest request, String baseUrl, String url) {
+        Object template = request.attribute(URI_TEMPLATE_ATTRIBUTE).orElse(null);
+        String path;
+        if (template instanceof String) {
+            path = (String) template;
+            if (path.startsWith(baseUrl)) {
+                path = path.substring(baseUrl.length());
+            }
+            int query = path.indexOf('?');
+            if (query >= 0) {
+                path = path.substring(0, query);
+            }
+        } else {
+            path = url.startsWith(baseUrl) ? url.substring(baseUrl.length()) : request.url().getRawPath();
+            int query = path.indexOf('?');
+            if (query >= 0) {
+                path = path.substring(0, query);
+            }
+            path = ID_SEGMENT.matcher(path).replaceAll("/{id}");
+        }
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private static String outcome(String status) {
+        if (status.length() != 3 || !Character.isDigit(status.charAt(0))) {
+            return "UNKNOWN";
+        }
+        switch (status.charAt(0)) {
+            case '1':
+                return "INFORMATIONAL";
+            case '2':
+                return "SUCCESS";
+            case '3':
+                return "REDIRECTION";
+            case '4':
+                return "CLIENT_ERROR";
+            case '5':
+                return "SERVER_ERROR";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+}
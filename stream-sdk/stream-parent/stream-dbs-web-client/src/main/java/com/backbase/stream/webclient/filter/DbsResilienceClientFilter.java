@@ -0,0 +1,169 @@
+package com.backbase.stream.webclient.filter;
+
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties.ResilienceProperties;
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties.ServiceResilienceProperties;
+import com.backbase.stream.webclient.resilience.Bulkhead;
+import com.backbase.stream.webclient.resilience.CircuitBreaker;
+import com.backbase.stream.webclient.resilience.DbsCallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards requests to each DBS service with a circuit breaker and a bulkhead, so one slow or failing service does not
+ * hold the connections and threads needed by requests to other services. Rejected requests fail with
+ * {@link DbsCallNotPermittedException} without being sent.
+ *
+ * <ul>
+ *     <li>{@code stream.dbs.client.circuit-breaker.state}: 0 closed, 1 open, 2 half open</li>
+ *     <li>{@code stream.dbs.client.circuit-breaker.failure-rate}: Failure rate in percent, -1 until evaluated</li>
+ *     <li>{@code stream.dbs.client.bulkhead.available}: Available concurrent calls</li>
+ *     <li>{@code stream.dbs.client.bulkhead.queued}: Requests waiting for the bulkhead</li>
+ *     <li>{@code stream.dbs.client.not-permitted}: Rejected requests, tagged by {@code reason}</li>
+ * </ul>
+ *
+ * <p>All meters are tagged by {@code base-url}.</p>
+ */
+@Slf4j
+public class DbsResilienceClientFilter implements ExchangeFilterFunction {
+
+    private final MeterRegistry registry;
+    private final ServiceResilienceProperties defaults;
+    private final Map<String, ServiceResilienceProperties> settingsByBaseUrl = new ConcurrentHashMap<>();
+    private final BaseUrlResolver baseUrlResolver;
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    /**
+     * Create DBS resilience filter.
+     * @param registry Registry to record metrics in
+     * @param properties Resilience configuration
+     * @param baseUrls Configured base URLs by service name
+     */
+    public DbsResilienceClientFilter(MeterRegistry registry, ResilienceProperties properties,
+        Map<String, String> baseUrls) {
+        this.registry = registry;
+        this.defaults = properties.getDefaults();
+        List<String> knownBaseUrls = new ArrayList<>(baseUrls.values());
+        properties.getServices().forEach((service, settings) -> {
+            String baseUrl = settings.getBaseUrl() != null ? settings.getBaseUrl() : baseUrls.get(service);
+            if (baseUrl == null) {
+                log.warn("No base URL for resilience settings of service: {}. Set base-url or "
+                    + "backbase.stream.dbs.{}-base-url", service, service);
+                return;
+            }
+            knownBaseUrls.add(baseUrl);
+            settingsByBaseUrl.put(trimTrailingSlash(baseUrl), settings.withDefaults(defaults));
+        });
+        this.baseUrlResolver = new BaseUrlResolver(knownBaseUrls);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            String baseUrl = baseUrlResolver.resolve(request.url());
+            Guard guard = guards.computeIfAbsent(baseUrl, this::createGuard);
+            CircuitBreaker circuitBreaker = guard.circuitBreaker;
+            if (!circuitBreaker.tryAcquirePermission()) {
+                guard.circuitBreakerRejections.increment();
+                return Mono.error(new DbsCallNotPermittedException("Circuit breaker open for: " + baseUrl, baseUrl,
+                    circuitBreaker.getRemainingOpenDuration()));
+            }
+            return guard.bulkhead.acquire(() -> {
+                    circuitBreaker.onIgnored();
+                    guard.bulkheadRejections.increment();
+                    return new DbsCallNotPermittedException("Bulkhead full for: " + baseUrl, baseUrl,
+                        Duration.ZERO);
+                })
+                .then(Mono.defer(() -> exchange(request, next, guard)));
+        });
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, Guard guard) {
+        AtomicBoolean recorded = new AtomicBoolean();
+        return next.exchange(request)
+            .doOnNext(response -> {
+                recorded.set(true);
+                if (response.rawStatusCode() >= 500) {
+                    guard.circuitBreaker.onFailure();
+                } else {
+                    guard.circuitBreaker.onSuccess();
+                }
+            })
+            .doOnError(throwable -> {
+                recorded.set(true);
+                guard.circuitBreaker.onFailure();
+            })
+            .doFinally(signalType -> {
+                if (!recorded.get()) {
+                    guard.circuitBreaker.onIgnored();
+                }
+                guard.bulkhead.release();
+            });
+    }
+
+    private Guard createGuard(String baseUrl) {
+        ServiceResilienceProperties settings = settingsByBaseUrl.getOrDefault(baseUrl, defaults);
+        Guard guard = new Guard(baseUrl, settings, registry);
+        Tags tags = Tags.of("base-url", baseUrl);
+        Gauge.builder("stream.dbs.client.circuit-breaker.state", guard.circuitBreaker,
+                circuitBreaker -> circuitBreaker.getState().ordinal())
+            .tags(tags)
+            .description("State of the circuit breaker: 0 closed, 1 open, 2 half open")
+            .strongReference(true)
+            .register(registry);
+        Gauge.builder("stream.dbs.client.circuit-breaker.failure-rate", guard.circuitBreaker,
+                CircuitBreaker::getFailureRate)
+            .tags(tags)
+            .description("Failure rate of requests in percent")
+            .strongReference(true)
+            .register(registry);
+        Gauge.builder("stream.dbs.client.bulkhead.available", guard.bulkhead, Bulkhead::getAvailablePermits)
+            .tags(tags)
+            .description("Available concurrent requests")
+            .strongReference(true)
+            .register(registry);
+        Gauge.builder("stream.dbs.client.bulkhead.queued", guard.bulkhead, Bulkhead::getQueued)
+            .tags(tags)
+            .description("Requests waiting for the bulkhead")
+            .strongReference(true)
+            .register(registry);
+        return guard;
+    }
+
+    private static String trimTrailingSlash(String baseUrl) {
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    private static class Guard {
+
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final Counter circuitBreakerRejections;
+        private final Counter bulkheadRejections;
+
+        private Guard(String baseUrl, ServiceResilienceProperties settings, MeterRegistry registry) {
+            this.circuitBreaker = new CircuitBreaker(baseUrl, settings.getFailureRateThreshold(),
+                settings.getMinimumCalls(), settings.getSlidingWindowSize(), settings.getWaitDurationInOpenState(),
+                settings.getPermittedCallsInHalfOpenState());
+            this.bulkhead = new Bulkhead(settings.getMaxConcurrentCalls(), settings.getMaxWaitDuration());
+            this.circuitBreakerRejections = registry.counter("stream.dbs.client.not-permitted",
+                "base-url", baseUrl, "reason", "circuit-breaker");
+            this.bulkheadRejections = registry.counter("stream.dbs.client.not-permitted",
+                "base-url", baseUrl, "reason", "bulkhead");
+        }
+    }
+
+}
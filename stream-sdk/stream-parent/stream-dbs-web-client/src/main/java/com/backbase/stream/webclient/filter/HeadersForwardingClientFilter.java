@@ -3,9 +3,9 @@ package com.backbase.stream.webclient.filter;
 import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
 
 import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties;
-import java.util.Optional;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
@@ -13,50 +13,51 @@ import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.ExchangeFunction;
 import reactor.core.publisher.Mono;
 
+/**
+ * Adds the configured additional headers and the headers forwarded through the Reactor context to requests. The
+ * additional headers are copied once into a read-only set, and a request is rebuilt at most once, only when there are
+ * headers to add.
+ */
 @Slf4j
-@AllArgsConstructor
 public class HeadersForwardingClientFilter implements ExchangeFilterFunction {
 
-    private final DbsWebClientConfigurationProperties properties;
+    private final HttpHeaders additionalHeaders;
+
+    public HeadersForwardingClientFilter(DbsWebClientConfigurationProperties properties) {
+        MultiValueMap<String, String> configured = properties.getAdditionalHeaders();
+        if (CollectionUtils.isEmpty(configured)) {
+            this.additionalHeaders = null;
+        } else {
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(configured);
+            this.additionalHeaders = HttpHeaders.readOnlyHttpHeaders(headers);
+        }
+    }
 
     @Override
     public Mono<ClientResponse> filter(ClientRequest originalRequest, ExchangeFunction next) {
-        ClientRequest additionalHeadersRequest = enrichRequestWithAdditionalHeaders(originalRequest);
-
-        return Mono.subscriberContext().flatMap(context -> {
-            Optional<MultiValueMap<String, String>> forwardHeaders = context.getOrEmpty(CONTEXT_KEY_FORWARDED_HEADERS);
-            log.debug("Context contains headers? {}", forwardHeaders.isPresent());
-            log.debug("Forwarded headers: {}", forwardHeaders.map(MultiValueMap::toString).orElse("none"));
-
-            ClientRequest forwardHeadersRequest = enrichRequestWithForwardedHeaders(additionalHeadersRequest,
-                forwardHeaders);
-
-            return next.exchange(forwardHeadersRequest);
+        return Mono.deferContextual(context -> {
+            MultiValueMap<String, String> forwardHeaders = context.getOrDefault(CONTEXT_KEY_FORWARDED_HEADERS, null);
+            boolean forward = !CollectionUtils.isEmpty(forwardHeaders);
+            if (additionalHeaders == null && !forward) {
+                return next.exchange(originalRequest);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Adding additional headers: {} from configuration and: {} from Reactive subscriber context "
+                    + "to Request: {}", additionalHeaders, forwardHeaders, originalRequest.url());
+            }
+            ClientRequest enrichedRequest = ClientRequest.from(originalRequest)
+                .headers(httpHeaders -> {
+                    if (additionalHeaders != null) {
+                        httpHeaders.addAll(additionalHeaders);
+                    }
+                    if (forward) {
+                        httpHeaders.addAll(forwardHeaders);
+                    }
+                })
+                .build();
+            return next.exchange(enrichedRequest);
         });
     }
 
-    private ClientRequest enrichRequestWithAdditionalHeaders(ClientRequest originalRequest) {
-        return Optional.ofNullable(properties.getAdditionalHeaders())
-            .map(additionalHeaders -> {
-                log.debug("Adding additional headers: {} from configuration to Request: {}", additionalHeaders,
-                    originalRequest.url());
-                return ClientRequest.from(originalRequest)
-                    .headers(httpHeaders -> httpHeaders.addAll(additionalHeaders))
-                    .build();
-            })
-            .orElse(originalRequest);
-    }
-
-    private ClientRequest enrichRequestWithForwardedHeaders(ClientRequest additionalHeadersRequest,
-        Optional<MultiValueMap<String, String>> forwardHeaders) {
-        return forwardHeaders.map(headers -> {
-                log.debug("Adding additional headers: {} from Reactive subscriber context to Request: {}", headers,
-                    additionalHeadersRequest.url());
-                return ClientRequest.from(additionalHeadersRequest)
-                    .headers(httpHeaders -> httpHeaders.addAll(headers))
-                    .build();
-            })
-            .orElse(additionalHeadersRequest);
-    }
-
 }
@@ -0,0 +1,113 @@
+package com.backbase.stream.webclient.resilience;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Non-blocking bulkhead limiting the number of concurrent calls. Calls beyond the limit wait in order for a permit, up
+ * to the maximum wait duration, after which they fail.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final Duration maxWaitDuration;
+    private final AtomicInteger availablePermits;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create Bulkhead.
+     * @param maxConcurrentCalls Maximum number of concurrent calls
+     * @param maxWaitDuration Maximum time a call waits for a permit. Calls fail immediately when zero
+     */
+    public Bulkhead(int maxConcurrentCalls, Duration maxWaitDuration) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitDuration = maxWaitDuration != null ? maxWaitDuration : Duration.ZERO;
+        this.availablePermits = new AtomicInteger(maxConcurrentCalls);
+    }
+
+    /**
+     * Acquire a permit, which must be released with {@link #release()}.
+     * @param rejection Error signalled when no permit becomes available in time
+     * @return Completes once a permit is acquired
+     */
+    public Mono<Void> acquire(Supplier<? extends Throwable> rejection) {
+        return Mono.defer(() -> {
+            if (waiters.isEmpty() && tryAcquire()) {
+                return Mono.empty();
+            }
+            if (maxWaitDuration.isZero() || maxWaitDuration.isNegative()) {
+                return Mono.error(rejection.get());
+            }
+            return Mono.<Boolean>create(sink -> {
+                    Waiter waiter = new Waiter(sink);
+                    sink.onCancel(() -> {
+                        if (waiter.done.compareAndSet(false, true)) {
+                            waiters.remove(waiter);
+                        } else {
+                            release();
+                        }
+                    });
+                    waiters.add(waiter);
+                    drain();
+                })
+                .timeout(maxWaitDuration, Mono.error(rejection))
+                .then();
+        });
+    }
+
+    public void release() {
+        availablePermits.incrementAndGet();
+        drain();
+    }
+
+    public int getAvailablePermits() {
+        return Math.max(0, availablePermits.get());
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getQueued() {
+        return waiters.size();
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.done.compareAndSet(false, true)) {
+                availablePermits.incrementAndGet();
+            } else {
+                waiter.sink.success(Boolean.TRUE);
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        int permits;
+        do {
+            permits = availablePermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+        } while (!availablePermits.compareAndSet(permits, permits - 1));
+        return true;
+    }
+
+    private static class Waiter {
+
+        private final MonoSink<Boolean> sink;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Waiter(MonoSink<Boolean> sink) {
+            this.sink = sink;
+        }
+    }
+
+}
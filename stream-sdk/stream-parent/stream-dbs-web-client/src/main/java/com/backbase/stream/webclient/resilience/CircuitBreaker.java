@@ -0,0 +1,169 @@
+package com.backbase.stream.webclient.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Count based circuit breaker. While {@link State#CLOSED} the outcome of the last {@code slidingWindowSize} calls is
+ * kept, and the breaker opens once at least {@code minimumCalls} were recorded and the failure rate reaches the
+ * threshold. After {@code waitDurationInOpenState} it lets {@code permittedCallsInHalfOpenState} trial calls through:
+ * it closes when all of them succeed and opens again on the first failure.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long waitNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final LongSupplier clock;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * Create Circuit Breaker.
+     * @param name Name used in logs
+     * @param failureRateThreshold Failure rate in percent at which the breaker opens
+     * @param minimumCalls Minimum number of recorded calls before the failure rate is evaluated
+     * @param slidingWindowSize Number of most recent calls the failure rate is calculated over
+     * @param waitDurationInOpenState Time the breaker stays open before trial calls are permitted
+     * @param permittedCallsInHalfOpenState Number of trial calls
+     */
+    public CircuitBreaker(String name, int failureRateThreshold, int minimumCalls, int slidingWindowSize,
+        Duration waitDurationInOpenState, int permittedCallsInHalfOpenState) {
+        this(name, failureRateThreshold, minimumCalls, slidingWindowSize, waitDurationInOpenState,
+            permittedCallsInHalfOpenState, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureRateThreshold, int minimumCalls, int slidingWindowSize,
+        Duration waitDurationInOpenState, int permittedCallsInHalfOpenState, LongSupplier clock) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[Math.max(1, slidingWindowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.waitNanos = waitDurationInOpenState.toNanos();
+        this.permittedCallsInHalfOpenState = Math.max(1, permittedCallsInHalfOpenState);
+        this.clock = clock;
+    }
+
+    /**
+     * Acquire permission for a call. A permitted call must report {@link #onSuccess()}, {@link #onFailure()} or
+     * {@link #onIgnored()}.
+     * @return True if the call is permitted
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < waitNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= permittedCallsInHalfOpenState) {
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenSuccesses++;
+            if (halfOpenSuccesses >= permittedCallsInHalfOpenState) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Release the permission of a call without recording an outcome, e.g. when it was cancelled.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Failure rate of the calls in the sliding window.
+     * @return Failure rate in percent, -1 while fewer than the minimum number of calls were recorded
+     */
+    public synchronized float getFailureRate() {
+        return windowCount < minimumCalls ? -1 : windowFailures * 100f / windowCount;
+    }
+
+    /**
+     * Time until trial calls are permitted.
+     * @return Remaining time in open state, zero when not open
+     */
+    public synchronized Duration getRemainingOpenDuration() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, waitNanos - (clock.getAsLong() - openedAt)));
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transitionTo(State newState) {
+        log.info("Circuit breaker: {} changed from: {} to: {}", name, state, newState);
+        state = newState;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAt = clock.getAsLong();
+        } else if (newState == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.backbase.stream.webclient.resilience;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Request to a DBS service rejected locally by its open circuit breaker or full bulkhead, without being sent. Surfaces
+ * as {@code 503 Service Unavailable} with a {@code Retry-After} header, so callers handle it as a retryable failure.
+ */
+public class DbsCallNotPermittedException extends WebClientResponseException {
+
+    private final String baseUrl;
+
+    /**
+     * Create exception.
+     * @param message Reason of the rejection
+     * @param baseUrl Base URL of the DBS service
+     * @param retryAfter Time after which the request may be permitted again
+     */
+    public DbsCallNotPermittedException(String message, String baseUrl, Duration retryAfter) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+            retryAfterHeaders(retryAfter), new byte[0], StandardCharsets.UTF_8);
+        this.baseUrl = baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    private static HttpHeaders retryAfterHeaders(Duration retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        long seconds = retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0);
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(0, seconds)));
+        return headers;
+    }
+
+}
@@ -0,0 +1 @@
+package com.backbase.stream.webclient.resilience;
\ No newline at end of file
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.backbase.buildingblocks.webclient.InterServiceWebClientConfiguration;
 import com.backbase.buildingblocks.webclient.WebClientConstants;
+import com.backbase.stream.webclient.connector.RoutingClientHttpConnector;
 import com.backbase.stream.webclient.filter.HeadersForwardingClientFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
@@ -36,6 +37,28 @@ public class DbsWebClientConfigurationTest {
             });
     }
 
+    @Test
+    public void shouldCreateConnectionPoolsWhenEnabledTest() {
+        contextRunner
+            .withBean(WebClientAutoConfiguration.class)
+            .withBean(InterServiceWebClientConfiguration.class)
+            .withUserConfiguration(DbsWebClientConfiguration.class)
+            .withPropertyValues(
+                "backbase.stream.client.connection-pools.enabled=true",
+                "backbase.stream.client.connection-pools.services.access-control.max-connections=10",
+                "backbase.stream.dbs.access-control-base-url=http://access-control:8080")
+            .run(context -> assertThat(context).hasSingleBean(RoutingClientHttpConnector.class));
+    }
+
+    @Test
+    public void shouldNotCreateConnectionPoolsByDefaultTest() {
+        contextRunner
+            .withBean(WebClientAutoConfiguration.class)
+            .withBean(InterServiceWebClientConfiguration.class)
+            .withUserConfiguration(DbsWebClientConfiguration.class)
+            .run(context -> assertThat(context).doesNotHaveBean(RoutingClientHttpConnector.class));
+    }
+
     @Test
     public void shouldCreateFallbackClientRegistrationWithOverriddenTokenUriTest() {
         contextRunner
@@ -0,0 +1,146 @@
+package com.backbase.stream.webclient.benchmark;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties;
+import com.backbase.stream.webclient.filter.HeadersForwardingClientFilter;
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Compares the allocation rate and latency of {@link HeadersForwardingClientFilter} with the previous implementation,
+ * which rebuilt the request once for the configured headers and once more for the forwarded headers, and logged
+ * unguarded. Not executed by the test suite; run {@link #main(String[])} from the test classpath, which attaches the
+ * GC profiler so {@code gc.alloc.rate.norm} shows the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeadersForwardingClientFilterBenchmark {
+
+    @Param({"true", "false"})
+    boolean forwardedHeaders;
+
+    private ClientRequest request;
+    private ExchangeFunction exchange;
+    private Context context;
+    private ExchangeFilterFunction legacyFilter;
+    private ExchangeFilterFunction filter;
+
+    @Setup
+    public void setUp() {
+        MultiValueMap<String, String> additionalHeaders = new LinkedMultiValueMap<>();
+        additionalHeaders.add("X-Stream-Source", "legal-entity-bootstrap");
+        additionalHeaders.add("X-Stream-Version", "2.87.0");
+        DbsWebClientConfigurationProperties properties = new DbsWebClientConfigurationProperties();
+        properties.setAdditionalHeaders(additionalHeaders);
+
+        MultiValueMap<String, String> forwarded = new LinkedMultiValueMap<>();
+        forwarded.add("X-TID", "tenant1");
+        forwarded.add("X-B3-TraceId", "463ac35c9f6413ad48485a3953bb6124");
+        context = forwardedHeaders ? Context.of(CONTEXT_KEY_FORWARDED_HEADERS, forwarded) : Context.empty();
+
+        request = ClientRequest.create(HttpMethod.GET,
+                URI.create("http://access-control:8080/service-api/v2/accessgroups/users/user-1"))
+            .header("Accept", "application/json")
+            .build();
+        Mono<ClientResponse> response = Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        exchange = clientRequest -> response;
+
+        legacyFilter = new LegacyHeadersForwardingClientFilter(properties);
+        filter = new HeadersForwardingClientFilter(properties);
+    }
+
+    @Benchmark
+    public ClientResponse legacy() {
+        return legacyFilter.filter(request, exchange).contextWrite(context).block();
+    }
+
+    @Benchmark
+    public ClientResponse singlePass() {
+        return filter.filter(request, exchange).contextWrite(context).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(HeadersForwardingClientFilterBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+
+    /**
+     * Filter as it was before headers were merged in a single pass, kept as the baseline.
+     */
+    static class LegacyHeadersForwardingClientFilter implements ExchangeFilterFunction {
+
+        private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(
+            LegacyHeadersForwardingClientFilter.class);
+
+        private final DbsWebClientConfigurationProperties properties;
+
+        LegacyHeadersForwardingClientFilter(DbsWebClientConfigurationProperties properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Mono<ClientResponse> filter(ClientRequest originalRequest, ExchangeFunction next) {
+            ClientRequest additionalHeadersRequest = Optional.ofNullable(properties.getAdditionalHeaders())
+                .map(additionalHeaders -> {
+                    log.debug("Adding additional headers: {} from configuration to Request: {}", additionalHeaders,
+                        originalRequest.url());
+                    return ClientRequest.from(originalRequest)
+                        .headers(httpHeaders -> httpHeaders.addAll(additionalHeaders))
+                        .build();
+                })
+                .orElse(originalRequest);
+
+            return Mono.subscriberContext().flatMap(context -> {
+                Optional<MultiValueMap<String, String>> forwardHeaders =
+                    context.getOrEmpty(CONTEXT_KEY_FORWARDED_HEADERS);
+                log.debug("Context contains headers? {}", forwardHeaders.isPresent());
+                log.debug("Forwarded headers: {}", forwardHeaders.map(MultiValueMap::toString).orElse("none"));
+
+                ClientRequest forwardHeadersRequest = forwardHeaders.map(headers -> {
+                        log.debug("Adding additional headers: {} from Reactive subscriber context to Request: {}",
+                            headers, additionalHeadersRequest.url());
+                        return ClientRequest.from(additionalHeadersRequest)
+                            .headers(httpHeaders -> httpHeaders.addAll(headers))
+                            .build();
+                    })
+                    .orElse(additionalHeadersRequest);
+                return next.exchange(forwardHeadersRequest);
+            });
+        }
+    }
+
+}
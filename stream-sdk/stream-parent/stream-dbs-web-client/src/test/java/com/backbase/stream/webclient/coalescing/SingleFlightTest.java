@@ -0,0 +1,100 @@
+package com.backbase.stream.webclient.coalescing;
+
+import static com.backbase.stream.webclient.DbsWebClientConfiguration.CONTEXT_KEY_FORWARDED_HEADERS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrentCallsForSameKeyShareOneCall() {
+        Sinks.One<String> response = Sinks.one();
+
+        StepVerifier.create(Mono.zip(call("key", response), call("key", response)))
+            .then(() -> {
+                assertEquals(1, singleFlight.getInFlight());
+                response.tryEmitValue("value");
+            })
+            .assertNext(values -> {
+                assertEquals("value", values.getT1());
+                assertEquals("value", values.getT2());
+            })
+            .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void completedCallIsNotReused() {
+        StepVerifier.create(call("key", Mono.just("first"))).expectNext("first").verifyComplete();
+        StepVerifier.create(call("key", Mono.just("second"))).expectNext("second").verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void differentKeysAreNotShared() {
+        Sinks.One<String> response = Sinks.one();
+
+        StepVerifier.create(Mono.zip(call("a", response), call("b", response)))
+            .then(() -> response.tryEmitValue("value"))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void callsForwardingDifferentHeadersAreNotShared() {
+        Sinks.One<String> response = Sinks.one();
+        MultiValueMap<String, String> tenant1 = new LinkedMultiValueMap<>();
+        tenant1.add("X-TID", "tenant1");
+        MultiValueMap<String, String> tenant2 = new LinkedMultiValueMap<>();
+        tenant2.add("X-TID", "tenant2");
+
+        StepVerifier.create(Mono.zip(
+                call("key", response).contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant1)),
+                call("key", response).contextWrite(Context.of(CONTEXT_KEY_FORWARDED_HEADERS, tenant2))))
+            .then(() -> response.tryEmitValue("value"))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void errorsAreSharedAndNotKept() {
+        Sinks.One<String> response = Sinks.one();
+
+        StepVerifier.create(Mono.zip(call("key", response), call("key", response)))
+            .then(() -> response.tryEmitError(new IllegalStateException("failed")))
+            .verifyErrorMessage("failed");
+        assertEquals(1, calls.get());
+
+        StepVerifier.create(call("key", Mono.just("value"))).expectNext("value").verifyComplete();
+        assertEquals(2, calls.get());
+    }
+
+    private Mono<String> call(String key, Sinks.One<String> response) {
+        return call(key, response.asMono());
+    }
+
+    private Mono<String> call(String key, Mono<String> response) {
+        return singleFlight.execute(key, () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+    }
+}
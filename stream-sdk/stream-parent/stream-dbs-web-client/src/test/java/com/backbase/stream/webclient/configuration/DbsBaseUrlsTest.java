@@ -0,0 +1,34 @@
+package com.backbase.stream.webclient.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+class DbsBaseUrlsTest {
+
+    @Test
+    void resolvesDefaultBaseUrlsWhenNoneAreConfigured() {
+        Map<String, String> baseUrls = DbsBaseUrls.resolve(new MockEnvironment());
+
+        assertEquals(9, baseUrls.size());
+        assertEquals("http://access-control:8080", baseUrls.get("access-control"));
+        assertEquals("http://limit:8080", baseUrls.get("limits-manager"));
+    }
+
+    @Test
+    void resolvesConfiguredBaseUrlsOverDefaults() {
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("backbase.stream.dbs.arrangement-manager-base-url", "http://gateway:8080/arrangement-manager")
+            .withProperty("backbase.stream.dbs.userManagerBaseUrl", "http://gateway:8080/user-manager");
+
+        Map<String, String> baseUrls = DbsBaseUrls.resolve(environment);
+
+        assertEquals(9, baseUrls.size());
+        assertEquals("http://gateway:8080/arrangement-manager", baseUrls.get("arrangement-manager"));
+        assertEquals("http://gateway:8080/user-manager", baseUrls.get("user-manager"));
+        assertEquals("http://access-control:8080", baseUrls.get("access-control"));
+    }
+
+}
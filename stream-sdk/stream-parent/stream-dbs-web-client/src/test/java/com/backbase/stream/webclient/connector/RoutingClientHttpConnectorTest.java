@@ -0,0 +1,73 @@
+package com.backbase.stream.webclient.connector;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties;
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties.ConnectionPoolProperties;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import reactor.core.Disposable;
+
+class RoutingClientHttpConnectorTest {
+
+    private final ClientHttpConnector accessControl = mock(ClientHttpConnector.class);
+    private final ClientHttpConnector arrangements = mock(ClientHttpConnector.class);
+    private final ClientHttpConnector fallback = mock(ClientHttpConnector.class);
+
+    @Test
+    void shouldRouteToLongestMatchingBaseUrl() {
+        Map<String, ClientHttpConnector> connectors = new LinkedHashMap<>();
+        connectors.put("http://gateway:8080/", accessControl);
+        connectors.put("http://gateway:8080/arrangement-manager", arrangements);
+        RoutingClientHttpConnector underTest = new RoutingClientHttpConnector(connectors, fallback, List.of());
+
+        assertSame(arrangements,
+            underTest.route(URI.create("http://gateway:8080/arrangement-manager/service-api/v2/arrangements")));
+        assertSame(accessControl,
+            underTest.route(URI.create("http://gateway:8080/access-control/service-api/v2/users")));
+        assertSame(accessControl,
+            underTest.route(URI.create("http://gateway:8080/arrangement-manager-v2/service-api/v2/arrangements")));
+        assertSame(fallback, underTest.route(URI.create("http://limit:8080/service-api/v2/limits")));
+    }
+
+    @Test
+    void shouldDisposeResourcesOnClose() {
+        List<Disposable> resources = new ArrayList<>();
+        Disposable resource = mock(Disposable.class);
+        resources.add(resource);
+        RoutingClientHttpConnector underTest = new RoutingClientHttpConnector(Map.of(), fallback, resources);
+
+        underTest.close();
+
+        verify(resource).dispose();
+    }
+
+    @Test
+    void shouldCreatePoolPerConfiguredService() {
+        DbsWebClientConfigurationProperties.ConnectionPoolsProperties properties =
+            new DbsWebClientConfigurationProperties.ConnectionPoolsProperties();
+        ConnectionPoolProperties accessControlPool = new ConnectionPoolProperties();
+        accessControlPool.setMaxConnections(10);
+        properties.getServices().put("access-control", accessControlPool);
+        ConnectionPoolProperties unknownPool = new ConnectionPoolProperties();
+        properties.getServices().put("unknown", unknownPool);
+
+        RoutingClientHttpConnector underTest = DbsClientHttpConnectors.create(properties,
+            Map.of("access-control", "http://access-control:8080"));
+        try {
+            ClientHttpConnector routed = underTest.route(URI.create("http://access-control:8080/service-api/v2"));
+            ClientHttpConnector other = underTest.route(URI.create("http://limit:8080/service-api/v2"));
+            assertNotSame(routed, other);
+        } finally {
+            underTest.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.backbase.stream.webclient.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class DbsMetricsClientFilterTest {
+
+    private static final String URI_TEMPLATE = WebClient.class.getName() + ".uriTemplate";
+
+    @Mock
+    ExchangeFunction exchangeFunction;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final DbsMetricsClientFilter underTest = new DbsMetricsClientFilter(registry,
+        List.of("http://access-control:8080/", "http://gateway:8080/arrangement-manager"), false);
+
+    @Test
+    void shouldRecordLatencyByUriTemplateAndStatus() {
+        when(exchangeFunction.exchange(any())).thenReturn(Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+        ClientRequest request = ClientRequest.create(HttpMethod.GET,
+                URI.create("http://access-control:8080/service-api/v2/users/external-ids/john?skipHierarchy=true"))
+            .attribute(URI_TEMPLATE,
+                "http://access-control:8080/service-api/v2/users/external-ids/{externalId}?skipHierarchy=true")
+            .build();
+
+        StepVerifier.create(underTest.filter(request, exchangeFunction)).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, registry.get(DbsMetricsClientFilter.REQUESTS_METRIC)
+            .tags("method", "GET", "uri", "/service-api/v2/users/external-ids/{externalId}",
+                "base-url", "http://access-control:8080", "status", "200", "outcome", "SUCCESS")
+            .timer().count());
+        assertEquals(0, registry.get(DbsMetricsClientFilter.ACTIVE_METRIC)
+            .tag("base-url", "http://access-control:8080").gauge().value());
+    }
+
+    @Test
+    void shouldNormalizePathWithoutTemplate() {
+        when(exchangeFunction.exchange(any()))
+            .thenReturn(Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+        ClientRequest request = ClientRequest.create(HttpMethod.PUT,
+            URI.create("http://gateway:8080/arrangement-manager/service-api/v2/arrangements/12345")).build();
+
+        StepVerifier.create(underTest.filter(request, exchangeFunction)).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, registry.get(DbsMetricsClientFilter.REQUESTS_METRIC)
+            .tags("uri", "/service-api/v2/arrangements/{id}", "base-url", "http://gateway:8080/arrangement-manager",
+                "status", "503", "outcome", "SERVER_ERROR")
+            .timer().count());
+    }
+
+    @Test
+    void shouldRecordConnectionErrors() {
+        when(exchangeFunction.exchange(any())).thenReturn(Mono.error(new IOException("Connection refused")));
+        ClientRequest request = ClientRequest.create(HttpMethod.POST,
+            URI.create("http://limit:8080/service-api/v2/limits")).build();
+
+        StepVerifier.create(underTest.filter(request, exchangeFunction)).verifyError(IOException.class);
+
+        assertEquals(1, registry.get(DbsMetricsClientFilter.REQUESTS_METRIC)
+            .tags("base-url", "http://limit:8080", "status", "IO_ERROR", "outcome", "UNKNOWN")
+            .timer().count());
+    }
+}
@@ -0,0 +1,88 @@
+package com.backbase.stream.webclient.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties.ResilienceProperties;
+import com.backbase.stream.webclient.configuration.DbsWebClientConfigurationProperties.ServiceResilienceProperties;
+import com.backbase.stream.webclient.resilience.DbsCallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class DbsResilienceClientFilterTest {
+
+    @Mock
+    ExchangeFunction exchangeFunction;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ClientRequest userRequest = ClientRequest.create(HttpMethod.GET,
+        URI.create("http://user-manager:8080/service-api/v2/users/externalids/john")).build();
+
+    @Test
+    void shouldOpenCircuitBreakerAfterServerErrors() {
+        ResilienceProperties properties = new ResilienceProperties();
+        ServiceResilienceProperties userManager = new ServiceResilienceProperties();
+        userManager.setMinimumCalls(2);
+        userManager.setSlidingWindowSize(2);
+        properties.getServices().put("user-manager", userManager);
+        DbsResilienceClientFilter underTest = new DbsResilienceClientFilter(registry, properties,
+            Map.of("user-manager", "http://user-manager:8080"));
+        when(exchangeFunction.exchange(any()))
+            .thenReturn(Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        StepVerifier.create(underTest.filter(userRequest, exchangeFunction)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(underTest.filter(userRequest, exchangeFunction)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(underTest.filter(userRequest, exchangeFunction))
+            .expectErrorSatisfies(throwable -> {
+                DbsCallNotPermittedException exception = (DbsCallNotPermittedException) throwable;
+                assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+                assertEquals("30", exception.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            })
+            .verify();
+
+        verify(exchangeFunction, times(2)).exchange(any());
+        assertEquals(1, registry.get("stream.dbs.client.circuit-breaker.state")
+            .tag("base-url", "http://user-manager:8080").gauge().value());
+        assertEquals(1, registry.get("stream.dbs.client.not-permitted")
+            .tags("base-url", "http://user-manager:8080", "reason", "circuit-breaker").counter().count());
+    }
+
+    @Test
+    void shouldRejectWhenBulkheadIsFull() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getDefaults().setMaxConcurrentCalls(1);
+        properties.getDefaults().setMaxWaitDuration(Duration.ZERO);
+        DbsResilienceClientFilter underTest = new DbsResilienceClientFilter(registry, properties, Map.of());
+        when(exchangeFunction.exchange(any())).thenReturn(Mono.never());
+
+        StepVerifier.create(underTest.filter(userRequest, exchangeFunction))
+            .then(() -> StepVerifier.create(underTest.filter(userRequest, exchangeFunction))
+                .verifyError(DbsCallNotPermittedException.class))
+            .thenCancel()
+            .verify();
+
+        assertEquals(1, registry.get("stream.dbs.client.not-permitted")
+            .tags("base-url", "http://user-manager:8080", "reason", "bulkhead").counter().count());
+        assertEquals(1, registry.get("stream.dbs.client.bulkhead.available")
+            .tag("base-url", "http://user-manager:8080").gauge().value());
+    }
+}
@@ -0,0 +1,101 @@
+package com.backbase.stream.webclient.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("test", 50, 4, 10, Duration.ofSeconds(30), 2,
+        now::get);
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        call(false);
+        call(true);
+        call(false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        call(true);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(Duration.ofSeconds(30), circuitBreaker.getRemainingOpenDuration());
+    }
+
+    @Test
+    void closesWhenTrialCallsSucceed() {
+        open();
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    void reopensWhenTrialCallFails() {
+        open();
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void ignoredTrialCallReleasesPermission() {
+        open();
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onIgnored();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void onlyRecentCallsCount() {
+        CircuitBreaker slidingBreaker = new CircuitBreaker("sliding", 50, 4, 4, Duration.ofSeconds(30), 2,
+            now::get);
+        slidingBreaker.onFailure();
+        for (int i = 0; i < 4; i++) {
+            slidingBreaker.onSuccess();
+        }
+        slidingBreaker.onFailure();
+
+        assertEquals(25f, slidingBreaker.getFailureRate());
+        assertEquals(CircuitBreaker.State.CLOSED, slidingBreaker.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private void call(boolean failure) {
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        if (failure) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+}
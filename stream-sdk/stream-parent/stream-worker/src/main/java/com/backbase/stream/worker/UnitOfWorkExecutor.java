@@ -2,11 +2,27 @@ package com.backbase.stream.worker;
 
 
 import com.backbase.stream.worker.configuration.StreamWorkerConfiguration;
+import com.backbase.stream.worker.exception.LeaseLostException;
+import com.backbase.stream.worker.metrics.UnitOfWorkMetrics;
 import com.backbase.stream.worker.model.StreamTask;
 import com.backbase.stream.worker.model.TaskHistory;
 import com.backbase.stream.worker.model.UnitOfWork;
+import com.backbase.stream.worker.ratelimit.RateLimiter;
 import com.backbase.stream.worker.repository.UnitOfWorkRepository;
+import com.backbase.stream.worker.retry.ExponentialBackoffRetryPolicy;
+import com.backbase.stream.worker.retry.RetryPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.sleuth.annotation.ContinueSpan;
@@ -20,9 +36,16 @@ import reactor.core.scheduler.Schedulers;
 @Slf4j
 public abstract class UnitOfWorkExecutor<T extends StreamTask> {
 
+    private static final Set<UnitOfWork.State> DUE_STATES = EnumSet.of(UnitOfWork.State.ACCEPTED,
+        UnitOfWork.State.FAILED, UnitOfWork.State.IN_PROGRESS);
+
     private final UnitOfWorkRepository<T, String> repository;
     private final StreamTaskExecutor<T> streamTaskExecutor;
     private final Scheduler taskExecutor;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final UnitOfWorkMetrics metrics;
+    private final String nodeId;
 
     protected final StreamWorkerConfiguration streamWorkerConfiguration;
 
@@ -34,9 +57,42 @@ public abstract class UnitOfWorkExecutor<T extends StreamTask> {
      */
     public UnitOfWorkExecutor(UnitOfWorkRepository<T, String> repository, StreamTaskExecutor<T> streamTaskExecutor,
         StreamWorkerConfiguration streamWorkerConfiguration) {
+        this(repository, streamTaskExecutor, streamWorkerConfiguration,
+            new ExponentialBackoffRetryPolicy(streamWorkerConfiguration));
+    }
+
+    /**
+     * Unit of Work Executor that schedules work.
+     * @param repository The list of units of work to execute
+     * @param streamTaskExecutor The executors
+     * @param streamWorkerConfiguration The concurrency configuration
+     * @param retryPolicy Decides if and when failed units of work are retried
+     */
+    public UnitOfWorkExecutor(UnitOfWorkRepository<T, String> repository, StreamTaskExecutor<T> streamTaskExecutor,
+        StreamWorkerConfiguration streamWorkerConfiguration, RetryPolicy retryPolicy) {
+        this(repository, streamTaskExecutor, streamWorkerConfiguration, retryPolicy, Metrics.globalRegistry);
+    }
+
+    /**
+     * Unit of Work Executor that schedules work.
+     * @param repository The list of units of work to execute
+     * @param streamTaskExecutor The executors
+     * @param streamWorkerConfiguration The concurrency configuration
+     * @param retryPolicy Decides if and when failed units of work are retried
+     * @param meterRegistry Registry for the metrics of this executor
+     */
+    public UnitOfWorkExecutor(UnitOfWorkRepository<T, String> repository, StreamTaskExecutor<T> streamTaskExecutor,
+        StreamWorkerConfiguration streamWorkerConfiguration, RetryPolicy retryPolicy, MeterRegistry meterRegistry) {
         this.repository = repository;
         this.streamTaskExecutor = streamTaskExecutor;
         this.taskExecutor = Schedulers.newParallel("TaskScheduler", streamWorkerConfiguration.getTaskExecutors());
+        this.rateLimiter = RateLimiter.of(streamWorkerConfiguration);
+        this.retryPolicy = retryPolicy;
+        this.metrics = new UnitOfWorkMetrics(meterRegistry, getExecutorName(), repository::countByState,
+            rateLimiter::getQueued, streamWorkerConfiguration.getMetricsRefreshInterval());
+        this.nodeId = streamWorkerConfiguration.getNodeId() != null
+            ? streamWorkerConfiguration.getNodeId()
+            : UUID.randomUUID().toString();
         this.streamWorkerConfiguration = streamWorkerConfiguration;
     }
 
@@ -48,7 +104,8 @@ public abstract class UnitOfWorkExecutor<T extends StreamTask> {
         unitOfWork.setRegisteredAt(OffsetDateTime.now());
         unitOfWork.setNextAttemptAt(OffsetDateTime.now());
         unitOfWork.setState(UnitOfWork.State.ACCEPTED);
-        return repository.save(unitOfWork);
+        return repository.save(unitOfWork)
+            .doOnNext(registered -> metrics.unitOfWorkRegistered());
     }
 
     /**
@@ -60,32 +117,148 @@ public abstract class UnitOfWorkExecutor<T extends StreamTask> {
         return repository.findById(unitOfWorkId);
     }
 
-    private Mono<UnitOfWork<T>> complete(UnitOfWork<T> unitOfWork) {
+    /**
+     * Execute all Units Of Work that are due for (re)execution. Units Of Work registered, failed with retries left or
+     * in progress with an expired lease are claimed and executed with a concurrency of
+     * {@link StreamWorkerConfiguration#getSchedulerConcurrency()}. Units Of Work claimed by another node are skipped.
+     * Reclaiming a Unit Of Work whose lease expired counts as a retry; once its retries are exhausted it is not
+     * executed again.
+     *
+     * <p>An execution stops when its lease can no longer be renewed, and its outcome is only saved while the lease is
+     * still held, so a Unit Of Work reclaimed by another node is never overwritten.</p>
+     * @return Flux of executed Units Of Work
+     */
+    public Flux<UnitOfWork<T>> executeDueUnitsOfWork() {
+        OffsetDateTime now = OffsetDateTime.now();
+        return repository.findAllByStateInAndNextAttemptAtBefore(DUE_STATES, now)
+            .filter(unitOfWork -> unitOfWork.isClaimable(now))
+            .flatMap(this::executeScheduledUnitOfWork,
+                Math.max(1, streamWorkerConfiguration.getSchedulerConcurrency()));
+    }
+
+    private Mono<UnitOfWork<T>> executeScheduledUnitOfWork(UnitOfWork<T> unitOfWork) {
+        boolean reclaimed = unitOfWork.getState() == UnitOfWork.State.IN_PROGRESS;
+        return repository.claim(unitOfWork, nodeId, getLeaseDuration())
+            .doOnNext(claimed -> log.info("Claimed Unit Of Work: {} by: {}", claimed.getUnitOfOWorkId(), nodeId))
+            .flatMap(claimed -> {
+                AtomicLong leaseVersion = new AtomicLong(claimed.getVersion());
+                if (reclaimed && claimed.getRetries() > streamWorkerConfiguration.getMaxRetries()) {
+                    log.warn("Not executing reclaimed Unit Of Work: {} after: {} retries",
+                        claimed.getUnitOfOWorkId(), claimed.getRetries());
+                    return saveOutcome(claimed, leaseVersion, this::exhaustRetries);
+                }
+                List<Throwable> failures = new CopyOnWriteArrayList<>();
+                return withHeartbeat(claimed, leaseVersion, executeTasks(claimed, failures))
+                    .flatMap(executed -> complete(executed, leaseVersion, failures))
+                    .onErrorResume(throwable -> {
+                        if (throwable instanceof LeaseLostException) {
+                            log.warn("Stopped Unit Of Work: {} as its lease was lost", claimed.getUnitOfOWorkId());
+                            return Mono.empty();
+                        }
+                        log.error("Unit Of Work: {} failed: {}", claimed.getUnitOfOWorkId(), throwable.getMessage());
+                        return complete(claimed, leaseVersion, true, Collections.singletonList(throwable));
+                    })
+                    .transform(this::active);
+            });
+    }
+
+    private Mono<UnitOfWork<T>> active(Mono<UnitOfWork<T>> execution) {
+        return Mono.defer(() -> {
+            metrics.unitOfWorkStarted();
+            return execution.doFinally(signalType -> metrics.unitOfWorkEnded());
+        });
+    }
+
+    /**
+     * Renew the lease while the execution runs. The execution is cancelled and fails with a
+     * {@link LeaseLostException} once a renewal finds the lease held by someone else. A renewal failing with an error
+     * is retried on the next heartbeat.
+     */
+    private Mono<UnitOfWork<T>> withHeartbeat(UnitOfWork<T> unitOfWork, AtomicLong leaseVersion,
+        Mono<UnitOfWork<T>> execution) {
+        Duration interval = streamWorkerConfiguration.getLeaseHeartbeatInterval();
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            return execution;
+        }
+        Mono<UnitOfWork<T>> leaseLost = Flux.interval(interval)
+            .concatMap(tick -> repository.renewLease(unitOfWork, nodeId, getLeaseDuration())
+                .map(renewed -> {
+                    leaseVersion.set(renewed.getVersion());
+                    return Boolean.TRUE;
+                })
+                .defaultIfEmpty(Boolean.FALSE)
+                .onErrorResume(throwable -> {
+                    log.warn("Failed to renew lease on Unit Of Work: {}: {}", unitOfWork.getUnitOfOWorkId(),
+                        throwable.getMessage());
+                    return Mono.just(Boolean.TRUE);
+                }))
+            .filter(renewed -> !renewed)
+            .next()
+            .flatMap(lost -> {
+                log.warn("Lost lease on Unit Of Work: {}", unitOfWork.getUnitOfOWorkId());
+                return Mono.error(new LeaseLostException(unitOfWork.getUnitOfOWorkId()));
+            });
+        return Mono.firstWithSignal(execution, leaseLost);
+    }
+
+    private Duration getLeaseDuration() {
+        Duration leaseDuration = streamWorkerConfiguration.getLeaseDuration();
+        return leaseDuration != null ? leaseDuration : Duration.ofMinutes(5);
+    }
+
+    private Mono<UnitOfWork<T>> complete(UnitOfWork<T> unitOfWork, AtomicLong leaseVersion,
+        List<Throwable> failures) {
+        return complete(unitOfWork, leaseVersion, unitOfWork.getStreamTasks().stream().anyMatch(StreamTask::isFailed),
+            failures);
+    }
+
+    private Mono<UnitOfWork<T>> complete(UnitOfWork<T> unitOfWork, AtomicLong leaseVersion, boolean failed,
+        List<Throwable> failures) {
         log.info("Completing Unit Of Work: {}", unitOfWork.getUnitOfOWorkId());
-        unitOfWork.setLockedAt(null);
-        unitOfWork.setFinishedAt(OffsetDateTime.now());
-
-        boolean failed = unitOfWork.getStreamTasks().stream().anyMatch(StreamTask::isFailed);
-
-        if (failed) {
-            int retries = unitOfWork.getRetries();
-            if (retries < streamWorkerConfiguration.getMaxRetries()) {
-                unitOfWork.setNextAttemptAt(
-                    OffsetDateTime.now().plusSeconds(streamWorkerConfiguration.getRetryDuration().getSeconds()));
-                unitOfWork.setRetries(retries + 1);
-                unitOfWork.setState(UnitOfWork.State.FAILED);
-                unitOfWork.setLockedAt(null);
+        return saveOutcome(unitOfWork, leaseVersion, completed -> {
+            if (!failed) {
+                completed.setNextAttemptAt(null);
+                completed.setState(UnitOfWork.State.COMPLETED);
+                return;
+            }
+            int retries = completed.getRetries();
+            Duration delay = retries < streamWorkerConfiguration.getMaxRetries()
+                ? retryPolicy.nextAttemptDelay(retries, failures)
+                : null;
+            if (delay != null) {
+                log.info("Retrying Unit Of Work: {} in: {}", completed.getUnitOfOWorkId(), delay);
+                completed.setNextAttemptAt(OffsetDateTime.now().plus(delay));
+                completed.setRetries(retries + 1);
+                completed.setState(UnitOfWork.State.FAILED);
             } else {
-                unitOfWork.setNextAttemptAt(null);
-                unitOfWork.setState(UnitOfWork.State.FAILED_RETRIES_EXHAUSTED);
+                exhaustRetries(completed);
             }
+        });
+    }
 
-        } else {
-            unitOfWork.setNextAttemptAt(null);
-            unitOfWork.setState(UnitOfWork.State.COMPLETED);
-        }
+    private void exhaustRetries(UnitOfWork<T> unitOfWork) {
+        log.warn("Not retrying Unit Of Work: {} after: {} retries", unitOfWork.getUnitOfOWorkId(),
+            unitOfWork.getRetries());
+        unitOfWork.setNextAttemptAt(null);
+        unitOfWork.setState(UnitOfWork.State.FAILED_RETRIES_EXHAUSTED);
+    }
 
-        return repository.save(unitOfWork);
+    /**
+     * Release the lease and save the outcome, provided the lease is still held. The outcome of an execution whose
+     * Unit Of Work was reclaimed by another node is dropped.
+     */
+    private Mono<UnitOfWork<T>> saveOutcome(UnitOfWork<T> unitOfWork, AtomicLong leaseVersion,
+        Consumer<UnitOfWork<T>> outcome) {
+        return repository.saveLeased(unitOfWork, nodeId, leaseVersion.get(), leased -> {
+                leased.setLockedAt(null);
+                leased.setLockedBy(null);
+                leased.setLeaseExpiresAt(null);
+                leased.setFinishedAt(OffsetDateTime.now());
+                outcome.accept(leased);
+            })
+            .doOnNext(metrics::unitOfWorkFinished)
+            .switchIfEmpty(Mono.fromRunnable(() -> log.warn("Dropped outcome of Unit Of Work: {} as its lease was "
+                + "lost", unitOfWork.getUnitOfOWorkId())));
     }
 
 
@@ -96,41 +269,61 @@ public abstract class UnitOfWorkExecutor<T extends StreamTask> {
      */
     @NewSpan
     public Mono<UnitOfWork<T>> executeUnitOfWork(UnitOfWork<T> unitOfWork) {
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
         return Mono.just(unitOfWork)
             .flatMap(this::setLocked)
-            .flatMap(this::executeTasks)
-            .flatMap(this::complete);
+            .flatMap(locked -> {
+                AtomicLong leaseVersion = new AtomicLong(locked.getVersion());
+                return withHeartbeat(locked, leaseVersion, executeTasks(locked, failures))
+                    .flatMap(executed -> complete(executed, leaseVersion, failures));
+            })
+            .transform(this::active);
     }
 
     @ContinueSpan(log = "Locking Unit Of Work")
     private Mono<UnitOfWork<T>> setLocked(
         @SpanTag(value = "unit-of-work", expression = "${unitOfWork.unitOfOWorkId}") UnitOfWork<T> unitOfWork) {
         log.info("Locking Unit Of Work: {}", unitOfWork.getUnitOfOWorkId());
-        unitOfWork.setLockedAt(OffsetDateTime.now());
+        OffsetDateTime now = OffsetDateTime.now();
+        unitOfWork.setLockedAt(now);
+        unitOfWork.setLockedBy(nodeId);
+        unitOfWork.setLeaseExpiresAt(now.plus(getLeaseDuration()));
         unitOfWork.setState(UnitOfWork.State.IN_PROGRESS);
         return repository.save(unitOfWork);
     }
 
     /**
-     * Execute Unit Of Work.
+     * Execute Unit Of Work. When {@link StreamWorkerConfiguration#isIsolateTaskFailures()} is enabled, a failed task
+     * is marked as failed without affecting its siblings, and tasks completed in an earlier attempt are not executed
+     * again.
      * @param unitOfWork The Unit Of Work
      * @return Unit Of Work that can be subscribed to.
      */
     public Mono<UnitOfWork<T>> executeTasks(UnitOfWork<T> unitOfWork) {
+        return executeTasks(unitOfWork, new CopyOnWriteArrayList<>());
+    }
+
+    private Mono<UnitOfWork<T>> executeTasks(UnitOfWork<T> unitOfWork, List<Throwable> failures) {
         return Flux.fromIterable(unitOfWork.getStreamTasks())
+            .filter(streamTask -> !(streamWorkerConfiguration.isIsolateTaskFailures() && streamTask.isCompleted()))
             .publishOn(taskExecutor)
             .name("task-executor")
             .tag("stream-unit-of-work-id", unitOfWork.getUnitOfOWorkId())
             .map(streamTask -> startTask(unitOfWork, streamTask))
-            .flatMap(streamTask -> executeTask(unitOfWork, streamTask, streamTask.getId()))
+            .flatMap(streamTask -> executeTask(unitOfWork, streamTask, streamTask.getId(), failures))
             .map(streamTask -> endTask(unitOfWork, streamTask))
             .collectList()
             .zipWith(Mono.just(unitOfWork), (tasks, actual) -> actual);
     }
 
 
-    private Mono<T> executeTask(UnitOfWork<T> unitOfWork, T streamTask, @SpanTag("stream-task") String streamTaskId) {
-        return streamTaskExecutor.executeTask(streamTask)
+    private Mono<T> executeTask(UnitOfWork<T> unitOfWork, T streamTask, @SpanTag("stream-task") String streamTaskId,
+        List<Throwable> failures) {
+        return rateLimiter.limit(Mono.defer(() -> {
+                long startedAt = metrics.taskStarted();
+                return streamTaskExecutor.executeTask(streamTask)
+                    .doFinally(signalType -> metrics.taskFinished(streamTask, startedAt, signalType));
+            }))
             .map(actual -> {
                 actual.setState(StreamTask.State.COMPLETED);
                 return actual;
@@ -138,12 +331,18 @@ public abstract class UnitOfWorkExecutor<T extends StreamTask> {
             .onErrorResume(Throwable.class, throwable -> {
                 log.error("Stream Task: {} from Unit Of Work: {} failed: \n{}",
                     streamTaskId,
-                    streamTask.getId(),
+                    unitOfWork.getUnitOfOWorkId(),
                     streamTask.getHistory().stream().map(TaskHistory::toString)
                         .collect(Collectors.joining("\n")));
                 streamTask.setState(StreamTask.State.FAILED);
+                failures.add(throwable);
+                if (streamWorkerConfiguration.isIsolateTaskFailures()) {
+                    if (streamTask.getError() == null) {
+                        streamTask.setError(throwable.getMessage());
+                    }
+                    return Mono.just(streamTask);
+                }
                 return Mono.error(throwable);
-//                return Mono.just(streamTask);
             });
     }
 
@@ -151,6 +350,11 @@ public abstract class UnitOfWorkExecutor<T extends StreamTask> {
         log.info("Starting Task: {} from Unit Of Work: {}", streamTask.getId(), unitOfWork.getUnitOfOWorkId());
         streamTask.setState(StreamTask.State.IN_PROGRESS);
         streamTask.setRegisteredAt(OffsetDateTime.now());
+        if (streamWorkerConfiguration.getHistoryMaxInfo() > 0 || streamWorkerConfiguration.getHistoryMaxWarn() > 0
+            || streamWorkerConfiguration.getHistoryMaxError() > 0) {
+            streamTask.limitHistory(streamWorkerConfiguration.getHistoryMaxInfo(),
+                streamWorkerConfiguration.getHistoryMaxWarn(), streamWorkerConfiguration.getHistoryMaxError());
+        }
         return streamTask;
     }
 
@@ -160,6 +364,19 @@ public abstract class UnitOfWorkExecutor<T extends StreamTask> {
         return streamTask;
     }
 
+    private String getExecutorName() {
+        String name = getClass().getSimpleName();
+        return name.isEmpty() ? getClass().getName() : name;
+    }
+
+    /**
+     * Metrics of this executor.
+     * @return Unit Of Work Metrics
+     */
+    public UnitOfWorkMetrics getMetrics() {
+        return metrics;
+    }
+
     public StreamWorkerConfiguration getStreamWorkerConfiguration() {
         return streamWorkerConfiguration;
     }
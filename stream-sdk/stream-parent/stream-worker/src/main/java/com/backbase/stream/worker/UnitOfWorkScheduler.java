@@ -0,0 +1,71 @@
+package com.backbase.stream.worker;
+
+import com.backbase.stream.worker.configuration.StreamWorkerConfiguration;
+import com.backbase.stream.worker.model.StreamTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Background scheduler that polls the Unit Of Work repository for due work and executes it through the
+ * {@link UnitOfWorkExecutor}. Retries are picked up again once their next attempt is due.
+ *
+ * @param <T> Stream Task type
+ */
+@Slf4j
+public class UnitOfWorkScheduler<T extends StreamTask> implements SmartLifecycle {
+
+    private final UnitOfWorkExecutor<T> unitOfWorkExecutor;
+
+    private Disposable subscription;
+
+    public UnitOfWorkScheduler(UnitOfWorkExecutor<T> unitOfWorkExecutor) {
+        this.unitOfWorkExecutor = unitOfWorkExecutor;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (isRunning()) {
+            return;
+        }
+        StreamWorkerConfiguration configuration = unitOfWorkExecutor.getStreamWorkerConfiguration();
+        log.info("Starting Unit Of Work Scheduler polling every: {} with concurrency: {}",
+            configuration.getSchedulerPollInterval(), configuration.getSchedulerConcurrency());
+        subscription = Flux.interval(configuration.getSchedulerPollInterval())
+            .onBackpressureDrop()
+            .flatMap(tick -> poll(), 1, 1)
+            .subscribe();
+    }
+
+    /**
+     * Execute all due Units Of Work once.
+     * @return Mono completing when all due Units Of Work are processed
+     */
+    public Mono<Void> poll() {
+        return unitOfWorkExecutor.executeDueUnitsOfWork()
+            .doOnNext(unitOfWork -> log.debug("Unit Of Work: {} finished with state: {}",
+                unitOfWork.getUnitOfOWorkId(), unitOfWork.getState()))
+            .onErrorResume(throwable -> {
+                log.error("Failed to poll Units Of Work: {}", throwable.getMessage(), throwable);
+                return Flux.empty();
+            })
+            .then();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (subscription != null) {
+            log.info("Stopping Unit Of Work Scheduler");
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+}
@@ -15,6 +15,90 @@ public abstract class StreamWorkerConfiguration {
     private Duration bufferMaxTime = Duration.ofMillis(100);
     private Duration retryDuration = Duration.ofMinutes(1);
 
+    /**
+     * Factor by which the delay between retries grows with each retry, starting at {@code retryDuration}.
+     */
+    private double retryBackoffMultiplier = 2.0;
+
+    /**
+     * Upper bound for the delay between retries. Unbounded when not set.
+     */
+    private Duration retryMaxDuration = Duration.ofMinutes(30);
+
+    /**
+     * Fraction of the retry delay that is randomized, so failed Units Of Work are not all retried at the same moment.
+     */
+    private double retryJitter = 0.2;
+
+    /**
+     * Maximum number of Stream Tasks started per second by an executor. Disabled when zero or less.
+     */
     private int rateLimit = -1;
 
+    /**
+     * Mark a failed Stream Task as failed while its siblings in the Unit Of Work continue. Retries only execute the
+     * Stream Tasks that did not complete.
+     */
+    private boolean isolateTaskFailures = false;
+
+    /**
+     * Maximum number of Stream Tasks in flight at the same time per executor. Disabled when zero or less.
+     */
+    private int concurrencyLimit = -1;
+
+    /**
+     * Poll the repository for due Units Of Work and execute them in the background.
+     */
+    private boolean schedulerEnabled = false;
+
+    /**
+     * Interval between polls for Units Of Work that are due for (re)execution.
+     */
+    private Duration schedulerPollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of Units Of Work executed concurrently by the scheduler.
+     */
+    private int schedulerConcurrency = 1;
+
+    /**
+     * Time after which completed Units Of Work are evicted from the in memory repository. Kept forever when not set.
+     */
+    private Duration completedUnitOfWorkTtl;
+
+    /**
+     * Identifies this node in Unit Of Work leases. A random id is generated when not set.
+     */
+    private String nodeId;
+
+    /**
+     * Duration a claimed Unit Of Work stays leased to this node without heartbeat before other nodes can reclaim it.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(5);
+
+    /**
+     * Interval at which leases of Units Of Work in progress are renewed.
+     */
+    private Duration leaseHeartbeatInterval = Duration.ofMinutes(1);
+
+    /**
+     * Minimum time between two counts of Units Of Work per state in the repository for metrics.
+     */
+    private Duration metricsRefreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of INFO entries kept in the history of each Stream Task executed. Unbounded when zero or less.
+     */
+    private int historyMaxInfo = 0;
+
+    /**
+     * Maximum number of WARN entries kept in the history of each Stream Task executed. Unbounded when zero or less.
+     */
+    private int historyMaxWarn = 0;
+
+    /**
+     * Maximum number of ERROR entries kept in the history of each Stream Task executed. Unbounded when zero or less.
+     */
+    private int historyMaxError = 0;
+
 }
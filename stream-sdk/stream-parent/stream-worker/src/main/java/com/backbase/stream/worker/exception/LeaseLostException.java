@@ -0,0 +1,12 @@
+package com.backbase.stream.worker.exception;
+
+/**
+ * Thrown when the lease on a Unit Of Work could not be renewed because another node reclaimed it.
+ */
+public class LeaseLostException extends RuntimeException {
+
+    public LeaseLostException(String unitOfWorkId) {
+        super("Lost lease on Unit Of Work: " + unitOfWorkId);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.backbase.stream.worker.metrics;
+
+import com.backbase.stream.worker.model.TaskHistory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts Task History entries in {@code stream.task.history}, tagged by {@code entity}, {@code operation} and
+ * {@code severity}. The free form result of an entry is not a tag, to keep the number of time series bounded. Entries
+ * are counted in the global registry, to which Spring Boot adds its own registry.
+ */
+public final class TaskHistoryMetrics {
+
+    private static final String NONE = "none";
+
+    private static volatile Counters counters = new Counters(Metrics.globalRegistry);
+
+    private TaskHistoryMetrics() {
+    }
+
+    public static void setRegistry(MeterRegistry meterRegistry) {
+        counters = new Counters(meterRegistry);
+    }
+
+    /**
+     * Count a Task History entry.
+     * @param entity The entity being processed
+     * @param operation The operation on the entity
+     * @param result The result of the operation, not used as a tag
+     * @param severity The severity of the entry
+     */
+    public static void record(String entity, String operation, String result, TaskHistory.Severity severity) {
+        counters.get(tagValue(entity), tagValue(operation), severity != null ? severity.name() : NONE).increment();
+    }
+
+    private static String tagValue(String value) {
+        return value != null ? value : NONE;
+    }
+
+    /**
+     * Counters of a registry, cached by their tags.
+     */
+    private static final class Counters {
+
+        private final MeterRegistry registry;
+        private final Map<List<String>, Counter> cache = new ConcurrentHashMap<>();
+
+        private Counters(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        private Counter get(String entity, String operation, String severity) {
+            return cache.computeIfAbsent(List.of(entity, operation, severity), tags -> registry.counter(
+                "stream.task.history", "entity", entity, "operation", operation, "severity", severity));
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.backbase.stream.worker.metrics;
+
+import com.backbase.stream.worker.model.StreamTask;
+import com.backbase.stream.worker.model.UnitOfWork;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Micrometer instrumentation of a Unit Of Work Executor. All meters are tagged with the name of the executor.
+ *
+ * <ul>
+ *     <li>{@code stream.unit-of-work.registered}: Units Of Work registered</li>
+ *     <li>{@code stream.unit-of-work.finished}: Attempts of Units Of Work finished, tagged by resulting
+ *     {@code state}</li>
+ *     <li>{@code stream.unit-of-work.active}: Units Of Work executing on this node</li>
+ *     <li>{@code stream.unit-of-work.stored}: Units Of Work in the repository, tagged by {@code state}. Counted
+ *     asynchronously when read and at most once per refresh interval</li>
+ *     <li>{@code stream.task.duration}: Stream Task execution time, tagged by {@code task} type and {@code result}</li>
+ *     <li>{@code stream.task.active}: Stream Tasks executing on this node</li>
+ *     <li>{@code stream.task.queued}: Stream Tasks waiting for a concurrency permit of the rate limiter</li>
+ * </ul>
+ *
+ * <p>Tasks are tagged by class rather than by {@link StreamTask#getName()}, which for some tasks is the external id of
+ * the ingested entity and would create a timer per entity.</p>
+ */
+@Slf4j
+public class UnitOfWorkMetrics {
+
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(30);
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Supplier<Mono<Map<UnitOfWork.State, Long>>> stateCounter;
+    private final long refreshIntervalNanos;
+
+    private final Counter registered;
+    private final Map<UnitOfWork.State, Counter> finished = new EnumMap<>(UnitOfWork.State.class);
+    private final Map<UnitOfWork.State, AtomicLong> stored = new EnumMap<>(UnitOfWork.State.class);
+    private final AtomicInteger activeUnits = new AtomicInteger();
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long refreshedAt;
+
+    /**
+     * Create Unit Of Work Metrics.
+     * @param registry Registry to register meters in
+     * @param executor Name of the instrumented executor
+     * @param stateCounter Counts Units Of Work per state in the repository
+     * @param queuedTasks Number of Stream Tasks waiting to be executed
+     * @param refreshInterval Minimum time between two counts of the repository
+     */
+    public UnitOfWorkMetrics(MeterRegistry registry, String executor,
+        Supplier<Mono<Map<UnitOfWork.State, Long>>> stateCounter, Supplier<Number> queuedTasks,
+        Duration refreshInterval) {
+        this.registry = registry;
+        this.tags = Tags.of("executor", executor);
+        this.stateCounter = stateCounter;
+        this.refreshIntervalNanos = (refreshInterval != null ? refreshInterval : DEFAULT_REFRESH_INTERVAL).toNanos();
+        this.refreshedAt = System.nanoTime() - refreshIntervalNanos;
+
+        this.registered = registry.counter("stream.unit-of-work.registered", tags);
+        for (UnitOfWork.State state : UnitOfWork.State.values()) {
+            Tags stateTags = tags.and("state", state.name());
+            finished.put(state, registry.counter("stream.unit-of-work.finished", stateTags));
+            AtomicLong count = new AtomicLong();
+            stored.put(state, count);
+            Gauge.builder("stream.unit-of-work.stored", count, value -> {
+                    refreshIfStale();
+                    return value.get();
+                })
+                .tags(stateTags)
+                .description("Units Of Work in the repository")
+                .register(registry);
+        }
+        Gauge.builder("stream.unit-of-work.active", activeUnits, AtomicInteger::get)
+            .tags(tags)
+            .description("Units Of Work executing on this node")
+            .register(registry);
+        Gauge.builder("stream.task.active", activeTasks, AtomicInteger::get)
+            .tags(tags)
+            .description("Stream Tasks executing on this node")
+            .register(registry);
+        Gauge.builder("stream.task.queued", queuedTasks, value -> value.get().doubleValue())
+            .tags(tags)
+            .description("Stream Tasks waiting for a concurrency permit")
+            .register(registry);
+    }
+
+    public void unitOfWorkRegistered() {
+        registered.increment();
+    }
+
+    public void unitOfWorkStarted() {
+        activeUnits.incrementAndGet();
+    }
+
+    public void unitOfWorkEnded() {
+        activeUnits.decrementAndGet();
+    }
+
+    /**
+     * Count a Unit Of Work that finished an attempt.
+     * @param unitOfWork The Unit Of Work, in its resulting state
+     */
+    public void unitOfWorkFinished(UnitOfWork<?> unitOfWork) {
+        if (unitOfWork.getState() != null) {
+            finished.get(unitOfWork.getState()).increment();
+        }
+    }
+
+    /**
+     * Record the start of a Stream Task execution.
+     * @return Start time to pass to {@link #taskFinished(StreamTask, long, SignalType)}
+     */
+    public long taskStarted() {
+        activeTasks.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the end of a Stream Task execution.
+     * @param streamTask The Stream Task
+     * @param startedAt Value returned by {@link #taskStarted()}
+     * @param signalType Signal that ended the execution
+     */
+    public void taskFinished(StreamTask streamTask, long startedAt, SignalType signalType) {
+        activeTasks.decrementAndGet();
+        String result;
+        if (signalType == SignalType.ON_COMPLETE) {
+            result = "completed";
+        } else if (signalType == SignalType.ON_ERROR) {
+            result = "failed";
+        } else {
+            result = "cancelled";
+        }
+        Timer.builder("stream.task.duration")
+            .tags(tags)
+            .tag("task", streamTask.getClass().getSimpleName())
+            .tag("result", result)
+            .description("Stream Task execution time")
+            .register(registry)
+            .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count the Units Of Work in the repository now, regardless of the refresh interval.
+     * @return Completes when the counts are updated
+     */
+    public Mono<Void> refresh() {
+        return Mono.defer(stateCounter)
+            .doOnNext(counts -> stored.forEach((state, count) -> count.set(counts.getOrDefault(state, 0L))))
+            .doOnTerminate(() -> refreshedAt = System.nanoTime())
+            .then();
+    }
+
+    private void refreshIfStale() {
+        if (System.nanoTime() - refreshedAt < refreshIntervalNanos || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refresh()
+            .doFinally(signalType -> refreshing.set(false))
+            .subscribe(null, throwable -> log.debug("Failed to count Units Of Work: {}", throwable.getMessage()));
+    }
+
+}
@@ -0,0 +1 @@
+package com.backbase.stream.worker.metrics;
\ No newline at end of file
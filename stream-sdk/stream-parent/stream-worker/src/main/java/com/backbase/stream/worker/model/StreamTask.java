@@ -1,8 +1,9 @@
 package com.backbase.stream.worker.model;
 
+import com.backbase.stream.worker.metrics.TaskHistoryMetrics;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import lombok.Data;
@@ -23,8 +24,7 @@ public abstract class StreamTask {
     private State state;
     private String error;
 
-    // Temporary until
-    private List<TaskHistory> history = new ArrayList<>();
+    private List<TaskHistory> history = new TaskHistoryLog();
 
     public StreamTask(String id) {
         this.id = id;
@@ -32,14 +32,14 @@ public abstract class StreamTask {
 
     public void info(String entity, String operation, String result, String externalId, String internalId,
                      String message, Object... messageArgs) {
-        addHistory(entity, operation, result, externalId, internalId, String.format(message, messageArgs),
-            TaskHistory.Severity.INFO, null, null);
+        addHistory(entity, operation, result, externalId, internalId, TaskHistory.Severity.INFO, null, null,
+            message, messageArgs);
     }
 
     public void warn(String entity, String operation, String result, String externalId, String internalId,
                      String message, Object... messageArgs) {
-        addHistory(entity, operation, result, externalId, internalId, String.format(message, messageArgs),
-            TaskHistory.Severity.WARN, null, null);
+        addHistory(entity, operation, result, externalId, internalId, TaskHistory.Severity.WARN, null, null,
+            message, messageArgs);
     }
 
     /**
@@ -54,8 +54,8 @@ public abstract class StreamTask {
      */
     public void error(String entity, String operation, String result, String externalId, String internalId,
                       String message, Object... messageArgs) {
-        addHistory(entity, operation, result, externalId, internalId, String.format(message, messageArgs),
-            TaskHistory.Severity.ERROR, null, null);
+        addHistory(entity, operation, result, externalId, internalId, TaskHistory.Severity.ERROR, null, null,
+            message, messageArgs);
         error = message;
     }
 
@@ -72,8 +72,8 @@ public abstract class StreamTask {
      */
     public void error(String entity, String operation, String result, String externalId, String internalId,
                       Throwable throwable, String errorMessage, String message, Object... messageArgs) {
-        addHistory(entity, operation, result, externalId, internalId, String.format(message, messageArgs),
-            TaskHistory.Severity.ERROR, throwable, errorMessage);
+        addHistory(entity, operation, result, externalId, internalId, TaskHistory.Severity.ERROR, throwable,
+            errorMessage, message, messageArgs);
         error = message;
     }
 
@@ -99,27 +99,76 @@ public abstract class StreamTask {
         @SpanTag("severity") TaskHistory.Severity severity,
         @SpanTag("severity") Throwable throwable,
         @SpanTag("severity") String errorMessage) {
+        TaskHistory taskHistory = newHistory(entity, operation, result, externalId, internalId, severity, throwable,
+            errorMessage);
+        taskHistory.setMessage(message);
+        history.add(taskHistory);
+    }
+
+    private void addHistory(String entity, String operation, String result, String externalId, String internalId,
+                            TaskHistory.Severity severity, Throwable throwable, String errorMessage,
+                            String message, Object... messageArgs) {
+        TaskHistory taskHistory = newHistory(entity, operation, result, externalId, internalId, severity, throwable,
+            errorMessage);
+        taskHistory.setMessage(message, messageArgs);
+        history.add(taskHistory);
+    }
+
+    private TaskHistory newHistory(String entity, String operation, String result, String externalId,
+                                   String internalId, TaskHistory.Severity severity, Throwable throwable,
+                                   String errorMessage) {
+        TaskHistoryMetrics.record(entity, operation, result, severity);
         TaskHistory taskHistory = new TaskHistory();
-        taskHistory.setTimestamp(OffsetDateTime.now());
+        taskHistory.setTimestampMillis(System.currentTimeMillis());
         taskHistory.setEntity(entity);
         taskHistory.setOperation(operation);
         taskHistory.setResult(result);
         taskHistory.setExternalId(externalId);
         taskHistory.setInternalId(internalId);
-        taskHistory.setMessage(message);
         taskHistory.setSeverity(severity);
         taskHistory.setErrorMessage(errorMessage);
         if (throwable != null && errorMessage == null) {
             taskHistory.setErrorMessage(throwable.getMessage());
         }
-        history.add(taskHistory);
+        return taskHistory;
     }
 
+    /**
+     * Append entries of another Task History, usually of a child task. Entries are shared, not copied, and are subject
+     * to the limits of this task's history.
+     * @param history The entries to append
+     * @return This task
+     */
     public StreamTask addHistory(List<TaskHistory> history) {
         this.history.addAll(history);
         return this;
     }
 
+    /**
+     * Replace the Task History, keeping it bounded.
+     * @param history The entries of the new history
+     */
+    public void setHistory(List<TaskHistory> history) {
+        TaskHistoryLog taskHistoryLog = new TaskHistoryLog();
+        if (history != null) {
+            taskHistoryLog.addAll(history);
+        }
+        this.history = taskHistoryLog;
+    }
+
+    /**
+     * Bound the Task History, dropping the oldest entries of a severity beyond its limit. A limit of zero or less keeps
+     * all entries of that severity.
+     * @param maxInfo Maximum number of INFO entries
+     * @param maxWarn Maximum number of WARN entries
+     * @param maxError Maximum number of ERROR entries
+     */
+    public void limitHistory(int maxInfo, int maxWarn, int maxError) {
+        TaskHistoryLog taskHistoryLog = new TaskHistoryLog(maxInfo, maxWarn, maxError);
+        taskHistoryLog.addAll(history);
+        this.history = taskHistoryLog;
+    }
+
     public boolean isCompleted() {
         return this.state == State.COMPLETED;
     }
@@ -145,6 +194,16 @@ public abstract class StreamTask {
      * Logs the summary of a task on INFO.
      */
     public void logSummary() {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        String dropped = "";
+        if (history instanceof TaskHistoryLog) {
+            Map<TaskHistory.Severity, Long> droppedEntries = ((TaskHistoryLog) history).getDropped();
+            if (!droppedEntries.isEmpty()) {
+                dropped = "\n\tDropped older entries: " + droppedEntries;
+            }
+        }
         log.info("\n\n" +
                 "Stream Task: {}\n" +
                 "Status: {}\n\n" +
@@ -154,7 +213,7 @@ public abstract class StreamTask {
             this.getState(),
             this.getError(),
             "\t" + this.getHistory().stream().map(TaskHistory::toDisplayString)
-                .collect(Collectors.joining("\n\t")));
+                .collect(Collectors.joining("\n\t")) + dropped);
     }
 
 
@@ -1,12 +1,26 @@
 package com.backbase.stream.worker.model;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+/**
+ * Task History entry. The timestamp is kept as epoch millis and the message as template with arguments until it is
+ * first read, so recording history does not format anything.
+ */
 @Data
 public class TaskHistory {
 
-    private OffsetDateTime timestamp;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long timestampMillis;
 
     private String entity;
     private String internalId;
@@ -15,7 +29,14 @@ public class TaskHistory {
     private String operation;
     private String result;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private String message;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Object[] messageArgs;
     private String errorMessage;
     private String resolution;
     private Severity severity;
@@ -26,6 +47,48 @@ public class TaskHistory {
         ERROR
     }
 
+    @ToString.Include(name = "timestamp", rank = 1)
+    public OffsetDateTime getTimestamp() {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+    }
+
+    public void setTimestamp(OffsetDateTime timestamp) {
+        this.timestampMillis = timestamp != null ? timestamp.toInstant().toEpochMilli() : 0;
+    }
+
+    void setTimestampMillis(long timestampMillis) {
+        this.timestampMillis = timestampMillis;
+    }
+
+    /**
+     * Message, formatted with its arguments on first access.
+     * @return The message
+     */
+    public synchronized String getMessage() {
+        if (messageArgs != null) {
+            message = String.format(message, messageArgs);
+            messageArgs = null;
+        }
+        return message;
+    }
+
+    public synchronized void setMessage(String message) {
+        this.message = message;
+        this.messageArgs = null;
+    }
+
+    /**
+     * Set a message that is formatted with {@link String#format(String, Object...)} when first read.
+     * @param message The message (can include formatting placeholders)
+     * @param messageArgs The arguments for formatting the message
+     */
+    public synchronized void setMessage(String message, Object... messageArgs) {
+        this.message = message;
+        this.messageArgs = message != null && (messageArgs.length > 0 || message.indexOf('%') >= 0)
+            ? messageArgs
+            : null;
+    }
+
     /**
      * To String method.
      * @return A human-readable string
@@ -33,11 +96,11 @@ public class TaskHistory {
     public String toDisplayString() {
         String entityType = entity != null ? entity.toLowerCase() : "";
         if(errorMessage == null) {
-            return String.format("%s [%s] [%s] [%s] %s - %s", timestamp, severity, String.format("%1$25s", entityType), String.format("%1$15s", operation), externalId, message);
+            return String.format("%s [%s] [%s] [%s] %s - %s", getTimestamp(), severity, String.format("%1$25s", entityType), String.format("%1$15s", operation), externalId, getMessage());
         } else {
-            return String.format("%s [%s] [%s] [%s] %s - %s: Error Message: %s", timestamp, severity, String.format("%1$25s", entityType), String.format("%1$15s", operation), externalId, message, errorMessage);
+            return String.format("%s [%s] [%s] [%s] %s - %s: Error Message: %s", getTimestamp(), severity, String.format("%1$25s", entityType), String.format("%1$15s", operation), externalId, getMessage(), errorMessage);
 
         }
 
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.backbase.stream.worker.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded Task History. Entries are kept in a ring buffer per severity, so a task with many INFO entries cannot push
+ * out its errors, and the oldest entries of a severity are dropped once its limit is reached. The number of dropped
+ * entries is kept per severity. Iteration returns the retained entries in the order they were added.
+ *
+ * <p>A limit of zero or less keeps all entries of that severity. Task Histories created without limits keep all
+ * entries.</p>
+ */
+public class TaskHistoryLog extends AbstractList<TaskHistory> {
+
+    private final Ring info;
+    private final Ring warn;
+    private final Ring error;
+
+    private long sequence;
+    private List<TaskHistory> snapshot;
+
+    public TaskHistoryLog() {
+        this(0, 0, 0);
+    }
+
+    /**
+     * Create Task History with explicit limits.
+     * @param maxInfo Maximum number of INFO entries
+     * @param maxWarn Maximum number of WARN entries
+     * @param maxError Maximum number of ERROR entries
+     */
+    public TaskHistoryLog(int maxInfo, int maxWarn, int maxError) {
+        this.info = new Ring(maxInfo);
+        this.warn = new Ring(maxWarn);
+        this.error = new Ring(maxError);
+    }
+
+    @Override
+    public synchronized boolean add(TaskHistory taskHistory) {
+        ring(taskHistory.getSeverity()).add(taskHistory, sequence++);
+        snapshot = null;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends TaskHistory> entries) {
+        List<TaskHistory> copy = entries instanceof TaskHistoryLog
+            ? ((TaskHistoryLog) entries).snapshot()
+            : new ArrayList<>(entries);
+        synchronized (this) {
+            copy.forEach(this::add);
+        }
+        return !copy.isEmpty();
+    }
+
+    @Override
+    public TaskHistory get(int index) {
+        return snapshot().get(index);
+    }
+
+    @Override
+    public Iterator<TaskHistory> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public synchronized int size() {
+        return info.size + warn.size + error.size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        info.clear();
+        warn.clear();
+        error.clear();
+        snapshot = null;
+    }
+
+    /**
+     * Number of entries dropped per severity because its limit was reached.
+     * @return Dropped entries per severity, only for severities that dropped entries
+     */
+    public synchronized Map<TaskHistory.Severity, Long> getDropped() {
+        Map<TaskHistory.Severity, Long> dropped = new EnumMap<>(TaskHistory.Severity.class);
+        for (TaskHistory.Severity severity : TaskHistory.Severity.values()) {
+            long count = ring(severity).dropped;
+            if (count > 0) {
+                dropped.put(severity, count);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Retained entries in the order they were added. The snapshot is reused until the next modification.
+     * @return Unmodifiable list of entries
+     */
+    public synchronized List<TaskHistory> snapshot() {
+        if (snapshot == null) {
+            List<TaskHistory> merged = new ArrayList<>(size());
+            int i = 0;
+            int w = 0;
+            int e = 0;
+            while (i < info.size || w < warn.size || e < error.size) {
+                long si = i < info.size ? info.sequence(i) : Long.MAX_VALUE;
+                long sw = w < warn.size ? warn.sequence(w) : Long.MAX_VALUE;
+                long se = e < error.size ? error.sequence(e) : Long.MAX_VALUE;
+                if (si < sw && si < se) {
+                    merged.add(info.get(i++));
+                } else if (sw < se) {
+                    merged.add(warn.get(w++));
+                } else {
+                    merged.add(error.get(e++));
+                }
+            }
+            snapshot = Collections.unmodifiableList(merged);
+        }
+        return snapshot;
+    }
+
+    private Ring ring(TaskHistory.Severity severity) {
+        if (severity == TaskHistory.Severity.ERROR) {
+            return error;
+        } else if (severity == TaskHistory.Severity.WARN) {
+            return warn;
+        }
+        return info;
+    }
+
+    private static class Ring {
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final int max;
+        private TaskHistory[] entries = new TaskHistory[0];
+        private long[] sequences = new long[0];
+        private int head;
+        private int size;
+        private long dropped;
+
+        private Ring(int max) {
+            this.max = max;
+        }
+
+        private void add(TaskHistory taskHistory, long sequence) {
+            if (size == entries.length && !grow()) {
+                entries[head] = taskHistory;
+                sequences[head] = sequence;
+                head = (head + 1) % entries.length;
+                dropped++;
+                return;
+            }
+            int tail = (head + size) % entries.length;
+            entries[tail] = taskHistory;
+            sequences[tail] = sequence;
+            size++;
+        }
+
+        private boolean grow() {
+            if (max > 0 && entries.length >= max) {
+                return false;
+            }
+            int capacity = Math.max(INITIAL_CAPACITY, entries.length * 2);
+            if (max > 0) {
+                capacity = Math.min(capacity, max);
+            }
+            TaskHistory[] grownEntries = new TaskHistory[capacity];
+            long[] grownSequences = new long[capacity];
+            for (int i = 0; i < size; i++) {
+                grownEntries[i] = get(i);
+                grownSequences[i] = sequence(i);
+            }
+            entries = grownEntries;
+            sequences = grownSequences;
+            head = 0;
+            return true;
+        }
+
+        private TaskHistory get(int index) {
+            return entries[(head + index) % entries.length];
+        }
+
+        private long sequence(int index) {
+            return sequences[(head + index) % sequences.length];
+        }
+
+        private void clear() {
+            entries = new TaskHistory[0];
+            sequences = new long[0];
+            head = 0;
+            size = 0;
+            dropped = 0;
+        }
+    }
+
+}
@@ -55,12 +55,37 @@ public class UnitOfWork<T extends StreamTask> {
 
     private OffsetDateTime registeredAt;
     private OffsetDateTime lockedAt;
+    private String lockedBy;
+    private OffsetDateTime leaseExpiresAt;
     private OffsetDateTime nextAttemptAt;
     private OffsetDateTime startedAt;
     private OffsetDateTime finishedAt;
 
     private int retries = 0;
 
+    private long version = 0;
+
+    /**
+     * Checks if the Unit Of Work can be claimed for execution. Units Of Work in progress can be reclaimed once the
+     * lease of the node executing them expired.
+     * @param now Current time
+     * @return True if the Unit Of Work can be claimed
+     */
+    public boolean isClaimable(OffsetDateTime now) {
+        if (state == null) {
+            return false;
+        }
+        switch (state) {
+            case ACCEPTED:
+            case FAILED:
+                return true;
+            case IN_PROGRESS:
+                return leaseExpiresAt != null && leaseExpiresAt.isBefore(now);
+            default:
+                return false;
+        }
+    }
+
     /**
      * Outputs the summary of the unit of work to the log in debug.
      */
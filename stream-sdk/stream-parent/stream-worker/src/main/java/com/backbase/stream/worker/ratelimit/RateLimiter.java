@@ -0,0 +1,150 @@
+package com.backbase.stream.worker.ratelimit;
+
+import com.backbase.stream.worker.configuration.StreamWorkerConfiguration;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Non-blocking rate limiter combining a token bucket (requests per second) with a limit on concurrent permits. Callers
+ * are delayed instead of rejected, so the limiter applies back pressure on the pipeline using it.
+ */
+@Slf4j
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxConcurrentPermits;
+
+    private final AtomicInteger availablePermits;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private long nextPermitAt = Long.MIN_VALUE;
+
+    /**
+     * Create Rate Limiter.
+     * @param permitsPerSecond Maximum sustained number of permits per second. Zero or less disables the token bucket
+     * @param maxConcurrentPermits Maximum number of permits held at the same time. Zero or less disables the limit
+     */
+    public RateLimiter(int permitsPerSecond, int maxConcurrentPermits) {
+        this.intervalNanos = permitsPerSecond > 0 ? NANOS_PER_SECOND / permitsPerSecond : 0;
+        this.burstNanos = permitsPerSecond > 0 ? NANOS_PER_SECOND - intervalNanos : 0;
+        this.maxConcurrentPermits = maxConcurrentPermits;
+        this.availablePermits = new AtomicInteger(Math.max(0, maxConcurrentPermits));
+    }
+
+    /**
+     * Create Rate Limiter from the worker configuration.
+     * @param configuration Configuration holding rate limit and concurrency limit
+     * @return Rate Limiter
+     */
+    public static RateLimiter of(StreamWorkerConfiguration configuration) {
+        return new RateLimiter(configuration.getRateLimit(), configuration.getConcurrencyLimit());
+    }
+
+    public boolean isEnabled() {
+        return intervalNanos > 0 || maxConcurrentPermits > 0;
+    }
+
+    /**
+     * Number of subscriptions waiting for a concurrency permit.
+     * @return Waiting subscriptions
+     */
+    public int getQueued() {
+        return waiters.size();
+    }
+
+    /**
+     * Subscribe to the source once a permit is available. The permit is held until the source terminates or is
+     * cancelled.
+     * @param source Publisher to limit
+     * @param <R> Type of the source
+     * @return Limited source
+     */
+    public <R> Mono<R> limit(Mono<R> source) {
+        if (!isEnabled()) {
+            return source;
+        }
+        Mono<R> throttled = intervalNanos > 0 ? Mono.defer(() -> delay(reserve())).then(source) : source;
+        if (maxConcurrentPermits <= 0) {
+            return throttled;
+        }
+        return Mono.usingWhen(acquire(), permit -> throttled, permit -> release());
+    }
+
+    private Mono<Long> delay(long waitNanos) {
+        if (waitNanos <= 0) {
+            return Mono.just(0L);
+        }
+        log.debug("Rate limit reached, delaying for: {} ns", waitNanos);
+        return Mono.delay(Duration.ofNanos(waitNanos));
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long allowedAt = nextPermitAt == Long.MIN_VALUE ? now : Math.max(nextPermitAt, now - burstNanos);
+        nextPermitAt = allowedAt + intervalNanos;
+        return allowedAt - now;
+    }
+
+    private Mono<Boolean> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> {
+                if (waiter.done.compareAndSet(false, true)) {
+                    waiters.remove(waiter);
+                }
+            });
+            waiters.add(waiter);
+            drain();
+        });
+    }
+
+    private Mono<Void> release() {
+        return Mono.fromRunnable(() -> {
+            availablePermits.incrementAndGet();
+            drain();
+        });
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.done.compareAndSet(false, true)) {
+                availablePermits.incrementAndGet();
+            } else {
+                waiter.sink.success(Boolean.TRUE);
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        int permits;
+        do {
+            permits = availablePermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+        } while (!availablePermits.compareAndSet(permits, permits - 1));
+        return true;
+    }
+
+    private static class Waiter {
+
+        private final MonoSink<Boolean> sink;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Waiter(MonoSink<Boolean> sink) {
+            this.sink = sink;
+        }
+    }
+
+}
@@ -0,0 +1 @@
+package com.backbase.stream.worker.ratelimit;
\ No newline at end of file
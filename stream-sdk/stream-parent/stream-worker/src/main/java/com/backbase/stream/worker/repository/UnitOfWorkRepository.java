@@ -2,9 +2,15 @@ package com.backbase.stream.worker.repository;
 
 import com.backbase.stream.worker.model.StreamTask;
 import com.backbase.stream.worker.model.UnitOfWork;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
 import org.springframework.data.repository.reactive.ReactiveSortingRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface UnitOfWorkRepository<T extends StreamTask, ID> extends ReactiveSortingRepository<UnitOfWork<T>, ID> {
 
@@ -12,4 +18,94 @@ public interface UnitOfWorkRepository<T extends StreamTask, ID> extends Reactive
 
     Flux<UnitOfWork<T>> findAllByNextAttemptAtBefore(OffsetDateTime currentDateTime);
 
+    /**
+     * Find Units Of Work in one of the given states that are due before the given time. Implementations backed by a
+     * store should override this with an indexed query.
+     * @param states Accepted states
+     * @param currentDateTime Upper bound (exclusive) of the next attempt
+     * @return Due Units Of Work
+     */
+    default Flux<UnitOfWork<T>> findAllByStateInAndNextAttemptAtBefore(Collection<UnitOfWork.State> states,
+        OffsetDateTime currentDateTime) {
+        return findAllByNextAttemptAtBefore(currentDateTime)
+            .filter(unitOfWork -> states.contains(unitOfWork.getState()));
+    }
+
+    /**
+     * Count Units Of Work per state. Implementations backed by a store should override this with an aggregate query.
+     * @return Number of Units Of Work per state, states without Units Of Work are absent
+     */
+    default Mono<Map<UnitOfWork.State, Long>> countByState() {
+        return findAll()
+            .filter(unitOfWork -> unitOfWork.getState() != null)
+            .collect(() -> new EnumMap<>(UnitOfWork.State.class),
+                (counts, unitOfWork) -> counts.merge(unitOfWork.getState(), 1L, Long::sum));
+    }
+
+    /**
+     * Claim a Unit Of Work for execution. The claim succeeds only if the stored Unit Of Work still has the version of
+     * the given one and is claimable, after which it is {@code IN_PROGRESS}, leased to the owner and has a new version.
+     * Reclaiming a Unit Of Work whose lease expired counts as a retry, as the node executing it is gone.
+     * Implementations shared between nodes must perform this as a single atomic update. The default implementation is
+     * only safe for a single node.
+     * @param unitOfWork Unit Of Work to claim
+     * @param owner Node claiming the Unit Of Work
+     * @param leaseDuration Duration of the lease
+     * @return The claimed Unit Of Work, empty if it was claimed by someone else
+     */
+    default Mono<UnitOfWork<T>> claim(UnitOfWork<T> unitOfWork, String owner, Duration leaseDuration) {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (!unitOfWork.isClaimable(now)) {
+            return Mono.empty();
+        }
+        if (unitOfWork.getState() == UnitOfWork.State.IN_PROGRESS) {
+            unitOfWork.setRetries(unitOfWork.getRetries() + 1);
+        }
+        unitOfWork.setState(UnitOfWork.State.IN_PROGRESS);
+        unitOfWork.setLockedAt(now);
+        unitOfWork.setLockedBy(owner);
+        unitOfWork.setLeaseExpiresAt(now.plus(leaseDuration));
+        unitOfWork.setVersion(unitOfWork.getVersion() + 1);
+        return save(unitOfWork);
+    }
+
+    /**
+     * Extend the lease of a Unit Of Work in progress, provided it is still leased to the owner.
+     * @param unitOfWork Unit Of Work in progress
+     * @param owner Node owning the lease
+     * @param leaseDuration Duration of the lease from now
+     * @return The Unit Of Work with its extended lease, empty if the lease was lost
+     */
+    default Mono<UnitOfWork<T>> renewLease(UnitOfWork<T> unitOfWork, String owner, Duration leaseDuration) {
+        if (unitOfWork.getState() != UnitOfWork.State.IN_PROGRESS || !owner.equals(unitOfWork.getLockedBy())) {
+            return Mono.empty();
+        }
+        unitOfWork.setLeaseExpiresAt(OffsetDateTime.now().plus(leaseDuration));
+        unitOfWork.setVersion(unitOfWork.getVersion() + 1);
+        return save(unitOfWork);
+    }
+
+    /**
+     * Save the outcome of an execution, provided the Unit Of Work is still leased to the owner with the version of its
+     * last claim or lease renewal. The outcome is only applied when the lease is held, and the saved Unit Of Work has a
+     * new version. Implementations shared between nodes must perform this as a single atomic update. The default
+     * implementation is only safe for a single node.
+     * @param unitOfWork Executed Unit Of Work
+     * @param owner Node owning the lease
+     * @param leaseVersion Version of the Unit Of Work after its last claim or lease renewal
+     * @param outcome Applies the outcome of the execution to the Unit Of Work
+     * @return The saved Unit Of Work, empty if the lease was lost
+     */
+    @SuppressWarnings("unchecked")
+    default Mono<UnitOfWork<T>> saveLeased(UnitOfWork<T> unitOfWork, String owner, long leaseVersion,
+        Consumer<UnitOfWork<T>> outcome) {
+        return findById((ID) unitOfWork.getUnitOfOWorkId())
+            .filter(stored -> stored.getVersion() == leaseVersion && owner.equals(stored.getLockedBy()))
+            .flatMap(stored -> {
+                outcome.accept(unitOfWork);
+                unitOfWork.setVersion(leaseVersion + 1);
+                return save(unitOfWork);
+            });
+    }
+
 }
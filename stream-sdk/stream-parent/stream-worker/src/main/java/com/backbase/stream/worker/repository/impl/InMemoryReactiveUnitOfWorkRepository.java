@@ -3,34 +3,74 @@ package com.backbase.stream.worker.repository.impl;
 import com.backbase.stream.worker.model.StreamTask;
 import com.backbase.stream.worker.model.UnitOfWork;
 import com.backbase.stream.worker.repository.UnitOfWorkRepository;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Sort;
-import org.springframework.lang.NonNull;
-import org.springframework.lang.NonNullApi;
-import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+/**
+ * In memory Unit Of Work Repository. Units Of Work are indexed by {@code registeredAt} and {@code nextAttemptAt} as
+ * they were when last saved, so time based queries only visit matching entries. Completed Units Of Work can be evicted
+ * after a configurable time to live.
+ *
+ * @param <T> Stream Task type
+ */
+@Slf4j
 @SuppressWarnings("NullableProblems")
 public class InMemoryReactiveUnitOfWorkRepository<T extends StreamTask> implements UnitOfWorkRepository<T, String> {
 
-    private ConcurrentHashMap<String, UnitOfWork<T>> inMemStorage = new ConcurrentHashMap<>();
+    private final Map<String, UnitOfWork<T>> inMemStorage = new ConcurrentHashMap<>();
+    private final Map<String, IndexKeys> indexedKeys = new ConcurrentHashMap<>();
+
+    private final NavigableSet<IndexEntry> registeredAtIndex = new ConcurrentSkipListSet<>();
+    private final NavigableSet<IndexEntry> nextAttemptAtIndex = new ConcurrentSkipListSet<>();
+    private final NavigableSet<IndexEntry> completedAtIndex = new ConcurrentSkipListSet<>();
+
+    private final Duration completedTtl;
+
+    public InMemoryReactiveUnitOfWorkRepository() {
+        this(null);
+    }
+
+    /**
+     * Create In Memory Unit Of Work Repository.
+     * @param completedTtl Time after which completed Units Of Work are evicted. Never evicted when null
+     */
+    public InMemoryReactiveUnitOfWorkRepository(Duration completedTtl) {
+        this.completedTtl = completedTtl;
+    }
 
     @Override
     public Flux<UnitOfWork<T>> findAllByRegisteredAtBefore(OffsetDateTime currentDateTime) {
-        return Flux.fromStream(inMemStorage.values().stream()
-            .filter(legalEntityUnitOfWork -> legalEntityUnitOfWork.getRegisteredAt() != null
-                && legalEntityUnitOfWork.getRegisteredAt().isBefore(currentDateTime)));
+        evictCompleted();
+        return findAllBefore(registeredAtIndex, currentDateTime, UnitOfWork::getRegisteredAt);
     }
 
     @Override
     public Flux<UnitOfWork<T>> findAllByNextAttemptAtBefore(OffsetDateTime currentDateTime) {
-        return Flux.fromStream(inMemStorage.values().stream()
-            .filter(legalEntityUnitOfWork -> legalEntityUnitOfWork.getNextAttemptAt() != null
-                && legalEntityUnitOfWork.getNextAttemptAt().isBefore(currentDateTime)));
+        evictCompleted();
+        return findAllBefore(nextAttemptAtIndex, currentDateTime, UnitOfWork::getNextAttemptAt);
+    }
+
+    private Flux<UnitOfWork<T>> findAllBefore(NavigableSet<IndexEntry> index, OffsetDateTime currentDateTime,
+        Function<UnitOfWork<T>, OffsetDateTime> timestamp) {
+        return Flux.fromStream(index.headSet(IndexEntry.lowest(currentDateTime), false).stream()
+                .map(entry -> inMemStorage.get(entry.id))
+                .filter(Objects::nonNull))
+            .filter(unitOfWork -> timestamp.apply(unitOfWork) != null
+                && timestamp.apply(unitOfWork).isBefore(currentDateTime));
     }
 
     @Override
@@ -38,12 +78,69 @@ public class InMemoryReactiveUnitOfWorkRepository<T extends StreamTask> implemen
         if (entity.getUnitOfOWorkId() == null) {
             entity.setUnitOfOWorkId(UUID.randomUUID().toString());
         }
-        inMemStorage.put(entity.getUnitOfOWorkId(), entity);
+        synchronized (this) {
+            inMemStorage.put(entity.getUnitOfOWorkId(), entity);
+            reindex(entity.getUnitOfOWorkId(), IndexKeys.of(entity));
+        }
+        evictCompleted();
         return Mono.just(entity);
     }
 
     @Override
-    public <S extends UnitOfWork<T>> Flux<S> saveAll(Iterable <S> entities) {
+    public synchronized Mono<UnitOfWork<T>> claim(UnitOfWork<T> unitOfWork, String owner, Duration leaseDuration) {
+        OffsetDateTime now = OffsetDateTime.now();
+        UnitOfWork<T> stored = inMemStorage.get(unitOfWork.getUnitOfOWorkId());
+        if (stored == null || stored.getVersion() != unitOfWork.getVersion() || !stored.isClaimable(now)) {
+            return Mono.empty();
+        }
+        if (stored.getState() == UnitOfWork.State.IN_PROGRESS) {
+            stored.setRetries(stored.getRetries() + 1);
+        }
+        stored.setState(UnitOfWork.State.IN_PROGRESS);
+        stored.setLockedAt(now);
+        stored.setLockedBy(owner);
+        stored.setLeaseExpiresAt(now.plus(leaseDuration));
+        stored.setVersion(stored.getVersion() + 1);
+        reindex(stored.getUnitOfOWorkId(), IndexKeys.of(stored));
+        return Mono.just(stored);
+    }
+
+    @Override
+    public synchronized Mono<UnitOfWork<T>> renewLease(UnitOfWork<T> unitOfWork, String owner,
+        Duration leaseDuration) {
+        UnitOfWork<T> stored = inMemStorage.get(unitOfWork.getUnitOfOWorkId());
+        if (stored == null || stored.getState() != UnitOfWork.State.IN_PROGRESS
+            || !owner.equals(stored.getLockedBy())) {
+            return Mono.empty();
+        }
+        stored.setLeaseExpiresAt(OffsetDateTime.now().plus(leaseDuration));
+        stored.setVersion(stored.getVersion() + 1);
+        return Mono.just(stored);
+    }
+
+    /**
+     * Units Of Work are stored by reference, so the executing node and a node that reclaimed it share the instance.
+     * The version is checked before the outcome is applied, as every claim and lease renewal increments it.
+     */
+    @Override
+    public Mono<UnitOfWork<T>> saveLeased(UnitOfWork<T> unitOfWork, String owner, long leaseVersion,
+        Consumer<UnitOfWork<T>> outcome) {
+        synchronized (this) {
+            UnitOfWork<T> stored = inMemStorage.get(unitOfWork.getUnitOfOWorkId());
+            if (stored == null || stored.getVersion() != leaseVersion || !owner.equals(stored.getLockedBy())) {
+                return Mono.empty();
+            }
+            outcome.accept(unitOfWork);
+            unitOfWork.setVersion(leaseVersion + 1);
+            inMemStorage.put(unitOfWork.getUnitOfOWorkId(), unitOfWork);
+            reindex(unitOfWork.getUnitOfOWorkId(), IndexKeys.of(unitOfWork));
+        }
+        evictCompleted();
+        return Mono.just(unitOfWork);
+    }
+
+    @Override
+    public <S extends UnitOfWork<T>> Flux<S> saveAll(Iterable<S> entities) {
         return Flux.fromIterable(entities)
             .flatMap(this::save);
     }
@@ -65,7 +162,7 @@ public class InMemoryReactiveUnitOfWorkRepository<T extends StreamTask> implemen
     }
 
     @Override
-    public Mono<Boolean> existsById( String s) {
+    public Mono<Boolean> existsById(String s) {
         return Mono.just(inMemStorage.containsKey(s));
     }
 
@@ -77,13 +174,13 @@ public class InMemoryReactiveUnitOfWorkRepository<T extends StreamTask> implemen
 
     @Override
     public Flux<UnitOfWork<T>> findAll() {
-        return Flux.fromStream(inMemStorage.values().stream());
+        return Flux.fromIterable(inMemStorage.values());
     }
 
     @Override
-    public Flux<UnitOfWork<T>> findAllById(Iterable<String> strings) {
-        return findAll().filter(unitOfWork ->
-            CollectionUtils.contains(strings.iterator(), unitOfWork.getUnitOfOWorkId()));
+    public Flux<UnitOfWork<T>> findAllById(Iterable<String> ids) {
+        return Flux.fromIterable(ids)
+            .flatMap(this::findById);
     }
 
     @Override
@@ -98,13 +195,13 @@ public class InMemoryReactiveUnitOfWorkRepository<T extends StreamTask> implemen
 
     @Override
     public Mono<Void> deleteById(String s) {
-        inMemStorage.remove(s);
+        remove(s);
         return Mono.empty();
     }
 
     @Override
     public Mono<Void> deleteById(Publisher<String> id) {
-        return Mono.from(id).map(this::deleteById).then();
+        return Mono.from(id).flatMap(this::deleteById);
     }
 
     @Override
@@ -115,23 +212,27 @@ public class InMemoryReactiveUnitOfWorkRepository<T extends StreamTask> implemen
     @Override
     public Mono<Void> deleteAllById(Iterable<? extends String> iterable) {
         return Flux.fromIterable(iterable)
-            .map(this::deleteById)
+            .flatMap(this::deleteById)
             .then();
     }
 
     @Override
     public Mono<Void> deleteAll(Iterable<? extends UnitOfWork<T>> entities) {
-        return Flux.fromIterable(entities).map(this::delete).then();
+        return Flux.fromIterable(entities).flatMap(this::delete).then();
     }
 
     @Override
     public Mono<Void> deleteAll(Publisher<? extends UnitOfWork<T>> entityStream) {
-        return Flux.from(entityStream).map(this::delete).then();
+        return Flux.from(entityStream).flatMap(this::delete).then();
     }
 
     @Override
-    public Mono<Void> deleteAll() {
-        inMemStorage = new ConcurrentHashMap<>();
+    public synchronized Mono<Void> deleteAll() {
+        inMemStorage.clear();
+        indexedKeys.clear();
+        registeredAtIndex.clear();
+        nextAttemptAtIndex.clear();
+        completedAtIndex.clear();
         return Mono.empty();
     }
 
@@ -140,4 +241,117 @@ public class InMemoryReactiveUnitOfWorkRepository<T extends StreamTask> implemen
         return findAll();
 
     }
+
+    private synchronized void remove(String unitOfWorkId) {
+        inMemStorage.remove(unitOfWorkId);
+        reindex(unitOfWorkId, null);
+    }
+
+    private void reindex(String unitOfWorkId, IndexKeys keys) {
+        IndexKeys previous = keys != null ? indexedKeys.put(unitOfWorkId, keys) : indexedKeys.remove(unitOfWorkId);
+        if (previous != null) {
+            update(registeredAtIndex, unitOfWorkId, previous.registeredAt, null);
+            update(nextAttemptAtIndex, unitOfWorkId, previous.nextAttemptAt, null);
+            update(completedAtIndex, unitOfWorkId, previous.completedAt, null);
+        }
+        if (keys != null) {
+            update(registeredAtIndex, unitOfWorkId, null, keys.registeredAt);
+            update(nextAttemptAtIndex, unitOfWorkId, null, keys.nextAttemptAt);
+            update(completedAtIndex, unitOfWorkId, null, keys.completedAt);
+        }
+    }
+
+    private void update(NavigableSet<IndexEntry> index, String unitOfWorkId, OffsetDateTime removed,
+        OffsetDateTime added) {
+        if (removed != null) {
+            index.remove(new IndexEntry(removed, unitOfWorkId));
+        }
+        if (added != null) {
+            index.add(new IndexEntry(added, unitOfWorkId));
+        }
+    }
+
+    private void evictCompleted() {
+        if (completedTtl == null || completedAtIndex.isEmpty()) {
+            return;
+        }
+        OffsetDateTime expiredBefore = OffsetDateTime.now().minus(completedTtl);
+        for (IndexEntry oldest : completedAtIndex) {
+            if (!oldest.timestamp.isBefore(expiredBefore)) {
+                return;
+            }
+            synchronized (this) {
+                IndexKeys keys = indexedKeys.get(oldest.id);
+                if (keys != null && oldest.timestamp.equals(keys.completedAt)) {
+                    log.debug("Evicting completed Unit Of Work: {}", oldest.id);
+                    remove(oldest.id);
+                } else {
+                    completedAtIndex.remove(oldest);
+                }
+            }
+        }
+    }
+
+    private static class IndexKeys {
+
+        private final OffsetDateTime registeredAt;
+        private final OffsetDateTime nextAttemptAt;
+        private final OffsetDateTime completedAt;
+
+        private IndexKeys(OffsetDateTime registeredAt, OffsetDateTime nextAttemptAt, OffsetDateTime completedAt) {
+            this.registeredAt = registeredAt;
+            this.nextAttemptAt = nextAttemptAt;
+            this.completedAt = completedAt;
+        }
+
+        private static IndexKeys of(UnitOfWork<?> unitOfWork) {
+            OffsetDateTime completedAt = null;
+            if (unitOfWork.getState() == UnitOfWork.State.COMPLETED) {
+                completedAt = unitOfWork.getFinishedAt() != null ? unitOfWork.getFinishedAt() : OffsetDateTime.now();
+            }
+            return new IndexKeys(unitOfWork.getRegisteredAt(), unitOfWork.getNextAttemptAt(), completedAt);
+        }
+    }
+
+    private static class IndexEntry implements Comparable<IndexEntry> {
+
+        private static final Comparator<IndexEntry> ORDER = Comparator
+            .comparing((IndexEntry entry) -> entry.timestamp.toInstant())
+            .thenComparing(entry -> entry.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final OffsetDateTime timestamp;
+        private final String id;
+
+        private IndexEntry(OffsetDateTime timestamp, String id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        private static IndexEntry lowest(OffsetDateTime timestamp) {
+            return new IndexEntry(timestamp, null);
+        }
+
+        @Override
+        public int compareTo(IndexEntry other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IndexEntry)) {
+                return false;
+            }
+            IndexEntry that = (IndexEntry) o;
+            return compareTo(that) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(timestamp.toInstant(), id);
+        }
+    }
+
 }
@@ -0,0 +1,483 @@
+package com.backbase.stream.worker.repository.impl;
+
+import com.backbase.stream.worker.model.StreamTask;
+import com.backbase.stream.worker.model.UnitOfWork;
+import com.backbase.stream.worker.repository.UnitOfWorkRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit Of Work Repository backed by R2DBC. Units Of Work of all types share the {@code unit_of_work} table defined in
+ * {@code db/stream-worker/unit-of-work-schema.sql}, discriminated by {@code unit_of_work_type}. Stream Tasks are
+ * stored as JSON. Claims and lease renewals are single conditional updates, so nodes sharing the table never execute
+ * the same Unit Of Work concurrently while its lease is valid.
+ *
+ * @param <T> Stream Task type
+ */
+@Slf4j
+@SuppressWarnings("NullableProblems")
+public class R2dbcUnitOfWorkRepository<T extends StreamTask> implements UnitOfWorkRepository<T, String> {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final String COLUMNS = "unit_of_work_type, unit_of_work_id, state, registered_at, locked_at, "
+        + "next_attempt_at, started_at, finished_at, retries, stream_tasks, locked_by, lease_expires_at, version";
+
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM unit_of_work WHERE unit_of_work_type = :type";
+
+    private static final String UPDATE = "UPDATE unit_of_work SET state = $3, registered_at = $4, locked_at = $5, "
+        + "next_attempt_at = $6, started_at = $7, finished_at = $8, retries = $9, stream_tasks = $10, "
+        + "locked_by = $11, lease_expires_at = $12, version = $13 WHERE unit_of_work_type = $1 AND unit_of_work_id = $2";
+
+    private static final String SAVE_LEASED = UPDATE + " AND locked_by = $14 AND version = $15";
+
+    private static final String INSERT = "INSERT INTO unit_of_work (" + COLUMNS + ") "
+        + "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13)";
+
+    private static final String CLAIM = "UPDATE unit_of_work SET state = 'IN_PROGRESS', locked_at = :now, "
+        + "retries = CASE WHEN state = 'IN_PROGRESS' THEN retries + 1 ELSE retries END, locked_by = :owner, lease_expires_at = :leaseExpiresAt, version = version + 1 "
+        + "WHERE unit_of_work_type = :type AND unit_of_work_id = :id AND version = :version "
+        + "AND (state IN ('ACCEPTED', 'FAILED') OR (state = 'IN_PROGRESS' AND lease_expires_at < :now))";
+
+    private static final String RENEW_LEASE = "UPDATE unit_of_work SET lease_expires_at = :leaseExpiresAt, "
+        + "version = version + 1 WHERE unit_of_work_type = :type AND unit_of_work_id = :id "
+        + "AND state = 'IN_PROGRESS' AND locked_by = :owner";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "unitOfOWorkId", "unit_of_work_id",
+        "state", "state",
+        "registeredAt", "registered_at",
+        "lockedAt", "locked_at",
+        "nextAttemptAt", "next_attempt_at",
+        "startedAt", "started_at",
+        "finishedAt", "finished_at",
+        "retries", "retries");
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+    private final JavaType streamTasksType;
+    private final String type;
+    private final int batchSize;
+
+    public R2dbcUnitOfWorkRepository(DatabaseClient databaseClient, ObjectMapper objectMapper, Class<T> taskType) {
+        this(databaseClient, objectMapper, taskType, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Create R2DBC Unit Of Work Repository.
+     * @param databaseClient Database client
+     * @param objectMapper Object mapper used to (de)serialize Stream Tasks
+     * @param taskType Stream Task type, also used as discriminator for the stored Units Of Work
+     * @param batchSize Number of Units Of Work written per batch in {@code saveAll}
+     */
+    public R2dbcUnitOfWorkRepository(DatabaseClient databaseClient, ObjectMapper objectMapper, Class<T> taskType,
+        int batchSize) {
+        this.databaseClient = databaseClient;
+        this.objectMapper = objectMapper.copy()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.streamTasksType = this.objectMapper.getTypeFactory().constructCollectionType(List.class, taskType);
+        this.type = taskType.getName();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public Flux<UnitOfWork<T>> findAllByRegisteredAtBefore(OffsetDateTime currentDateTime) {
+        return query(SELECT + " AND registered_at < :now ORDER BY registered_at")
+            .bind("now", currentDateTime)
+            .map(this::toUnitOfWork)
+            .all();
+    }
+
+    @Override
+    public Flux<UnitOfWork<T>> findAllByNextAttemptAtBefore(OffsetDateTime currentDateTime) {
+        return query(SELECT + " AND next_attempt_at < :now ORDER BY next_attempt_at")
+            .bind("now", currentDateTime)
+            .map(this::toUnitOfWork)
+            .all();
+    }
+
+    @Override
+    public Flux<UnitOfWork<T>> findAllByStateInAndNextAttemptAtBefore(Collection<UnitOfWork.State> states,
+        OffsetDateTime currentDateTime) {
+        if (states.isEmpty()) {
+            return Flux.empty();
+        }
+        return query(SELECT + " AND state IN (:states) AND next_attempt_at < :now ORDER BY next_attempt_at")
+            .bind("states", states.stream().map(Enum::name).collect(Collectors.toList()))
+            .bind("now", currentDateTime)
+            .map(this::toUnitOfWork)
+            .all();
+    }
+
+    @Override
+    public <S extends UnitOfWork<T>> Mono<S> save(S entity) {
+        return saveBatch(List.of(entity)).next();
+    }
+
+    @Override
+    public <S extends UnitOfWork<T>> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    @Override
+    public <S extends UnitOfWork<T>> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream)
+            .buffer(batchSize)
+            .concatMap(this::saveBatch);
+    }
+
+    /**
+     * Save a batch of Units Of Work on a single connection. All rows are updated in one batched statement, rows that
+     * did not exist yet are inserted in a second one.
+     */
+    private <S extends UnitOfWork<T>> Flux<S> saveBatch(List<S> entities) {
+        List<S> unitsOfWork = new ArrayList<>(entities.size());
+        List<String> streamTasks = new ArrayList<>(entities.size());
+        for (S entity : entities) {
+            if (entity.getUnitOfOWorkId() == null) {
+                entity.setUnitOfOWorkId(UUID.randomUUID().toString());
+            }
+            unitsOfWork.add(entity);
+            streamTasks.add(writeStreamTasks(entity));
+        }
+        return databaseClient.inConnectionMany(connection ->
+            Flux.from(bindAll(connection.createStatement(UPDATE), unitsOfWork, streamTasks).execute())
+                .concatMap(result -> Flux.from(result.getRowsUpdated()).map(Number::longValue).reduce(0L, Long::sum))
+                .collectList()
+                .flatMapMany(updated -> insertMissing(connection, unitsOfWork, streamTasks, updated)));
+    }
+
+    private <S extends UnitOfWork<T>> Flux<S> insertMissing(Connection connection, List<S> unitsOfWork,
+        List<String> streamTasks, List<Long> updated) {
+        List<S> missing = new ArrayList<>();
+        List<String> missingStreamTasks = new ArrayList<>();
+        for (int i = 0; i < unitsOfWork.size(); i++) {
+            if (i >= updated.size() || updated.get(i) == 0) {
+                missing.add(unitsOfWork.get(i));
+                missingStreamTasks.add(streamTasks.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return Flux.fromIterable(unitsOfWork);
+        }
+        log.debug("Inserting {} new Units Of Work of type: {}", missing.size(), type);
+        return Flux.from(bindAll(connection.createStatement(INSERT), missing, missingStreamTasks).execute())
+            .concatMap(result -> Flux.from(result.getRowsUpdated()))
+            .thenMany(Flux.fromIterable(unitsOfWork));
+    }
+
+    private Statement bindAll(Statement statement, List<? extends UnitOfWork<T>> unitsOfWork,
+        List<String> streamTasks) {
+        for (int i = 0; i < unitsOfWork.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            UnitOfWork<T> unitOfWork = unitsOfWork.get(i);
+            statement.bind(0, type);
+            statement.bind(1, unitOfWork.getUnitOfOWorkId());
+            statement.bind(2, unitOfWork.getState() != null ? unitOfWork.getState().name() : UnitOfWork.State.NEW.name());
+            bindTimestamp(statement, 3, unitOfWork.getRegisteredAt());
+            bindTimestamp(statement, 4, unitOfWork.getLockedAt());
+            bindTimestamp(statement, 5, unitOfWork.getNextAttemptAt());
+            bindTimestamp(statement, 6, unitOfWork.getStartedAt());
+            bindTimestamp(statement, 7, unitOfWork.getFinishedAt());
+            statement.bind(8, unitOfWork.getRetries());
+            bindString(statement, 9, streamTasks.get(i));
+            bindString(statement, 10, unitOfWork.getLockedBy());
+            bindTimestamp(statement, 11, unitOfWork.getLeaseExpiresAt());
+            statement.bind(12, unitOfWork.getVersion());
+        }
+        return statement;
+    }
+
+    private void bindString(Statement statement, int index, String value) {
+        if (value != null) {
+            statement.bind(index, value);
+        } else {
+            statement.bindNull(index, String.class);
+        }
+    }
+
+    private void bindTimestamp(Statement statement, int index, OffsetDateTime value) {
+        if (value != null) {
+            statement.bind(index, value);
+        } else {
+            statement.bindNull(index, OffsetDateTime.class);
+        }
+    }
+
+    @Override
+    public Mono<UnitOfWork<T>> claim(UnitOfWork<T> unitOfWork, String owner, Duration leaseDuration) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime leaseExpiresAt = now.plus(leaseDuration);
+        return query(CLAIM)
+            .bind("id", unitOfWork.getUnitOfOWorkId())
+            .bind("version", unitOfWork.getVersion())
+            .bind("now", now)
+            .bind("owner", owner)
+            .bind("leaseExpiresAt", leaseExpiresAt)
+            .fetch()
+            .rowsUpdated()
+            .filter(updated -> updated > 0)
+            .map(updated -> {
+                if (unitOfWork.getState() == UnitOfWork.State.IN_PROGRESS) {
+                    unitOfWork.setRetries(unitOfWork.getRetries() + 1);
+                }
+                unitOfWork.setState(UnitOfWork.State.IN_PROGRESS);
+                unitOfWork.setLockedAt(now);
+                unitOfWork.setLockedBy(owner);
+                unitOfWork.setLeaseExpiresAt(leaseExpiresAt);
+                unitOfWork.setVersion(unitOfWork.getVersion() + 1);
+                return unitOfWork;
+            });
+    }
+
+    @Override
+    public Mono<UnitOfWork<T>> renewLease(UnitOfWork<T> unitOfWork, String owner, Duration leaseDuration) {
+        OffsetDateTime leaseExpiresAt = OffsetDateTime.now().plus(leaseDuration);
+        return query(RENEW_LEASE)
+            .bind("id", unitOfWork.getUnitOfOWorkId())
+            .bind("owner", owner)
+            .bind("leaseExpiresAt", leaseExpiresAt)
+            .fetch()
+            .rowsUpdated()
+            .filter(updated -> updated > 0)
+            .map(updated -> {
+                unitOfWork.setLeaseExpiresAt(leaseExpiresAt);
+                unitOfWork.setVersion(unitOfWork.getVersion() + 1);
+                return unitOfWork;
+            });
+    }
+
+    /**
+     * Save the outcome as a single update conditional on the owner and version of the lease.
+     */
+    @Override
+    public Mono<UnitOfWork<T>> saveLeased(UnitOfWork<T> unitOfWork, String owner, long leaseVersion,
+        Consumer<UnitOfWork<T>> outcome) {
+        outcome.accept(unitOfWork);
+        unitOfWork.setVersion(leaseVersion + 1);
+        String streamTasks = writeStreamTasks(unitOfWork);
+        return databaseClient.inConnection(connection -> Flux.from(
+                bindAll(connection.createStatement(SAVE_LEASED), Collections.singletonList(unitOfWork),
+                        Collections.singletonList(streamTasks))
+                    .bind(13, owner)
+                    .bind(14, leaseVersion)
+                    .execute())
+                .concatMap(result -> Flux.from(result.getRowsUpdated()).map(Number::longValue))
+                .reduce(0L, Long::sum))
+            .filter(updated -> updated > 0)
+            .map(updated -> unitOfWork);
+    }
+
+    @Override
+    public Mono<UnitOfWork<T>> findById(String unitOfWorkId) {
+        return query(SELECT + " AND unit_of_work_id = :id")
+            .bind("id", unitOfWorkId)
+            .map(this::toUnitOfWork)
+            .one();
+    }
+
+    @Override
+    public Mono<UnitOfWork<T>> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String unitOfWorkId) {
+        return query("SELECT COUNT(*) FROM unit_of_work WHERE unit_of_work_type = :type AND unit_of_work_id = :id")
+            .bind("id", unitOfWorkId)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<UnitOfWork<T>> findAll() {
+        return query(SELECT)
+            .map(this::toUnitOfWork)
+            .all();
+    }
+
+    @Override
+    public Flux<UnitOfWork<T>> findAll(Sort sort) {
+        if (sort.isUnsorted()) {
+            return findAll();
+        }
+        String orderBy = sort.stream()
+            .map(order -> toColumn(order.getProperty()) + " " + order.getDirection().name())
+            .collect(Collectors.joining(", "));
+        return query(SELECT + " ORDER BY " + orderBy)
+            .map(this::toUnitOfWork)
+            .all();
+    }
+
+    @Override
+    public Flux<UnitOfWork<T>> findAllById(Iterable<String> ids) {
+        List<String> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return Flux.empty();
+        }
+        return query(SELECT + " AND unit_of_work_id IN (:ids)")
+            .bind("ids", idList)
+            .map(this::toUnitOfWork)
+            .all();
+    }
+
+    @Override
+    public Flux<UnitOfWork<T>> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return query("SELECT COUNT(*) FROM unit_of_work WHERE unit_of_work_type = :type")
+            .map(row -> row.get(0, Long.class))
+            .one();
+    }
+
+    @Override
+    public Mono<Map<UnitOfWork.State, Long>> countByState() {
+        return query("SELECT state, COUNT(*) AS units FROM unit_of_work WHERE unit_of_work_type = :type "
+            + "GROUP BY state")
+            .map(row -> Map.entry(row.get("state", String.class), row.get("units", Long.class)))
+            .all()
+            .filter(entry -> entry.getKey() != null)
+            .collect(() -> new EnumMap<>(UnitOfWork.State.class),
+                (counts, entry) -> counts.put(UnitOfWork.State.valueOf(entry.getKey()), entry.getValue()));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String unitOfWorkId) {
+        return query("DELETE FROM unit_of_work WHERE unit_of_work_type = :type AND unit_of_work_id = :id")
+            .bind("id", unitOfWorkId)
+            .then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(UnitOfWork<T> entity) {
+        return deleteById(entity.getUnitOfOWorkId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        List<String> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return Mono.empty();
+        }
+        return query("DELETE FROM unit_of_work WHERE unit_of_work_type = :type AND unit_of_work_id IN (:ids)")
+            .bind("ids", idList)
+            .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends UnitOfWork<T>> entities) {
+        List<String> ids = new ArrayList<>();
+        entities.forEach(entity -> ids.add(entity.getUnitOfOWorkId()));
+        return deleteAllById(ids);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends UnitOfWork<T>> entityStream) {
+        return Flux.from(entityStream)
+            .map(UnitOfWork::getUnitOfOWorkId)
+            .buffer(batchSize)
+            .concatMap(this::deleteAllById)
+            .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return query("DELETE FROM unit_of_work WHERE unit_of_work_type = :type").then();
+    }
+
+    private GenericExecuteSpec query(String sql) {
+        return databaseClient.sql(sql).bind("type", type);
+    }
+
+    private String toColumn(String property) {
+        String column = SORT_COLUMNS.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("Cannot sort Units Of Work by: " + property);
+        }
+        return column;
+    }
+
+    private UnitOfWork<T> toUnitOfWork(Row row) {
+        UnitOfWork<T> unitOfWork = new UnitOfWork<>();
+        unitOfWork.setUnitOfOWorkId(row.get("unit_of_work_id", String.class));
+        unitOfWork.setState(UnitOfWork.State.valueOf(row.get("state", String.class)));
+        unitOfWork.setRegisteredAt(row.get("registered_at", OffsetDateTime.class));
+        unitOfWork.setLockedAt(row.get("locked_at", OffsetDateTime.class));
+        unitOfWork.setLockedBy(row.get("locked_by", String.class));
+        unitOfWork.setLeaseExpiresAt(row.get("lease_expires_at", OffsetDateTime.class));
+        unitOfWork.setNextAttemptAt(row.get("next_attempt_at", OffsetDateTime.class));
+        unitOfWork.setStartedAt(row.get("started_at", OffsetDateTime.class));
+        unitOfWork.setFinishedAt(row.get("finished_at", OffsetDateTime.class));
+        Integer retries = row.get("retries", Integer.class);
+        unitOfWork.setRetries(retries != null ? retries : 0);
+        Long version = row.get("version", Long.class);
+        unitOfWork.setVersion(version != null ? version : 0);
+        unitOfWork.setStreamTasks(readStreamTasks(unitOfWork.getUnitOfOWorkId(), row.get("stream_tasks", String.class)));
+        return unitOfWork;
+    }
+
+    private String writeStreamTasks(UnitOfWork<T> unitOfWork) {
+        if (unitOfWork.getStreamTasks() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writerFor(streamTasksType).writeValueAsString(unitOfWork.getStreamTasks());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write Stream Tasks of Unit Of Work: "
+                + unitOfWork.getUnitOfOWorkId(), e);
+        }
+    }
+
+    private List<T> readStreamTasks(String unitOfWorkId, String streamTasks) {
+        if (streamTasks == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(streamTasks, streamTasksType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read Stream Tasks of Unit Of Work: " + unitOfWorkId, e);
+        }
+    }
+
+}
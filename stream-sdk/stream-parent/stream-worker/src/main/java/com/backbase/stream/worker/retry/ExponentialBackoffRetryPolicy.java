@@ -0,0 +1,111 @@
+package com.backbase.stream.worker.retry;
+
+import com.backbase.stream.worker.configuration.StreamWorkerConfiguration;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Retry policy with exponential backoff and jitter, starting at {@link StreamWorkerConfiguration#getRetryDuration()}.
+ * Client errors returned by DBS, except {@code 408} and {@code 429}, are not retried. A {@code Retry-After} header on a
+ * retryable response delays the next attempt at least until the time requested. Requests rejected by an open circuit
+ * breaker of the DBS web client fail fast as {@code 503} with {@code Retry-After} set to the time the breaker stays
+ * open, so they are retried once the breaker lets requests through again.
+ */
+@Slf4j
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    private static final Set<Integer> RETRYABLE_CLIENT_ERRORS = Set.of(408, 429);
+
+    private final StreamWorkerConfiguration configuration;
+
+    public ExponentialBackoffRetryPolicy(StreamWorkerConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public Duration nextAttemptDelay(int retries, List<Throwable> failures) {
+        Duration retryAfter = Duration.ZERO;
+        boolean retryable = failures.isEmpty();
+        for (Throwable failure : failures) {
+            WebClientResponseException response = findResponseException(failure);
+            if (response == null) {
+                retryable = true;
+            } else if (isRetryable(response.getRawStatusCode())) {
+                retryable = true;
+                Duration requested = getRetryAfter(response);
+                if (requested.compareTo(retryAfter) > 0) {
+                    retryAfter = requested;
+                }
+            } else {
+                log.debug("Failure with status: {} is not retryable", response.getRawStatusCode());
+            }
+        }
+        if (!retryable) {
+            return null;
+        }
+        Duration backoff = backoff(retries);
+        return backoff.compareTo(retryAfter) >= 0 ? backoff : retryAfter;
+    }
+
+    private Duration backoff(int retries) {
+        long initial = toMillis(configuration.getRetryDuration());
+        double multiplier = Math.max(1.0, configuration.getRetryBackoffMultiplier());
+        double delay = initial * Math.pow(multiplier, retries);
+        Duration maxDuration = configuration.getRetryMaxDuration();
+        if (maxDuration != null) {
+            delay = Math.min(delay, maxDuration.toMillis());
+        }
+        double jitter = Math.min(1.0, Math.max(0.0, configuration.getRetryJitter()));
+        if (jitter > 0 && delay > 0) {
+            delay = delay * (1 - jitter) + ThreadLocalRandom.current().nextDouble(delay * jitter * 2);
+        }
+        return Duration.ofMillis((long) delay);
+    }
+
+    private boolean isRetryable(int status) {
+        return status < 400 || status >= 500 || RETRYABLE_CLIENT_ERRORS.contains(status);
+    }
+
+    private Duration getRetryAfter(WebClientResponseException response) {
+        String retryAfter = response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                Duration until = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return until.isNegative() ? Duration.ZERO : until;
+            } catch (DateTimeParseException ignored) {
+                log.debug("Ignoring invalid Retry-After header: {}", retryAfter);
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    private WebClientResponseException findResponseException(Throwable failure) {
+        Throwable current = failure;
+        while (current != null) {
+            if (current instanceof WebClientResponseException) {
+                return (WebClientResponseException) current;
+            }
+            current = current.getCause() != current ? current.getCause() : null;
+        }
+        return null;
+    }
+
+    private long toMillis(Duration duration) {
+        return duration != null ? duration.toMillis() : 0;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.backbase.stream.worker.retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Decides if and when a failed Unit Of Work is attempted again.
+ */
+public interface RetryPolicy {
+
+    /**
+     * Calculate the delay before the next attempt of a failed Unit Of Work.
+     * @param retries Number of retries already done
+     * @param failures Failures of the last attempt. Empty when the cause is unknown
+     * @return Delay before the next attempt, or null when the failures must not be retried
+     */
+    Duration nextAttemptDelay(int retries, List<Throwable> failures);
+
+}
@@ -0,0 +1 @@
+package com.backbase.stream.worker.retry;
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.backbase.stream.worker.stage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Graph of stages working on the same subject, each declaring the stages it depends on. A stage starts as soon as all
+ * of its dependencies completed, so stages without a path between them run concurrently.
+ *
+ * <p>A stage completing empty skips all stages depending on it, and the graph completes empty once the remaining
+ * stages finished, like an empty step ends a chain of {@code flatMap} calls. The first error fails the graph; stages
+ * depending on the failed stage are not started.</p>
+ *
+ * <p>Stages are declared after their dependencies, which keeps the graph acyclic.</p>
+ *
+ * @param <T> Type of the subject
+ */
+@Slf4j
+public class StageGraph<T> {
+
+    private final String name;
+    private final Map<String, Stage<T>> stages;
+
+    private StageGraph(String name, Map<String, Stage<T>> stages) {
+        this.name = name;
+        this.stages = stages;
+    }
+
+    public static <T> Builder<T> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Stages in declaration order.
+     * @return Stages
+     */
+    public List<Stage<T>> getStages() {
+        return new ArrayList<>(stages.values());
+    }
+
+    /**
+     * Stage declared under the given name.
+     * @param stageName Name of the stage
+     * @return Stage, or null if not declared
+     */
+    public Stage<T> getStage(String stageName) {
+        return stages.get(stageName);
+    }
+
+    /**
+     * Run all stages on the subject.
+     * @param subject Subject passed to every stage
+     * @return Subject once all stages completed, empty if a stage completed empty
+     */
+    public Mono<T> execute(T subject) {
+        return Mono.defer(() -> {
+            Map<String, Mono<Boolean>> completions = new LinkedHashMap<>();
+            stages.values().forEach(stage -> completions.put(stage.getName(), completion(stage, subject, completions)));
+            return Flux.fromIterable(completions.values())
+                .flatMap(Function.identity(), Math.max(1, completions.size()))
+                .collectList()
+                .filter(completed -> !completed.contains(Boolean.FALSE))
+                .map(completed -> subject);
+        });
+    }
+
+    private Mono<Boolean> completion(Stage<T> stage, T subject, Map<String, Mono<Boolean>> completions) {
+        Mono<Boolean> ready = Flux.fromIterable(stage.getDependencies())
+            .flatMap(completions::get)
+            .collectList()
+            .map(completed -> !completed.contains(Boolean.FALSE));
+        return ready
+            .flatMap(dependenciesCompleted -> {
+                if (!dependenciesCompleted) {
+                    log.debug("Skipping stage: {} of: {} as a dependency completed empty", stage.getName(), name);
+                    return Mono.just(Boolean.FALSE);
+                }
+                log.debug("Starting stage: {} of: {}", stage.getName(), name);
+                return Mono.defer(() -> stage.getAction().apply(subject))
+                    .map(result -> Boolean.TRUE)
+                    .defaultIfEmpty(Boolean.FALSE);
+            })
+            .cache();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(name).append(':');
+        stages.values().forEach(stage -> builder.append(' ').append(stage));
+        return builder.toString();
+    }
+
+    /**
+     * Stage of a graph.
+     * @param <T> Type of the subject
+     */
+    public static final class Stage<T> {
+
+        private final String name;
+        private final List<String> dependencies;
+        private final Function<T, Mono<T>> action;
+
+        private Stage(String name, List<String> dependencies, Function<T, Mono<T>> action) {
+            this.name = name;
+            this.dependencies = dependencies;
+            this.action = action;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+
+        Function<T, Mono<T>> getAction() {
+            return action;
+        }
+
+        @Override
+        public String toString() {
+            return name + dependencies;
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final String name;
+        private final Map<String, Stage<T>> stages = new LinkedHashMap<>();
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Declare a stage.
+         * @param stageName Unique name of the stage
+         * @param action Action to run on the subject
+         * @param dependencies Names of previously declared stages which must complete first
+         * @return This builder
+         */
+        public Builder<T> stage(String stageName, Function<T, Mono<T>> action, String... dependencies) {
+            if (stages.containsKey(stageName)) {
+                throw new IllegalArgumentException("Stage: " + stageName + " already declared in: " + name);
+            }
+            for (String dependency : dependencies) {
+                if (!stages.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Stage: " + stageName + " depends on: " + dependency
+                        + " which is not declared before it in: " + name);
+                }
+            }
+            stages.put(stageName, new Stage<>(stageName, List.of(dependencies), action));
+            return this;
+        }
+
+        public StageGraph<T> build() {
+            return new StageGraph<>(name, Collections.unmodifiableMap(new LinkedHashMap<>(stages)));
+        }
+    }
+
+}
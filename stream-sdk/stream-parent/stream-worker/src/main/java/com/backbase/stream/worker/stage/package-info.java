@@ -0,0 +1 @@
+package com.backbase.stream.worker.stage;
\ No newline at end of file
@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS unit_of_work
+(
+    unit_of_work_type VARCHAR(255) NOT NULL,
+    unit_of_work_id   VARCHAR(255) NOT NULL,
+    state             VARCHAR(32)  NOT NULL,
+    registered_at     TIMESTAMP WITH TIME ZONE,
+    locked_at         TIMESTAMP WITH TIME ZONE,
+    locked_by         VARCHAR(255),
+    lease_expires_at  TIMESTAMP WITH TIME ZONE,
+    next_attempt_at   TIMESTAMP WITH TIME ZONE,
+    started_at        TIMESTAMP WITH TIME ZONE,
+    finished_at       TIMESTAMP WITH TIME ZONE,
+    retries           INTEGER      NOT NULL DEFAULT 0,
+    stream_tasks      VARCHAR,
+    version           BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (unit_of_work_type, unit_of_work_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_unit_of_work_due ON unit_of_work (unit_of_work_type, state, next_attempt_at);
+
+CREATE INDEX IF NOT EXISTS idx_unit_of_work_registered ON unit_of_work (unit_of_work_type, registered_at);
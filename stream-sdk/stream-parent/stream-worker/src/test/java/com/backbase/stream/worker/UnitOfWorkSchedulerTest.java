@@ -0,0 +1,196 @@
+package com.backbase.stream.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.backbase.stream.worker.configuration.StreamWorkerConfiguration;
+import com.backbase.stream.worker.model.TestTask;
+import com.backbase.stream.worker.model.UnitOfWork;
+import com.backbase.stream.worker.repository.impl.InMemoryReactiveUnitOfWorkRepository;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class UnitOfWorkSchedulerTest {
+
+    private final InMemoryReactiveUnitOfWorkRepository<TestTask> repository =
+        new InMemoryReactiveUnitOfWorkRepository<>();
+    private final TestWorkerConfiguration configuration = new TestWorkerConfiguration();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final List<String> executedTasks = new CopyOnWriteArrayList<>();
+    private Function<TestTask, Mono<TestTask>> execution = Mono::just;
+
+    private TestUnitOfWorkExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        configuration.setMaxRetries(1);
+        configuration.setRetryDuration(Duration.ZERO);
+        StreamTaskExecutor<TestTask> taskExecutor = new StreamTaskExecutor<>() {
+            @Override
+            public Mono<TestTask> executeTask(TestTask streamTask) {
+                executedTasks.add(streamTask.getId());
+                if (failuresLeft.getAndDecrement() > 0) {
+                    return Mono.error(new IllegalStateException("boom"));
+                }
+                return execution.apply(streamTask);
+            }
+
+            @Override
+            public Mono<TestTask> rollBack(TestTask streamTask) {
+                return Mono.just(streamTask);
+            }
+        };
+        executor = new TestUnitOfWorkExecutor(repository, taskExecutor, configuration);
+    }
+
+    @Test
+    void pollExecutesRegisteredUnitOfWork() {
+        UnitOfWork<TestTask> unitOfWork = register("uow-1");
+
+        StepVerifier.create(new UnitOfWorkScheduler<>(executor).poll()).verifyComplete();
+
+        assertEquals(UnitOfWork.State.COMPLETED, unitOfWork.getState());
+        assertNull(unitOfWork.getNextAttemptAt());
+    }
+
+    @Test
+    void pollRetriesFailedUnitOfWorkUntilRetriesExhausted() {
+        failuresLeft.set(2);
+        UnitOfWork<TestTask> unitOfWork = register("uow-2");
+        UnitOfWorkScheduler<TestTask> scheduler = new UnitOfWorkScheduler<>(executor);
+
+        StepVerifier.create(scheduler.poll()).verifyComplete();
+        assertEquals(UnitOfWork.State.FAILED, unitOfWork.getState());
+        assertEquals(1, unitOfWork.getRetries());
+
+        makeDue(unitOfWork);
+        StepVerifier.create(scheduler.poll()).verifyComplete();
+        assertEquals(UnitOfWork.State.FAILED_RETRIES_EXHAUSTED, unitOfWork.getState());
+        assertNull(unitOfWork.getNextAttemptAt());
+
+        StepVerifier.create(scheduler.poll()).verifyComplete();
+        assertEquals(UnitOfWork.State.FAILED_RETRIES_EXHAUSTED, unitOfWork.getState());
+    }
+
+    @Test
+    void pollRetriesOnlyFailedTasksWhenIsolatingTaskFailures() {
+        configuration.setIsolateTaskFailures(true);
+        failuresLeft.set(1);
+        UnitOfWork<TestTask> unitOfWork = register("uow-3", "task-a", "task-b");
+        UnitOfWorkScheduler<TestTask> scheduler = new UnitOfWorkScheduler<>(executor);
+
+        StepVerifier.create(scheduler.poll()).verifyComplete();
+        assertEquals(UnitOfWork.State.FAILED, unitOfWork.getState());
+        assertTrue(unitOfWork.getStreamTasks().get(0).isFailed());
+        assertTrue(unitOfWork.getStreamTasks().get(1).isCompleted());
+
+        makeDue(unitOfWork);
+        StepVerifier.create(scheduler.poll()).verifyComplete();
+        assertEquals(UnitOfWork.State.COMPLETED, unitOfWork.getState());
+        assertEquals(List.of("task-a", "task-b", "task-a"), executedTasks);
+    }
+
+    @Test
+    void pollCountsReclaimOfExpiredLeaseAsRetry() {
+        UnitOfWork<TestTask> unitOfWork = register("uow-4");
+        reclaim(unitOfWork);
+
+        StepVerifier.create(new UnitOfWorkScheduler<>(executor).poll()).verifyComplete();
+
+        assertEquals(UnitOfWork.State.COMPLETED, unitOfWork.getState());
+        assertEquals(1, unitOfWork.getRetries());
+    }
+
+    @Test
+    void pollDoesNotExecuteReclaimedUnitOfWorkWithRetriesExhausted() {
+        UnitOfWork<TestTask> unitOfWork = register("uow-5");
+        unitOfWork.setRetries(1);
+        reclaim(unitOfWork);
+
+        StepVerifier.create(new UnitOfWorkScheduler<>(executor).poll()).verifyComplete();
+
+        assertEquals(UnitOfWork.State.FAILED_RETRIES_EXHAUSTED, unitOfWork.getState());
+        assertEquals(2, unitOfWork.getRetries());
+        assertTrue(executedTasks.isEmpty());
+    }
+
+    @Test
+    void pollDropsOutcomeWhenUnitOfWorkWasReclaimed() {
+        UnitOfWork<TestTask> unitOfWork = register("uow-6");
+        execution = task -> {
+            reclaim(unitOfWork);
+            return Mono.just(task);
+        };
+
+        StepVerifier.create(new UnitOfWorkScheduler<>(executor).poll()).verifyComplete();
+
+        assertEquals(UnitOfWork.State.IN_PROGRESS, unitOfWork.getState());
+        assertEquals("other-node", unitOfWork.getLockedBy());
+        assertNull(unitOfWork.getFinishedAt());
+    }
+
+    @Test
+    void pollStopsExecutionWhenLeaseIsLost() {
+        configuration.setLeaseHeartbeatInterval(Duration.ofMillis(10));
+        UnitOfWork<TestTask> unitOfWork = register("uow-7");
+        execution = task -> {
+            reclaim(unitOfWork);
+            return Mono.never();
+        };
+
+        StepVerifier.create(new UnitOfWorkScheduler<>(executor).poll())
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(UnitOfWork.State.IN_PROGRESS, unitOfWork.getState());
+        assertEquals("other-node", unitOfWork.getLockedBy());
+    }
+
+    /**
+     * Let the lease expire and claim the Unit Of Work by another node.
+     */
+    private void reclaim(UnitOfWork<TestTask> unitOfWork) {
+        unitOfWork.setLeaseExpiresAt(OffsetDateTime.now().minusSeconds(1));
+        repository.claim(unitOfWork, "other-node", Duration.ZERO).subscribe();
+    }
+
+    private UnitOfWork<TestTask> register(String id) {
+        return register(id, id + "-task");
+    }
+
+    private UnitOfWork<TestTask> register(String id, String... taskIds) {
+        UnitOfWork<TestTask> unitOfWork = UnitOfWork.from(id, Arrays.stream(taskIds)
+            .map(TestTask::new)
+            .collect(Collectors.toList()));
+        executor.register(unitOfWork).block();
+        makeDue(unitOfWork);
+        return unitOfWork;
+    }
+
+    private void makeDue(UnitOfWork<TestTask> unitOfWork) {
+        unitOfWork.setNextAttemptAt(unitOfWork.getNextAttemptAt().minusSeconds(1));
+    }
+
+    static class TestWorkerConfiguration extends StreamWorkerConfiguration {
+
+    }
+
+    static class TestUnitOfWorkExecutor extends UnitOfWorkExecutor<TestTask> {
+
+        TestUnitOfWorkExecutor(InMemoryReactiveUnitOfWorkRepository<TestTask> repository,
+            StreamTaskExecutor<TestTask> streamTaskExecutor, StreamWorkerConfiguration configuration) {
+            super(repository, streamTaskExecutor, configuration);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.backbase.stream.worker.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.backbase.stream.worker.model.TestTask;
+import com.backbase.stream.worker.model.UnitOfWork;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.test.StepVerifier;
+
+class UnitOfWorkMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UnitOfWorkMetrics metrics = new UnitOfWorkMetrics(registry, "test",
+        () -> Mono.just(Map.of(UnitOfWork.State.FAILED, 3L, UnitOfWork.State.COMPLETED, 5L)), () -> 2,
+        Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        TaskHistoryMetrics.setRegistry(Metrics.globalRegistry);
+    }
+
+    @Test
+    void countsUnitsOfWorkByResultingState() {
+        metrics.unitOfWorkRegistered();
+        metrics.unitOfWorkStarted();
+        UnitOfWork<TestTask> unitOfWork = new UnitOfWork<>();
+        unitOfWork.setState(UnitOfWork.State.FAILED_RETRIES_EXHAUSTED);
+        metrics.unitOfWorkFinished(unitOfWork);
+
+        assertEquals(1, registry.get("stream.unit-of-work.registered").tag("executor", "test").counter().count());
+        assertEquals(1, registry.get("stream.unit-of-work.finished")
+            .tag("state", "FAILED_RETRIES_EXHAUSTED").counter().count());
+        assertEquals(1, registry.get("stream.unit-of-work.active").gauge().value());
+
+        metrics.unitOfWorkEnded();
+        assertEquals(0, registry.get("stream.unit-of-work.active").gauge().value());
+    }
+
+    @Test
+    void timesTasksByTypeAndResult() {
+        long startedAt = metrics.taskStarted();
+        assertEquals(1, registry.get("stream.task.active").gauge().value());
+
+        metrics.taskFinished(new TestTask("task"), startedAt, SignalType.ON_ERROR);
+
+        assertEquals(1, registry.get("stream.task.duration")
+            .tags("task", "TestTask", "result", "failed").timer().count());
+        assertEquals(0, registry.get("stream.task.active").gauge().value());
+        assertEquals(2, registry.get("stream.task.queued").gauge().value());
+    }
+
+    @Test
+    void refreshUpdatesRepositoryStateGauges() {
+        StepVerifier.create(metrics.refresh()).verifyComplete();
+
+        assertEquals(3, registry.get("stream.unit-of-work.stored").tag("state", "FAILED").gauge().value());
+        assertEquals(5, registry.get("stream.unit-of-work.stored").tag("state", "COMPLETED").gauge().value());
+        assertEquals(0, registry.get("stream.unit-of-work.stored").tag("state", "ACCEPTED").gauge().value());
+    }
+
+    @Test
+    void countsTaskHistoryByEntityOperationAndSeverity() {
+        TaskHistoryMetrics.setRegistry(registry);
+        TestTask task = new TestTask("task");
+
+        task.info("legal-entity", "upsert", "created", "external", "internal", "Created %s", "external");
+        task.info("legal-entity", "upsert", "created", "external-2", "internal-2", "Created %s", "external-2");
+        task.error("legal-entity", "upsert", "failed", "external-3", null, "Failed");
+
+        assertEquals(2, registry.get("stream.task.history")
+            .tags("entity", "legal-entity", "operation", "upsert", "severity", "INFO").counter().count());
+        assertEquals(1, registry.get("stream.task.history")
+            .tags("severity", "ERROR").counter().count());
+        assertTrue(registry.find("stream.task.history").tagKeys("result").counters().isEmpty());
+    }
+}
@@ -0,0 +1,117 @@
+package com.backbase.stream.worker.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class TaskHistoryLogTest {
+
+    @Test
+    void keepsEntriesInInsertionOrderAcrossSeverities() {
+        TaskHistoryLog history = new TaskHistoryLog(10, 10, 10);
+        history.add(entry(TaskHistory.Severity.INFO, "1"));
+        history.add(entry(TaskHistory.Severity.ERROR, "2"));
+        history.add(entry(TaskHistory.Severity.WARN, "3"));
+        history.add(entry(TaskHistory.Severity.INFO, "4"));
+
+        assertEquals(List.of("1", "2", "3", "4"), messages(history));
+        assertEquals("2", history.get(1).getMessage());
+    }
+
+    @Test
+    void dropsOldestEntriesPerSeverity() {
+        TaskHistoryLog history = new TaskHistoryLog(2, 2, 2);
+        history.add(entry(TaskHistory.Severity.ERROR, "error"));
+        for (int i = 0; i < 20; i++) {
+            history.add(entry(TaskHistory.Severity.INFO, "info " + i));
+        }
+
+        assertEquals(List.of("error", "info 18", "info 19"), messages(history));
+        assertEquals(Map.of(TaskHistory.Severity.INFO, 18L), history.getDropped());
+    }
+
+    @Test
+    void unboundedWhenLimitIsZero() {
+        TaskHistoryLog history = new TaskHistoryLog(0, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            history.add(entry(TaskHistory.Severity.INFO, "info " + i));
+        }
+
+        assertEquals(100, history.size());
+        assertTrue(history.getDropped().isEmpty());
+    }
+
+    @Test
+    void unboundedByDefault() {
+        TestTask task = new TestTask("task");
+        for (int i = 0; i < 500; i++) {
+            task.info("entity", "create", "created", "external", "internal", "Created %d", i);
+        }
+
+        assertEquals(500, task.getHistory().size());
+    }
+
+    @Test
+    void limitHistoryKeepsNewestEntries() {
+        TestTask task = new TestTask("task");
+        task.error("entity", "create", "failed", "external", "internal", "Failed");
+        for (int i = 0; i < 5; i++) {
+            task.info("entity", "create", "created", "external", "internal", "Created %d", i);
+        }
+
+        task.limitHistory(2, 2, 2);
+        task.info("entity", "create", "created", "external", "internal", "Created %d", 5);
+
+        assertEquals(List.of("Failed", "Created 4", "Created 5"), messages(task.getHistory()));
+    }
+
+    @Test
+    void childHistoryIsSharedNotCopied() {
+        TestTask child = new TestTask("child");
+        child.info("entity", "create", "created", "external", "internal", "Created %s", "child");
+        TestTask parent = new TestTask("parent");
+
+        parent.addHistory(child.getHistory());
+
+        assertEquals(1, parent.getHistory().size());
+        assertSame(child.getHistory().get(0), parent.getHistory().get(0));
+    }
+
+    @Test
+    void messageIsFormattedOnFirstRead() {
+        TestTask task = new TestTask("task");
+        task.warn("entity", "update", "skipped", "external", "internal", "Skipped %s of %d", "item", 3);
+        task.info("entity", "update", "done", "external", "internal", "100%% done");
+
+        TaskHistory taskHistory = task.getHistory().get(0);
+        assertEquals("Skipped item of 3", taskHistory.getMessage());
+        assertEquals("100% done", task.getHistory().get(1).getMessage());
+        assertTrue(taskHistory.toDisplayString().endsWith("external - Skipped item of 3"));
+    }
+
+    @Test
+    void setHistoryKeepsHistoryBounded() {
+        TestTask task = new TestTask("task");
+        task.setHistory(Collections.singletonList(entry(TaskHistory.Severity.INFO, "restored")));
+
+        assertTrue(task.getHistory() instanceof TaskHistoryLog);
+        assertEquals(List.of("restored"), messages(task.getHistory()));
+    }
+
+    private static TaskHistory entry(TaskHistory.Severity severity, String message) {
+        TaskHistory taskHistory = new TaskHistory();
+        taskHistory.setSeverity(severity);
+        taskHistory.setMessage(message);
+        return taskHistory;
+    }
+
+    private static List<String> messages(List<TaskHistory> history) {
+        return history.stream().map(TaskHistory::getMessage).collect(Collectors.toList());
+    }
+}
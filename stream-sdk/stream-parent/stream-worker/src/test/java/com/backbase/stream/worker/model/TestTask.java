@@ -0,0 +1,30 @@
+package com.backbase.stream.worker.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stream Task used by the tests of this module, named after its id.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class TestTask extends StreamTask {
+
+    private String payload;
+
+    public TestTask(String id) {
+        super(id);
+    }
+
+    public TestTask(String id, String payload) {
+        super(id);
+        this.payload = payload;
+    }
+
+    @Override
+    public String getName() {
+        return getId();
+    }
+}
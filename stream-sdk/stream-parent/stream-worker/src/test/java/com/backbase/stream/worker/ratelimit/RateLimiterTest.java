@@ -0,0 +1,63 @@
+package com.backbase.stream.worker.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class RateLimiterTest {
+
+    @Test
+    void disabledWhenNotConfigured() {
+        assertFalse(new RateLimiter(-1, 0).isEnabled());
+    }
+
+    @Test
+    void limitsPermitsPerSecond() {
+        RateLimiter rateLimiter = new RateLimiter(20, -1);
+
+        long start = System.nanoTime();
+        StepVerifier.create(Flux.range(0, 6).flatMap(i -> rateLimiter.limit(Mono.just(i))))
+            .expectNextCount(6)
+            .verifyComplete();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 240);
+    }
+
+    @Test
+    void limitsConcurrentPermits() {
+        RateLimiter rateLimiter = new RateLimiter(-1, 2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        Mono<Integer> task = Mono.fromCallable(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return 1;
+            })
+            .delayElement(Duration.ofMillis(20))
+            .doOnTerminate(inFlight::decrementAndGet);
+
+        StepVerifier.create(Flux.range(0, 10).flatMap(i -> rateLimiter.limit(task)))
+            .expectNextCount(10)
+            .verifyComplete();
+
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void releasesPermitOnError() {
+        RateLimiter rateLimiter = new RateLimiter(-1, 1);
+
+        StepVerifier.create(rateLimiter.limit(Mono.error(new IllegalStateException("boom"))))
+            .verifyError(IllegalStateException.class);
+        StepVerifier.create(rateLimiter.limit(Mono.just(1)))
+            .expectNext(1)
+            .verifyComplete();
+    }
+}
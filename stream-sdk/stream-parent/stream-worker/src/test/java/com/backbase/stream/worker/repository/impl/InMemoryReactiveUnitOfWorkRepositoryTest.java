@@ -0,0 +1,83 @@
+package com.backbase.stream.worker.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.backbase.stream.worker.model.TestTask;
+import com.backbase.stream.worker.model.UnitOfWork;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+class InMemoryReactiveUnitOfWorkRepositoryTest {
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    @Test
+    void findsUnitsOfWorkByIndexedNextAttempt() {
+        InMemoryReactiveUnitOfWorkRepository<TestTask> repository = new InMemoryReactiveUnitOfWorkRepository<>();
+        repository.save(unitOfWork("uow-1", now.minusMinutes(1))).block();
+        repository.save(unitOfWork("uow-2", now.plusMinutes(1))).block();
+        UnitOfWork<TestTask> rescheduled = unitOfWork("uow-3", now.minusMinutes(2));
+        repository.save(rescheduled).block();
+
+        rescheduled.setNextAttemptAt(now.plusMinutes(5));
+        repository.save(rescheduled).block();
+
+        StepVerifier.create(repository.findAllByNextAttemptAtBefore(now).map(UnitOfWork::getUnitOfOWorkId))
+            .expectNext("uow-1")
+            .verifyComplete();
+        StepVerifier.create(repository.findAllByNextAttemptAtBefore(now.plusMinutes(10))
+                .map(UnitOfWork::getUnitOfOWorkId))
+            .expectNext("uow-1", "uow-2", "uow-3")
+            .verifyComplete();
+
+        repository.deleteById("uow-1").block();
+        StepVerifier.create(repository.findAllByNextAttemptAtBefore(now)).verifyComplete();
+        StepVerifier.create(repository.findAllById(List.of("uow-2", "uow-3", "unknown")))
+            .expectNextCount(2)
+            .verifyComplete();
+    }
+
+    @Test
+    void evictsCompletedUnitsOfWorkAfterTtl() {
+        InMemoryReactiveUnitOfWorkRepository<TestTask> repository =
+            new InMemoryReactiveUnitOfWorkRepository<>(Duration.ofMinutes(10));
+        UnitOfWork<TestTask> expired = unitOfWork("uow-1", null);
+        expired.setState(UnitOfWork.State.COMPLETED);
+        expired.setFinishedAt(now.minusMinutes(11));
+        UnitOfWork<TestTask> recent = unitOfWork("uow-2", null);
+        recent.setState(UnitOfWork.State.COMPLETED);
+        recent.setFinishedAt(now.minusMinutes(1));
+
+        repository.save(expired).block();
+        repository.save(recent).block();
+
+        StepVerifier.create(repository.findById("uow-1")).verifyComplete();
+        StepVerifier.create(repository.count()).expectNext(1L).verifyComplete();
+    }
+
+    @Test
+    void claimsUnitOfWorkOnceUntilLeaseExpires() {
+        InMemoryReactiveUnitOfWorkRepository<TestTask> repository = new InMemoryReactiveUnitOfWorkRepository<>();
+        UnitOfWork<TestTask> unitOfWork = unitOfWork("uow-1", now);
+        unitOfWork.setState(UnitOfWork.State.ACCEPTED);
+        repository.save(unitOfWork).block();
+
+        StepVerifier.create(repository.claim(unitOfWork, "node-1", Duration.ofMillis(-1)))
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(repository.renewLease(unitOfWork, "node-2", Duration.ofMinutes(5))).verifyComplete();
+        StepVerifier.create(repository.claim(unitOfWork, "node-2", Duration.ofMinutes(5)))
+            .assertNext(claimed -> assertEquals("node-2", claimed.getLockedBy()))
+            .verifyComplete();
+        StepVerifier.create(repository.claim(unitOfWork, "node-1", Duration.ofMinutes(5))).verifyComplete();
+    }
+
+    private UnitOfWork<TestTask> unitOfWork(String id, OffsetDateTime nextAttemptAt) {
+        UnitOfWork<TestTask> unitOfWork = UnitOfWork.from(id, new TestTask(id));
+        unitOfWork.setNextAttemptAt(nextAttemptAt);
+        return unitOfWork;
+    }
+}
@@ -0,0 +1,135 @@
+package com.backbase.stream.worker.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.backbase.stream.worker.model.TestTask;
+import com.backbase.stream.worker.model.UnitOfWork;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+class R2dbcUnitOfWorkRepositoryTest {
+
+    private R2dbcUnitOfWorkRepository<TestTask> repository;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///unit-of-work;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("db/stream-worker/unit-of-work-schema.sql"))
+            .populate(connectionFactory)
+            .block();
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        repository = new R2dbcUnitOfWorkRepository<>(DatabaseClient.create(connectionFactory), objectMapper,
+            TestTask.class, 2);
+        repository.deleteAll().block();
+    }
+
+    @Test
+    void saveInsertsAndUpdatesUnitOfWork() {
+        UnitOfWork<TestTask> unitOfWork = UnitOfWork.from("uow-1", new TestTask("task-1", "payload"));
+        repository.save(unitOfWork).block();
+
+        unitOfWork.setState(UnitOfWork.State.FAILED);
+        unitOfWork.setRetries(2);
+        unitOfWork.getStreamTasks().get(0).info("entity", "operation", "result", "ext", "int", "message %s", 1);
+        repository.save(unitOfWork).block();
+
+        StepVerifier.create(repository.findById("uow-1"))
+            .assertNext(actual -> {
+                assertEquals(UnitOfWork.State.FAILED, actual.getState());
+                assertEquals(2, actual.getRetries());
+                assertEquals("payload", actual.getStreamTasks().get(0).getPayload());
+                assertEquals("message 1", actual.getStreamTasks().get(0).getHistory().get(0).getMessage());
+            })
+            .verifyComplete();
+        StepVerifier.create(repository.count()).expectNext(1L).verifyComplete();
+    }
+
+    @Test
+    void findsDueUnitsOfWorkByState() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UnitOfWork<TestTask>> unitsOfWork = IntStream.range(0, 5)
+            .mapToObj(i -> {
+                UnitOfWork<TestTask> unitOfWork = UnitOfWork.from("uow-" + i, new TestTask("task-" + i, "p"));
+                unitOfWork.setState(i % 2 == 0 ? UnitOfWork.State.ACCEPTED : UnitOfWork.State.COMPLETED);
+                unitOfWork.setNextAttemptAt(now.minusMinutes(i));
+                return unitOfWork;
+            })
+            .collect(Collectors.toList());
+        StepVerifier.create(repository.saveAll(unitsOfWork)).expectNextCount(5).verifyComplete();
+
+        StepVerifier.create(repository.findAllByStateInAndNextAttemptAtBefore(
+                EnumSet.of(UnitOfWork.State.ACCEPTED), now.minusSeconds(30))
+                .map(UnitOfWork::getUnitOfOWorkId))
+            .expectNext("uow-4", "uow-2")
+            .verifyComplete();
+        StepVerifier.create(repository.findAllById(List.of("uow-1", "uow-3", "unknown")))
+            .expectNextCount(2)
+            .verifyComplete();
+
+        repository.deleteAllById(List.of("uow-0", "uow-1")).block();
+        StepVerifier.create(repository.count()).expectNext(3L).verifyComplete();
+    }
+
+    @Test
+    void claimsUnitOfWorkOnceUntilLeaseExpires() {
+        UnitOfWork<TestTask> unitOfWork = UnitOfWork.from("uow-1", new TestTask("task-1", "payload"));
+        unitOfWork.setState(UnitOfWork.State.ACCEPTED);
+        repository.save(unitOfWork).block();
+        UnitOfWork<TestTask> otherNodeCopy = repository.findById("uow-1").block();
+
+        StepVerifier.create(repository.claim(unitOfWork, "node-1", Duration.ofMinutes(5)))
+            .assertNext(claimed -> assertEquals("node-1", claimed.getLockedBy()))
+            .verifyComplete();
+        StepVerifier.create(repository.claim(otherNodeCopy, "node-2", Duration.ofMinutes(5))).verifyComplete();
+        StepVerifier.create(repository.renewLease(unitOfWork, "node-2", Duration.ofMinutes(5))).verifyComplete();
+        StepVerifier.create(repository.renewLease(unitOfWork, "node-1", Duration.ofMillis(-1)))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        UnitOfWork<TestTask> expired = repository.findById("uow-1").block();
+        StepVerifier.create(repository.claim(expired, "node-2", Duration.ofMinutes(5)))
+            .assertNext(claimed -> assertEquals("node-2", claimed.getLockedBy()))
+            .verifyComplete();
+        StepVerifier.create(repository.renewLease(unitOfWork, "node-1", Duration.ofMinutes(5))).verifyComplete();
+    }
+
+    @Test
+    void savesOutcomeOnlyWhileLeaseIsHeld() {
+        UnitOfWork<TestTask> unitOfWork = UnitOfWork.from("uow-1", new TestTask("task-1", "payload"));
+        unitOfWork.setState(UnitOfWork.State.ACCEPTED);
+        repository.save(unitOfWork).block();
+        UnitOfWork<TestTask> claimed = repository.claim(unitOfWork, "node-1", Duration.ofMillis(-1)).block();
+        long leaseVersion = claimed.getVersion();
+
+        UnitOfWork<TestTask> reclaimed = repository.claim(repository.findById("uow-1").block(), "node-2",
+            Duration.ofMinutes(5)).block();
+        assertEquals(1, reclaimed.getRetries());
+        StepVerifier.create(repository.saveLeased(claimed, "node-1", leaseVersion,
+                completed -> completed.setState(UnitOfWork.State.COMPLETED)))
+            .verifyComplete();
+        assertEquals(UnitOfWork.State.IN_PROGRESS, repository.findById("uow-1").block().getState());
+
+        StepVerifier.create(repository.saveLeased(reclaimed, "node-2", reclaimed.getVersion(),
+                completed -> completed.setState(UnitOfWork.State.COMPLETED)))
+            .expectNextCount(1)
+            .verifyComplete();
+        assertEquals(UnitOfWork.State.COMPLETED, repository.findById("uow-1").block().getState());
+    }
+}
@@ -0,0 +1,92 @@
+package com.backbase.stream.worker.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.backbase.stream.worker.configuration.StreamWorkerConfiguration;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+class ExponentialBackoffRetryPolicyTest {
+
+    private final TestWorkerConfiguration configuration = new TestWorkerConfiguration();
+    private final ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(configuration);
+
+    @BeforeEach
+    void setUp() {
+        configuration.setRetryDuration(Duration.ofSeconds(10));
+        configuration.setRetryBackoffMultiplier(2.0);
+        configuration.setRetryMaxDuration(Duration.ofSeconds(60));
+        configuration.setRetryJitter(0);
+    }
+
+    @Test
+    void delayGrowsExponentiallyUpToMaxDuration() {
+        assertEquals(Duration.ofSeconds(10), retryPolicy.nextAttemptDelay(0, Collections.emptyList()));
+        assertEquals(Duration.ofSeconds(20), retryPolicy.nextAttemptDelay(1, Collections.emptyList()));
+        assertEquals(Duration.ofSeconds(40), retryPolicy.nextAttemptDelay(2, Collections.emptyList()));
+        assertEquals(Duration.ofSeconds(60), retryPolicy.nextAttemptDelay(3, Collections.emptyList()));
+    }
+
+    @Test
+    void jitterSpreadsDelayAroundBackoff() {
+        configuration.setRetryJitter(0.5);
+
+        for (int i = 0; i < 100; i++) {
+            Duration delay = retryPolicy.nextAttemptDelay(0, Collections.emptyList());
+            assertTrue(delay.compareTo(Duration.ofSeconds(5)) >= 0, "Delay too short: " + delay);
+            assertTrue(delay.compareTo(Duration.ofSeconds(15)) <= 0, "Delay too long: " + delay);
+        }
+    }
+
+    @Test
+    void unavailableAndTooManyRequestsAreRetried() {
+        assertEquals(Duration.ofSeconds(10),
+            retryPolicy.nextAttemptDelay(0, Collections.singletonList(responseException(503, null))));
+        assertEquals(Duration.ofSeconds(10),
+            retryPolicy.nextAttemptDelay(0, Collections.singletonList(responseException(429, null))));
+    }
+
+    @Test
+    void badRequestIsNotRetried() {
+        assertNull(retryPolicy.nextAttemptDelay(0, Collections.singletonList(responseException(400, null))));
+        assertNull(retryPolicy.nextAttemptDelay(0,
+            Collections.singletonList(new IllegalStateException("wrapped", responseException(400, null)))));
+    }
+
+    @Test
+    void retryableFailureWinsOverTerminalFailure() {
+        assertEquals(Duration.ofSeconds(10), retryPolicy.nextAttemptDelay(0,
+            Arrays.asList(responseException(400, null), new IllegalStateException("boom"))));
+    }
+
+    @Test
+    void retryAfterHeaderIsHonoured() {
+        assertEquals(Duration.ofSeconds(120),
+            retryPolicy.nextAttemptDelay(0, Collections.singletonList(responseException(503, "120"))));
+        assertEquals(Duration.ofSeconds(10),
+            retryPolicy.nextAttemptDelay(0, Collections.singletonList(responseException(429, "5"))));
+        assertEquals(Duration.ofSeconds(10),
+            retryPolicy.nextAttemptDelay(0, Collections.singletonList(responseException(429, "invalid"))));
+    }
+
+    private WebClientResponseException responseException(int status, String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return WebClientResponseException.create(status, "status " + status, headers, new byte[0],
+            StandardCharsets.UTF_8);
+    }
+
+    private static class TestWorkerConfiguration extends StreamWorkerConfiguration {
+
+    }
+}
@@ -0,0 +1,117 @@
+package com.backbase.stream.worker.stage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class StageGraphTest {
+
+    private final Queue<String> started = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void runsIndependentStagesConcurrently() {
+        Sinks.One<String> slow = Sinks.one();
+        StageGraph<String> graph = StageGraph.<String>builder("test")
+            .stage("root", record("root"))
+            .stage("slow", subject -> {
+                started.add("slow");
+                return slow.asMono();
+            }, "root")
+            .stage("fast", record("fast"), "root")
+            .stage("join", record("join"), "slow", "fast")
+            .build();
+
+        StepVerifier.create(graph.execute("subject"))
+            .then(() -> {
+                assertEquals(List.of("root", "slow", "fast"), List.copyOf(started));
+                slow.tryEmitValue("subject");
+            })
+            .expectNext("subject")
+            .verifyComplete();
+
+        assertEquals(List.of("root", "slow", "fast", "join"), List.copyOf(started));
+    }
+
+    @Test
+    void emptyStageSkipsDependentsAndCompletesEmpty() {
+        StageGraph<String> graph = StageGraph.<String>builder("test")
+            .stage("root", record("root"))
+            .stage("empty", subject -> Mono.empty(), "root")
+            .stage("dependent", record("dependent"), "empty")
+            .stage("independent", record("independent"), "root")
+            .build();
+
+        StepVerifier.create(graph.execute("subject"))
+            .verifyComplete();
+
+        assertEquals(List.of("root", "independent"), List.copyOf(started));
+    }
+
+    @Test
+    void errorFailsGraphWithoutStartingDependents() {
+        IllegalStateException failure = new IllegalStateException("failed");
+        StageGraph<String> graph = StageGraph.<String>builder("test")
+            .stage("failing", subject -> Mono.error(failure))
+            .stage("dependent", record("dependent"), "failing")
+            .build();
+
+        StepVerifier.create(graph.execute("subject"))
+            .verifyErrorMatches(failure::equals);
+
+        assertTrue(started.isEmpty());
+    }
+
+    @Test
+    void runsEachStageOnceForSharedDependencies() {
+        StageGraph<String> graph = StageGraph.<String>builder("test")
+            .stage("root", record("root"))
+            .stage("left", record("left"), "root")
+            .stage("right", record("right"), "root")
+            .stage("join", record("join"), "left", "right", "root")
+            .build();
+
+        StepVerifier.create(graph.execute("subject"))
+            .expectNext("subject")
+            .verifyComplete();
+
+        assertEquals(4, started.size());
+        assertEquals(1, started.stream().filter("root"::equals).count());
+    }
+
+    @Test
+    void rejectsDependenciesNotDeclaredBefore() {
+        StageGraph.Builder<String> builder = StageGraph.<String>builder("test")
+            .stage("root", record("root"));
+
+        assertThrows(IllegalArgumentException.class, () -> builder.stage("child", record("child"), "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> builder.stage("root", record("root")));
+    }
+
+    @Test
+    void exposesStagesAndDependencies() {
+        StageGraph<String> graph = StageGraph.<String>builder("test")
+            .stage("root", record("root"))
+            .stage("child", record("child"), "root")
+            .build();
+
+        assertEquals(List.of("root"), graph.getStage("child").getDependencies());
+        assertEquals("test: root[] child[root]", graph.toString());
+    }
+
+    private Function<String, Mono<String>> record(String stage) {
+        return subject -> {
+            started.add(stage);
+            return Mono.just(subject);
+        };
+    }
+
+}
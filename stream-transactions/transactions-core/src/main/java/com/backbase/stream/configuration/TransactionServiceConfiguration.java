@@ -11,15 +11,20 @@ import com.backbase.stream.transaction.TransactionTaskExecutor;
 import com.backbase.stream.transaction.TransactionUnitOfWorkExecutor;
 import com.backbase.stream.transaction.repository.TransactionUnitOfWorkRepository;
 import com.backbase.stream.worker.repository.impl.InMemoryReactiveUnitOfWorkRepository;
+import com.backbase.stream.worker.repository.impl.R2dbcUnitOfWorkRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactory;
 import java.text.DateFormat;
+import java.time.Duration;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @EnableConfigurationProperties({
@@ -48,13 +53,38 @@ public class TransactionServiceConfiguration {
 
     @Bean
     @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "memory", matchIfMissing = true)
-    public TransactionUnitOfWorkRepository transactionUnitOfWorkRepository() {
-        return new InMemoryTransactionUnitOfWorkRepository();
+    public TransactionUnitOfWorkRepository transactionUnitOfWorkRepository(
+        TransactionWorkerConfigurationProperties transactionWorkerConfigurationProperties) {
+        return new InMemoryTransactionUnitOfWorkRepository(
+            transactionWorkerConfigurationProperties.getCompletedUnitOfWorkTtl());
     }
 
     public static class InMemoryTransactionUnitOfWorkRepository extends
         InMemoryReactiveUnitOfWorkRepository<TransactionTask> implements TransactionUnitOfWorkRepository {
 
+        public InMemoryTransactionUnitOfWorkRepository(Duration completedTtl) {
+            super(completedTtl);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.r2dbc.core.DatabaseClient")
+    @ConditionalOnProperty(name = "backbase.stream.persistence", havingValue = "r2dbc")
+    public static class TransactionR2dbcPersistenceConfiguration {
+
+        @Bean
+        public TransactionUnitOfWorkRepository transactionR2dbcUnitOfWorkRepository(
+            ConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+            return new R2dbcTransactionUnitOfWorkRepository(DatabaseClient.create(connectionFactory), objectMapper);
+        }
+    }
+
+    public static class R2dbcTransactionUnitOfWorkRepository extends
+        R2dbcUnitOfWorkRepository<TransactionTask> implements TransactionUnitOfWorkRepository {
+
+        public R2dbcTransactionUnitOfWorkRepository(DatabaseClient databaseClient, ObjectMapper objectMapper) {
+            super(databaseClient, objectMapper, TransactionTask.class);
+        }
     }
 
     @Bean
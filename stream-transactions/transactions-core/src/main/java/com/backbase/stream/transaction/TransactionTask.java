@@ -6,8 +6,10 @@ import com.backbase.stream.worker.model.StreamTask;
 import java.util.List;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 @EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
 @Data
 public class TransactionTask extends StreamTask {
 